@@ -34,6 +34,11 @@ public class TerraConfig {
     })
     public static HttpOpts http = new HttpOpts();
 
+    @Comment({
+            "Configure how terraplusplus caches decoded dataset tiles in memory."
+    })
+    public static TileCacheOpts tileCache = new TileCacheOpts();
+
     @SubscribeEvent
     public static void onConfigChanged(ConfigChangedEvent.OnConfigChangedEvent event) {
         if (TerraConstants.MODID.equals(event.getModID())) {
@@ -54,6 +59,8 @@ public class TerraConfig {
                 "Each line is an entry, given in the following format:",
                 "  \"<number>: <host>\"",
                 "Example: \"3: https://example.com/\" will permit up to 3 requests to URLs starting with \"https://example.com/\" to be made at once.",
+                "The actual number of concurrent requests is adjusted automatically based on the host's response times and error rate, but will never exceed"
+                + " the given maximum. Hosts which support HTTP/2 are not subject to this limit, as all requests to them share a single connection.",
                 "",
                 "You are strongly advised not to modify the default settings. Many of these services do not have the capacity to deal with thousands"
                 + " of concurrent requests, and raising the limits will only make them slower for everyone while not actually providing any noticeable performance"
@@ -67,6 +74,38 @@ public class TerraConfig {
                 "1: https://lz4.overpass-api.de/"
         };
 
+        @Comment({
+                "The maximum permitted number of concurrent HTTP requests to hosts which aren't listed in maxConcurrentRequests.",
+                "Default: 16"
+        })
+        public int defaultMaxConcurrentRequests = 16;
+
+        @Comment({
+                "Whether or not to send requests to multiple mirrors in parallel if the first mirror takes unusually long to respond.",
+                "The first response to arrive is used, and the other requests are cancelled. This greatly reduces the worst-case latency when a mirror"
+                + " is overloaded, at the cost of sending some additional requests."
+        })
+        public boolean hedgedRequests = false;
+
+        @Comment({
+                "Configures local directories which mirror the contents of remote servers, allowing data to be read directly from disk.",
+                "Each line is an entry, given in the following format:",
+                "  \"<url prefix> = <directory>\"",
+                "Example: \"https://cloud.daporkchop.net/gis/ = /srv/tiles/\" will cause \"https://cloud.daporkchop.net/gis/osm/0/tile/0/0.json\" to be read"
+                + " from \"/srv/tiles/osm/0/tile/0/0.json\".",
+                "If a file doesn't exist in the local mirror, it will be requested from the remote server instead (unless offline mode is enabled, in which"
+                + " case only the persistent cache will be checked)."
+        })
+        public String[] localMirrors = {};
+
+        @Comment({
+                "Whether or not to run in offline mode. If enabled, no network requests will be made at all, and all data must be available either from"
+                + " file:// URLs, from one of the local mirrors or from the persistent cache.",
+                "Cached data is used even if it is stale or expired, since it can't be refreshed. Data which isn't available locally will be treated as"
+                + " if it doesn't exist."
+        })
+        public boolean offline = false;
+
         @Comment({
                 "Whether or not to use the persistent data cache.",
                 "This is strongly recommended for performance. Disable only for debugging, or if you have EXTREMELY limited storage."
@@ -78,5 +117,44 @@ public class TerraConfig {
                 "Default: 1440 minutes (1 day)"
         })
         public int cacheTTL = 1440;
+
+        @Comment({
+                "Whether or not to return stale data from the persistent cache immediately, instead of waiting for it to be refreshed.",
+                "The stale data will be refreshed in the background, and the refreshed data will be used the next time it is needed.",
+                "This prevents terrain generation from ever having to wait for the network if the data is already cached, at the cost of occasionally"
+                + " generating terrain using slightly outdated data.",
+                "Default: false (stale data is refreshed before it is used)"
+        })
+        public boolean staleWhileRevalidate = false;
+
+        @Comment({
+                "The maximum total size of the persistent cache, in megabytes. Once exceeded, the oldest data in the cache will be deleted.",
+                "Set to 0 to allow the cache to grow without limit.",
+                "Default: 4096 megabytes"
+        })
+        public int cacheMaxSize = 4096;
+
+        @Comment({
+                "The number of threads to use for reading from and writing to the persistent cache.",
+                "Reads are always prioritized over writes, and at most one of these threads will be writing at any given time.",
+                "Default: 4"
+        })
+        @Config.RequiresMcRestart
+        public int diskThreads = 4;
+    }
+
+    public static class TileCacheOpts {
+        @Comment({
+                "The maximum amount of memory which may be used for caching decoded elevation and tree cover tiles, in megabytes.",
+                "Default: 512 megabytes"
+        })
+        public int maxMemory = 512;
+
+        @Comment({
+                "Whether or not to store cached tiles outside of the Java heap as 32-bit floats.",
+                "This halves the memory used by each tile and greatly reduces garbage collector pressure on busy servers, at the cost of some precision.",
+                "Only affects tiles which are loaded after the setting is changed."
+        })
+        public boolean offHeap = false;
     }
 }
@@ -8,6 +8,8 @@ import io.netty.buffer.ByteBuf;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
+import net.buildtheearth.terraplusplus.dataset.scalar.ScalarTile;
+import net.buildtheearth.terraplusplus.dataset.scalar.ShortScalarTile;
 
 import java.io.IOException;
 
@@ -34,9 +36,21 @@ public class DivideDSP implements DoubleScalarParser {
 
     @Override
     public double[] parse(int resolution, @NonNull ByteBuf buffer) throws IOException {
-        double[] arr = this.delegate.parse(resolution, buffer);
+        return this.apply(this.delegate.parse(resolution, buffer));
+    }
+
+    @Override
+    public ScalarTile parseTile(int resolution, @NonNull ByteBuf buffer) throws IOException {
+        ScalarTile tile = this.delegate.parseTile(resolution, buffer);
+        if (tile instanceof ShortScalarTile) { //quantized tiles can be transformed without touching the individual values
+            return ((ShortScalarTile) tile).transform(this.factor, 0.0d);
+        }
+        return ScalarTile.of(this.apply(tile.toArray()));
+    }
+
+    protected double[] apply(@NonNull double[] arr) {
         double factor = this.factor;
-        for (int i = 0, len = resolution * resolution; i < len; i++) {
+        for (int i = 0; i < arr.length; i++) {
             arr[i] *= factor;
         }
         return arr;
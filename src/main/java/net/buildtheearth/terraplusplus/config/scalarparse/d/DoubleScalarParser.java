@@ -7,6 +7,7 @@ import lombok.NonNull;
 import net.buildtheearth.terraplusplus.config.GlobalParseRegistries;
 import net.buildtheearth.terraplusplus.config.TypedDeserializer;
 import net.buildtheearth.terraplusplus.config.TypedSerializer;
+import net.buildtheearth.terraplusplus.dataset.scalar.ScalarTile;
 
 import java.io.IOException;
 import java.util.Map;
@@ -22,6 +23,18 @@ import java.util.Map;
 public interface DoubleScalarParser {
     double[] parse(int resolution, @NonNull ByteBuf buffer) throws IOException;
 
+    /**
+     * Parses the values into a {@link ScalarTile}.
+     * <p>
+     * Implementations may override this in order to produce more compact tile representations without going through a {@code double[]}.
+     *
+     * @see #parse(int, ByteBuf)
+     * @see ScalarTile#of(double[])
+     */
+    default ScalarTile parseTile(int resolution, @NonNull ByteBuf buffer) throws IOException {
+        return ScalarTile.of(this.parse(resolution, buffer));
+    }
+
     class Deserializer extends TypedDeserializer<DoubleScalarParser> {
         @Override
         protected Map<String, Class<? extends DoubleScalarParser>> registry() {
@@ -7,6 +7,8 @@ import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import io.netty.buffer.ByteBuf;
 import lombok.Getter;
 import lombok.NonNull;
+import net.buildtheearth.terraplusplus.dataset.scalar.ScalarTile;
+import net.buildtheearth.terraplusplus.dataset.scalar.ShortScalarTile;
 
 import java.io.IOException;
 
@@ -29,9 +31,21 @@ public class MultiplyDSP implements DoubleScalarParser {
 
     @Override
     public double[] parse(int resolution, @NonNull ByteBuf buffer) throws IOException {
-        double[] arr = this.delegate.parse(resolution, buffer);
+        return this.apply(this.delegate.parse(resolution, buffer));
+    }
+
+    @Override
+    public ScalarTile parseTile(int resolution, @NonNull ByteBuf buffer) throws IOException {
+        ScalarTile tile = this.delegate.parseTile(resolution, buffer);
+        if (tile instanceof ShortScalarTile) { //quantized tiles can be transformed without touching the individual values
+            return ((ShortScalarTile) tile).transform(this.value, 0.0d);
+        }
+        return ScalarTile.of(this.apply(tile.toArray()));
+    }
+
+    protected double[] apply(@NonNull double[] arr) {
         double value = this.value;
-        for (int i = 0, len = resolution * resolution; i < len; i++) {
+        for (int i = 0; i < arr.length; i++) {
             arr[i] *= value;
         }
         return arr;
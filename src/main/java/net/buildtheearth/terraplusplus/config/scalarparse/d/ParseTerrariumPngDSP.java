@@ -5,6 +5,8 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufInputStream;
 import lombok.NonNull;
 import net.buildtheearth.terraplusplus.config.scalarparse.i.IntScalarParser;
+import net.buildtheearth.terraplusplus.dataset.scalar.FloatScalarTile;
+import net.buildtheearth.terraplusplus.dataset.scalar.ScalarTile;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
@@ -19,6 +21,11 @@ import static net.daporkchop.lib.common.util.PValidation.*;
 public class ParseTerrariumPngDSP implements DoubleScalarParser {
     @Override
     public double[] parse(int resolution, @NonNull ByteBuf buffer) throws IOException {
+        return this.parseTile(resolution, buffer).toArray();
+    }
+
+    @Override
+    public ScalarTile parseTile(int resolution, @NonNull ByteBuf buffer) throws IOException {
         BufferedImage image = ImageIO.read(new ByteBufInputStream(buffer));
 
         int w = image.getWidth();
@@ -26,17 +33,18 @@ public class ParseTerrariumPngDSP implements DoubleScalarParser {
         checkArg(w == resolution && h == resolution, "invalid image resolution: %dx%d (expected: %dx%3$d)", w, h, resolution);
 
         int[] rgb = image.getRGB(0, 0, resolution, resolution, null, 0, resolution);
-        double[] out = new double[resolution * resolution];
+        float[] out = new float[resolution * resolution];
 
+        //terrarium values have 24 bits of precision, so they can always be represented exactly as floats
         for (int i = 0; i < resolution * resolution; i++) {
             int c = rgb[i];
             if ((c >>> 24) != 0xFF) { //nodata
-                out[i] = Double.NaN;
+                out[i] = Float.NaN;
             } else {
-                out[i] = ((c & ~0xFF000000) - 0x00800000) * (1.0d / 256.0d);
+                out[i] = ((c & ~0xFF000000) - 0x00800000) * (1.0f / 256.0f);
             }
         }
 
-        return out;
+        return new FloatScalarTile(out);
     }
 }
@@ -4,6 +4,7 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import lombok.NonNull;
+import net.buildtheearth.terraplusplus.util.http.PrioritizedCacheLoader;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
@@ -12,14 +13,17 @@ import java.util.concurrent.TimeUnit;
  * @author DaPorkchop_
  */
 public abstract class Dataset<K, V> extends CacheLoader<K, CompletableFuture<V>> implements IDataset<K, V> {
+    protected final PrioritizedCacheLoader<K, V> loader = new PrioritizedCacheLoader<>(this);
     protected final LoadingCache<K, CompletableFuture<V>> cache = CacheBuilder.newBuilder()
             .softValues()
             .expireAfterAccess(5L, TimeUnit.MINUTES)
-            .build(this);
+            .build(this.loader);
 
     @Override
     public CompletableFuture<V> getAsync(@NonNull K key) {
-        return this.cache.getUnchecked(key);
+        CompletableFuture<V> future = this.cache.getUnchecked(key);
+        this.loader.awaiting(key); //if the value is still being loaded, the caller's priority also applies to it
+        return future;
     }
 
     /**
@@ -8,6 +8,8 @@ import net.buildtheearth.terraplusplus.util.CornerBoundingBox2d;
 
 import java.util.concurrent.CompletableFuture;
 
+import static net.daporkchop.lib.common.util.PorkUtil.*;
+
 /**
  * A dataset consisting of floating-point scalar values.
  *
@@ -40,4 +42,31 @@ public interface IScalarDataset {
      * @return a {@link CompletableFuture} which will be completed with the values
      */
     CompletableFuture<double[]> getAsync(@NonNull CornerBoundingBox2d bounds, int sizeX, int sizeZ) throws OutOfProjectionBoundsException;
+
+    /**
+     * Asynchronously gets a bunch of values for each of multiple bounding boxes at once.
+     * <p>
+     * The result is equivalent to calling {@link #getAsync(CornerBoundingBox2d, int, int)} once for each bounding box, but implementations may
+     * be able to share work between the individual requests. In order for this to be effective, all of the bounding boxes should be located
+     * close to each other (e.g. a region of adjacent chunks).
+     * <p>
+     * Each bounding box is completed independently of the others: if one of them can't be sampled (e.g. because it's out of bounds, or because
+     * a tile it needs failed to load), only its own future will be completed exceptionally.
+     *
+     * @param bounds the bounding boxes to sample
+     * @param sizeX  the number of samples to take along the X axis of each bounding box
+     * @param sizeZ  the number of samples to take along the Z axis of each bounding box
+     * @return a {@link CompletableFuture} for each bounding box which will be completed with its values, in the same order as the input array
+     */
+    default CompletableFuture<double[]>[] getAsync(@NonNull CornerBoundingBox2d[] bounds, int sizeX, int sizeZ) {
+        CompletableFuture<double[]>[] futures = uncheckedCast(new CompletableFuture[bounds.length]);
+        for (int i = 0; i < bounds.length; i++) {
+            try {
+                futures[i] = this.getAsync(bounds[i], sizeX, sizeZ);
+            } catch (OutOfProjectionBoundsException e) {
+                (futures[i] = new CompletableFuture<>()).completeExceptionally(e);
+            }
+        }
+        return futures;
+    }
 }
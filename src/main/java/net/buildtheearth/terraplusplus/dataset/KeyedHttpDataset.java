@@ -22,6 +22,14 @@ public abstract class KeyedHttpDataset<V> extends Dataset<String, V> {
 
     @Override
     public CompletableFuture<V> load(@NonNull String key) throws Exception {
-        return Http.getFirst(Arrays.stream(this.urls()).map(s -> s + key).toArray(String[]::new), data -> this.decode(key, data));
+        return Http.getFirst(Arrays.stream(this.urls()).map(s -> s + key).toArray(String[]::new), data -> this.decode(key, data),
+                Http.currentPriority(), this.storeResponses());
+    }
+
+    /**
+     * @return whether or not the raw responses should be stored in the persistent cache
+     */
+    protected boolean storeResponses() {
+        return true;
     }
 }
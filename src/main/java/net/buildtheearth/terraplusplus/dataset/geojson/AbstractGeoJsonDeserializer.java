@@ -4,6 +4,8 @@ import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.doubles.DoubleList;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.GeometryCollection;
@@ -67,7 +69,7 @@ abstract class AbstractGeoJsonDeserializer<T extends GeoJsonObject> extends Type
             case "Point":
                 return this.readPoint(in);
             case "MultiPoint":
-                return new MultiPoint(this.readPoints(in));
+                return new MultiPoint(this.readCoords(in));
             case "LineString":
                 return this.readLineString(in);
             case "MultiLineString":
@@ -90,18 +92,24 @@ abstract class AbstractGeoJsonDeserializer<T extends GeoJsonObject> extends Type
         return point;
     }
 
-    protected Point[] readPoints(JsonReader in) throws IOException {
-        List<Point> points = new ArrayList<>();
+    protected double[] readCoords(JsonReader in) throws IOException {
+        DoubleList coords = new DoubleArrayList();
         in.beginArray();
         while (in.peek() != JsonToken.END_ARRAY) {
-            points.add(this.readPoint(in));
+            in.beginArray();
+            coords.add(in.nextDouble());
+            coords.add(in.nextDouble());
+            if (in.peek() == JsonToken.NUMBER) { //optional elevation
+                in.nextDouble();
+            }
+            in.endArray();
         }
         in.endArray();
-        return points.toArray(new Point[0]);
+        return coords.toDoubleArray();
     }
 
     protected LineString readLineString(JsonReader in) throws IOException {
-        return new LineString(this.readPoints(in));
+        return new LineString(this.readCoords(in));
     }
 
     protected LineString[] readLineStrings(JsonReader in) throws IOException {
@@ -1,5 +1,6 @@
 package net.buildtheearth.terraplusplus.dataset.geojson;
 
+import io.netty.buffer.ByteBuf;
 import lombok.NonNull;
 import lombok.experimental.UtilityClass;
 import net.buildtheearth.terraplusplus.TerraConstants;
@@ -30,4 +31,31 @@ public class GeoJson {
     public static GeoJsonObject parse(@NonNull String json) {
         return TerraConstants.GSON.fromJson(json, GeoJsonObject.class);
     }
+
+    /**
+     * Parses all of the GeoJSON objects in the given {@link ByteBuf}.
+     * <p>
+     * The buffer may either contain UTF-8 encoded JSON text, in which case objects may be separated by any amount of whitespace (as is the case
+     * with line-delimited GeoJSON), or data in Terra++'s binary GeoJSON format (see {@link #toBinary(GeoJsonObject[], ByteBuf)}). JSON text is
+     * parsed directly from the buffer, without first being decoded into {@link String}s.
+     *
+     * @param buf the {@link ByteBuf} to read from
+     * @return the parsed GeoJSON objects
+     */
+    public static GeoJsonObject[] parseAll(@NonNull ByteBuf buf) {
+        return GeoJsonBinary.isBinary(buf) ? GeoJsonBinary.decode(buf) : new GeoJsonReader(buf).readAll();
+    }
+
+    /**
+     * Encodes the given GeoJSON objects using Terra++'s compact binary format.
+     * <p>
+     * The binary format is several times smaller than GeoJSON text, and much faster to parse. Coordinates are stored with a precision of
+     * 10<sup>-7</sup>, which is the same precision used by OpenStreetMap.
+     *
+     * @param objects the GeoJSON objects
+     * @param buf     the {@link ByteBuf} to write to
+     */
+    public static void toBinary(@NonNull GeoJsonObject[] objects, @NonNull ByteBuf buf) {
+        GeoJsonBinary.encode(objects, buf);
+    }
 }
@@ -0,0 +1,373 @@
+package net.buildtheearth.terraplusplus.dataset.geojson;
+
+import io.netty.buffer.ByteBuf;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.GeometryCollection;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.LineString;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiLineString;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiPoint;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiPolygon;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.Point;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.Polygon;
+import net.buildtheearth.terraplusplus.dataset.geojson.object.Feature;
+import net.buildtheearth.terraplusplus.dataset.geojson.object.FeatureCollection;
+import net.buildtheearth.terraplusplus.dataset.geojson.object.Reference;
+import net.buildtheearth.terraplusplus.util.VarInts;
+import net.daporkchop.lib.common.util.PorkUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static net.buildtheearth.terraplusplus.util.VarInts.*;
+import static net.daporkchop.lib.common.util.PValidation.*;
+
+/**
+ * Compact binary encoding of a sequence of GeoJSON objects, used as an alternative to line-delimited GeoJSON text for OSM tiles.
+ * <p>
+ * Coordinates are quantized to 10<sup>-7</sup> units (the precision at which OpenStreetMap stores coordinates, so OSM data round-trips exactly)
+ * and stored as zigzag-encoded variable-length deltas from the previous coordinate. Strings are deduplicated using a table which is built up
+ * while the tile is being read, so property keys and common values are only stored once per tile.
+ * <p>
+ * Format:
+ * <pre>
+ * tile       := magic:int32 version:u8 count:varint object[count]
+ * object     := tag:u8 body
+ * string     := varint (0 = null, 1 = new string followed by length:varint utf8[length], n = the (n-2)th string read so far)
+ * coords     := count:varint (dx:zigzag-varint dy:zigzag-varint)[count]
+ * </pre>
+ *
+ * @author DaPorkchop_
+ */
+@UtilityClass
+class GeoJsonBinary {
+    public final int MAGIC = 0x54505056; //"TPPV"
+    public final int VERSION = 1;
+
+    private final double SCALE = 1e7d;
+
+    private final int TAG_POINT = 0;
+    private final int TAG_MULTI_POINT = 1;
+    private final int TAG_LINE_STRING = 2;
+    private final int TAG_MULTI_LINE_STRING = 3;
+    private final int TAG_POLYGON = 4;
+    private final int TAG_MULTI_POLYGON = 5;
+    private final int TAG_GEOMETRY_COLLECTION = 6;
+    private final int TAG_FEATURE = 7;
+    private final int TAG_FEATURE_COLLECTION = 8;
+    private final int TAG_REFERENCE = 9;
+
+    /**
+     * Checks whether or not the given buffer contains binary-encoded GeoJSON, without consuming any data.
+     *
+     * @param buf the buffer
+     * @return whether or not the buffer starts with the binary format's magic number
+     */
+    public boolean isBinary(@NonNull ByteBuf buf) {
+        return buf.readableBytes() >= 4 && buf.getInt(buf.readerIndex()) == MAGIC;
+    }
+
+    /**
+     * Encodes the given GeoJSON objects.
+     *
+     * @param objects the objects
+     * @param buf     the buffer to write the encoded objects to
+     */
+    public void encode(@NonNull GeoJsonObject[] objects, @NonNull ByteBuf buf) {
+        buf.writeInt(MAGIC).writeByte(VERSION);
+        Writer writer = new Writer(buf);
+        writer.writeVarLong(objects.length);
+        for (GeoJsonObject object : objects) {
+            writer.writeObject(object);
+        }
+    }
+
+    /**
+     * Decodes all of the GeoJSON objects in the given buffer.
+     *
+     * @param buf the buffer
+     * @return the decoded objects
+     */
+    public GeoJsonObject[] decode(@NonNull ByteBuf buf) {
+        checkArg(buf.readInt() == MAGIC, "invalid magic");
+        int version = buf.readUnsignedByte();
+        checkArg(version == VERSION, "unsupported version: %d", version);
+
+        Reader reader = new Reader(buf);
+        GeoJsonObject[] objects = new GeoJsonObject[reader.readCount()];
+        for (int i = 0; i < objects.length; i++) {
+            objects[i] = reader.readObject();
+        }
+        return objects;
+    }
+
+    private final class Writer {
+        private final ByteBuf buf;
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        private long lastX;
+        private long lastY;
+
+        public Writer(@NonNull ByteBuf buf) {
+            this.buf = buf;
+        }
+
+        public void writeObject(@NonNull GeoJsonObject object) {
+            if (object instanceof Point) {
+                this.buf.writeByte(TAG_POINT);
+                Point point = (Point) object;
+                this.writeVarLong(1L);
+                this.writeCoord(point.lon(), point.lat());
+            } else if (object instanceof MultiPoint) {
+                this.buf.writeByte(TAG_MULTI_POINT);
+                this.writeCoords(((MultiPoint) object).coords());
+            } else if (object instanceof LineString) {
+                this.buf.writeByte(TAG_LINE_STRING);
+                this.writeCoords(((LineString) object).coords());
+            } else if (object instanceof MultiLineString) {
+                this.buf.writeByte(TAG_MULTI_LINE_STRING);
+                LineString[] lines = ((MultiLineString) object).lines();
+                this.writeVarLong(lines.length);
+                for (LineString line : lines) {
+                    this.writeCoords(line.coords());
+                }
+            } else if (object instanceof Polygon) {
+                this.buf.writeByte(TAG_POLYGON);
+                this.writePolygon((Polygon) object);
+            } else if (object instanceof MultiPolygon) {
+                this.buf.writeByte(TAG_MULTI_POLYGON);
+                Polygon[] polygons = ((MultiPolygon) object).polygons();
+                this.writeVarLong(polygons.length);
+                for (Polygon polygon : polygons) {
+                    this.writePolygon(polygon);
+                }
+            } else if (object instanceof GeometryCollection) {
+                this.buf.writeByte(TAG_GEOMETRY_COLLECTION);
+                Geometry[] geometries = ((GeometryCollection) object).geometries();
+                this.writeVarLong(geometries.length);
+                for (Geometry geometry : geometries) {
+                    this.writeObject(geometry);
+                }
+            } else if (object instanceof Feature) {
+                this.buf.writeByte(TAG_FEATURE);
+                this.writeFeature((Feature) object);
+            } else if (object instanceof FeatureCollection) {
+                this.buf.writeByte(TAG_FEATURE_COLLECTION);
+                Feature[] features = ((FeatureCollection) object).features();
+                this.writeVarLong(features.length);
+                for (Feature feature : features) {
+                    this.writeFeature(feature);
+                }
+            } else if (object instanceof Reference) {
+                this.buf.writeByte(TAG_REFERENCE);
+                this.writeString(((Reference) object).location());
+            } else {
+                throw new IllegalArgumentException("unsupported GeoJSON object type: " + PorkUtil.className(object));
+            }
+        }
+
+        private void writeFeature(@NonNull Feature feature) {
+            this.writeString(feature.id());
+
+            Map<String, String> properties = feature.properties();
+            if (properties == null) {
+                this.writeVarLong(0L);
+            } else {
+                this.writeVarLong(properties.size() + 1L);
+                properties.forEach((key, value) -> {
+                    this.writeString(key);
+                    this.writeString(value);
+                });
+            }
+
+            this.writeObject(feature.geometry());
+        }
+
+        private void writePolygon(@NonNull Polygon polygon) {
+            LineString[] innerRings = polygon.innerRings();
+            this.writeVarLong(innerRings.length + 1L);
+            this.writeCoords(polygon.outerRing().coords());
+            for (LineString innerRing : innerRings) {
+                this.writeCoords(innerRing.coords());
+            }
+        }
+
+        private void writeCoords(@NonNull double[] coords) {
+            this.writeVarLong(coords.length >> 1);
+            for (int i = 0; i < coords.length; i += 2) {
+                this.writeCoord(coords[i], coords[i + 1]);
+            }
+        }
+
+        private void writeCoord(double x, double y) {
+            long qx = Math.round(x * SCALE);
+            long qy = Math.round(y * SCALE);
+            this.writeVarLong(zigzag(qx - this.lastX));
+            this.writeVarLong(zigzag(qy - this.lastY));
+            this.lastX = qx;
+            this.lastY = qy;
+        }
+
+        private void writeString(String s) {
+            if (s == null) {
+                this.writeVarLong(0L);
+                return;
+            }
+
+            Integer index = this.strings.get(s);
+            if (index != null) { //the string has already been written, reference it
+                this.writeVarLong(index + 2L);
+            } else {
+                this.strings.put(s, this.strings.size());
+                this.writeVarLong(1L);
+
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                this.writeVarLong(bytes.length);
+                this.buf.writeBytes(bytes);
+            }
+        }
+
+        public void writeVarLong(long value) {
+            VarInts.writeVarLong(this.buf, value);
+        }
+    }
+
+    private final class Reader {
+        private final ByteBuf buf;
+        private final List<String> strings = new ArrayList<>();
+
+        private long lastX;
+        private long lastY;
+
+        public Reader(@NonNull ByteBuf buf) {
+            this.buf = buf;
+        }
+
+        public GeoJsonObject readObject() {
+            int tag = this.buf.readUnsignedByte();
+            switch (tag) {
+                case TAG_POINT: {
+                    double[] coords = this.readCoords();
+                    checkArg(coords.length == 2, "Point must contain exactly one position!");
+                    return new Point(coords[0], coords[1]);
+                }
+                case TAG_MULTI_POINT:
+                    return new MultiPoint(this.readCoords());
+                case TAG_LINE_STRING:
+                    return new LineString(this.readCoords());
+                case TAG_MULTI_LINE_STRING: {
+                    LineString[] lines = new LineString[this.readCount()];
+                    for (int i = 0; i < lines.length; i++) {
+                        lines[i] = new LineString(this.readCoords());
+                    }
+                    return new MultiLineString(lines);
+                }
+                case TAG_POLYGON:
+                    return this.readPolygon();
+                case TAG_MULTI_POLYGON: {
+                    Polygon[] polygons = new Polygon[this.readCount()];
+                    for (int i = 0; i < polygons.length; i++) {
+                        polygons[i] = this.readPolygon();
+                    }
+                    return new MultiPolygon(polygons);
+                }
+                case TAG_GEOMETRY_COLLECTION: {
+                    Geometry[] geometries = new Geometry[this.readCount()];
+                    for (int i = 0; i < geometries.length; i++) {
+                        geometries[i] = this.readGeometry();
+                    }
+                    return new GeometryCollection(geometries);
+                }
+                case TAG_FEATURE:
+                    return this.readFeature();
+                case TAG_FEATURE_COLLECTION: {
+                    Feature[] features = new Feature[this.readCount()];
+                    for (int i = 0; i < features.length; i++) {
+                        features[i] = this.readFeature();
+                    }
+                    return new FeatureCollection(features);
+                }
+                case TAG_REFERENCE:
+                    return new Reference(this.readString());
+                default:
+                    throw new IllegalArgumentException("unknown tag: " + tag);
+            }
+        }
+
+        private Geometry readGeometry() {
+            GeoJsonObject object = this.readObject();
+            checkArg(object instanceof Geometry, "expected GeoJSON geometry, found %s", object);
+            return (Geometry) object;
+        }
+
+        private Feature readFeature() {
+            String id = this.readString();
+
+            Map<String, String> properties = null;
+            long propertyCount = this.readVarLong();
+            if (propertyCount != 0L) {
+                int size = toInt(propertyCount - 1L, "property count");
+                properties = new HashMap<>(size * 4 / 3 + 1);
+                for (int i = 0; i < size; i++) {
+                    properties.put(this.readString(), this.readString());
+                }
+            }
+
+            return new Feature(this.readGeometry(), properties, id);
+        }
+
+        private Polygon readPolygon() {
+            int ringCount = this.readCount();
+            checkArg(ringCount > 0, "Polygon must contain at least one ring!");
+
+            LineString outerRing = new LineString(this.readCoords());
+            LineString[] innerRings = new LineString[ringCount - 1];
+            for (int i = 0; i < innerRings.length; i++) {
+                innerRings[i] = new LineString(this.readCoords());
+            }
+            return new Polygon(outerRing, innerRings);
+        }
+
+        private double[] readCoords() {
+            int count = this.readCount();
+            checkArg(count <= this.buf.readableBytes() >> 1, "position count %d exceeds remaining data", count);
+
+            double[] coords = new double[count << 1];
+            long x = this.lastX;
+            long y = this.lastY;
+            for (int i = 0; i < coords.length; i += 2) {
+                coords[i] = (x += unzigzag(this.readVarLong())) / SCALE;
+                coords[i + 1] = (y += unzigzag(this.readVarLong())) / SCALE;
+            }
+            this.lastX = x;
+            this.lastY = y;
+            return coords;
+        }
+
+        private String readString() {
+            long ref = this.readVarLong();
+            if (ref == 0L) {
+                return null;
+            } else if (ref == 1L) { //a new string, add it to the table
+                int length = this.readCount();
+                String s = this.buf.readCharSequence(length, StandardCharsets.UTF_8).toString();
+                this.strings.add(s);
+                return s;
+            } else {
+                checkArg(ref - 2L < this.strings.size(), "invalid string reference: %d", ref);
+                return this.strings.get((int) (ref - 2L));
+            }
+        }
+
+        public int readCount() {
+            return toInt(this.readVarLong(), "count");
+        }
+
+        public long readVarLong() {
+            return VarInts.readVarLong(this.buf);
+        }
+    }
+}
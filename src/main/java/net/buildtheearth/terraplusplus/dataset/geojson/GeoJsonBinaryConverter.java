@@ -0,0 +1,69 @@
+package net.buildtheearth.terraplusplus.dataset.geojson;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Command-line tool which converts a directory tree of line-delimited GeoJSON tiles into Terra++'s binary GeoJSON format.
+ * <p>
+ * The converted tiles keep their original file names, so a converted tile server (or local mirror) can be used as a drop-in replacement for
+ * the original one: {@link GeoJson#parseAll(ByteBuf)} detects the format automatically.
+ * <p>
+ * Usage: {@code GeoJsonBinaryConverter <input directory> <output directory>}
+ *
+ * @author DaPorkchop_
+ */
+public class GeoJsonBinaryConverter {
+    public static void main(String... args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: GeoJsonBinaryConverter <input directory> <output directory>");
+            System.exit(1);
+        }
+
+        Path inputRoot = Paths.get(args[0]).toAbsolutePath().normalize();
+        Path outputRoot = Paths.get(args[1]).toAbsolutePath().normalize();
+
+        long files = 0L;
+        long inputSize = 0L;
+        long outputSize = 0L;
+        try (Stream<Path> stream = Files.walk(inputRoot)) {
+            for (Iterator<Path> itr = stream.filter(Files::isRegularFile).iterator(); itr.hasNext(); ) {
+                Path input = itr.next();
+                Path output = outputRoot.resolve(inputRoot.relativize(input));
+
+                ByteBuf data = Unpooled.wrappedBuffer(Files.readAllBytes(input));
+                ByteBuf converted = Unpooled.buffer(data.readableBytes() >> 2);
+                try {
+                    inputSize += data.readableBytes();
+                    GeoJson.toBinary(GeoJson.parseAll(data), converted);
+                    outputSize += converted.readableBytes();
+
+                    Files.createDirectories(output.getParent());
+                    try (OutputStream out = Files.newOutputStream(output)) {
+                        converted.readBytes(out, converted.readableBytes());
+                    }
+                } catch (Exception e) {
+                    System.err.println("Failed to convert " + input + ": " + e);
+                    continue;
+                } finally {
+                    data.release();
+                    converted.release();
+                }
+
+                if ((++files & 0xFF) == 0) {
+                    System.out.printf("Converted %d tiles...\n", files);
+                }
+            }
+        }
+
+        System.out.printf("Converted %d tiles: %d bytes -> %d bytes (%.1f%%)\n", files, inputSize, outputSize, inputSize == 0L ? 0.0d : outputSize * 100.0d / inputSize);
+    }
+}
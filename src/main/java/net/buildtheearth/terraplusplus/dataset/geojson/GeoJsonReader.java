@@ -0,0 +1,487 @@
+package net.buildtheearth.terraplusplus.dataset.geojson;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.ByteProcessor;
+import lombok.NonNull;
+import net.buildtheearth.terraplusplus.TerraMod;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.GeometryCollection;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.LineString;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiLineString;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiPoint;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiPolygon;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.Point;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.Polygon;
+import net.buildtheearth.terraplusplus.dataset.geojson.object.Feature;
+import net.buildtheearth.terraplusplus.dataset.geojson.object.FeatureCollection;
+import net.buildtheearth.terraplusplus.dataset.geojson.object.Reference;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static net.daporkchop.lib.common.util.PValidation.*;
+
+/**
+ * A streaming GeoJSON parser which tokenizes UTF-8 encoded JSON text directly from a {@link ByteBuf}.
+ * <p>
+ * Unlike {@link GeoJson#parse(String)}, this doesn't require the input to be decoded into {@link String}s first, and coordinates are parsed
+ * straight from the raw bytes into the packed coordinate arrays used by the geometry types.
+ * <p>
+ * Like {@link AbstractGeoJsonDeserializer}, this expects the {@code "type"} field to be the first field of every object.
+ *
+ * @author DaPorkchop_
+ */
+final class GeoJsonReader {
+    private static final ByteProcessor FIND_STRING_END = b -> b != '"' && b != '\\';
+    private static final ByteProcessor FIND_TOKEN_END = b -> b != ',' && b != '}' && b != ']' && b != ' ' && b != '\t' && b != '\n' && b != '\r';
+
+    //powers of ten which can be represented exactly as a double
+    private static final double[] POWERS_OF_TEN = {
+            1e0d, 1e1d, 1e2d, 1e3d, 1e4d, 1e5d, 1e6d, 1e7d, 1e8d, 1e9d, 1e10d,
+            1e11d, 1e12d, 1e13d, 1e14d, 1e15d, 1e16d, 1e17d, 1e18d, 1e19d, 1e20d, 1e21d, 1e22d
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53L;
+
+    private final ByteBuf buf;
+
+    //coordinates of the positions in the array which is currently being read, stored as interleaved lon/lat pairs
+    private double[] coords = new double[256];
+    private int coordCount;
+
+    public GeoJsonReader(@NonNull ByteBuf buf) {
+        this.buf = buf;
+    }
+
+    /**
+     * Reads all of the GeoJSON objects remaining in the buffer. Objects may be separated by any amount of whitespace, as is the case with
+     * line-delimited GeoJSON.
+     *
+     * @return the GeoJSON objects
+     */
+    public GeoJsonObject[] readAll() {
+        List<GeoJsonObject> objects = new ArrayList<>();
+        while (this.peek() >= 0) {
+            objects.add(this.readObject());
+        }
+        return objects.toArray(new GeoJsonObject[0]);
+    }
+
+    /**
+     * Reads a single GeoJSON object.
+     *
+     * @return the GeoJSON object
+     */
+    public GeoJsonObject readObject() {
+        this.expect('{');
+        this.expectName("type");
+        String type = this.readString();
+
+        GeoJsonObject object;
+        switch (type) {
+            case "Feature":
+                object = this.readFeature();
+                break;
+            case "FeatureCollection":
+                object = this.readFeatureCollection();
+                break;
+            case "Reference":
+                this.expect(',');
+                this.expectName("location");
+                object = new Reference(this.readString());
+                break;
+            default:
+                object = this.readGeometry(type);
+        }
+
+        this.expect('}');
+        return object;
+    }
+
+    private Geometry readGeometryObject() {
+        GeoJsonObject object = this.readObject();
+        checkState(object instanceof Geometry, "expected GeoJSON geometry, found %s", object);
+        return (Geometry) object;
+    }
+
+    private Feature readFeature() {
+        Geometry geometry = null;
+        Map<String, String> properties = null;
+        String id = null;
+
+        while (this.consume(',')) {
+            String name = this.readName();
+            switch (name) {
+                case "geometry":
+                    geometry = this.readGeometryObject();
+                    break;
+                case "properties":
+                    properties = this.readProperties();
+                    break;
+                case "id":
+                    id = this.readScalar();
+                    break;
+                default:
+                    throw new IllegalArgumentException("invalid field name: " + name);
+            }
+        }
+
+        return new Feature(geometry, properties, id);
+    }
+
+    private Map<String, String> readProperties() {
+        if (this.consumeNull()) {
+            return null;
+        }
+
+        Map<String, String> map = new HashMap<>();
+        this.expect('{');
+        if (!this.consume('}')) {
+            do {
+                String name = this.readName();
+                String value = this.readScalar();
+                if (value != null && map.putIfAbsent(name, value) != null) {
+                    TerraMod.LOGGER.warn("duplicate GeoJSON property key: {}", name);
+                }
+            } while (this.consume(','));
+            this.expect('}');
+        }
+        return map;
+    }
+
+    private FeatureCollection readFeatureCollection() {
+        this.expect(',');
+        this.expectName("features");
+
+        List<Feature> features = new ArrayList<>();
+        this.expect('[');
+        if (!this.consume(']')) {
+            do {
+                GeoJsonObject object = this.readObject();
+                checkState(object instanceof Feature, "FeatureCollection contains non-Feature element \"%s\"", object);
+                features.add((Feature) object);
+            } while (this.consume(','));
+            this.expect(']');
+        }
+        return new FeatureCollection(features.toArray(new Feature[0]));
+    }
+
+    private Geometry readGeometry(String type) {
+        this.expect(',');
+
+        if ("GeometryCollection".equals(type)) { //special handling for GeometryCollection
+            this.expectName("geometries");
+
+            List<Geometry> geometries = new ArrayList<>();
+            this.expect('[');
+            if (!this.consume(']')) {
+                do {
+                    geometries.add(this.readGeometryObject());
+                } while (this.consume(','));
+                this.expect(']');
+            }
+            return new GeometryCollection(geometries.toArray(new Geometry[0]));
+        }
+
+        this.expectName("coordinates");
+        switch (type) {
+            case "Point":
+                this.coordCount = 0;
+                this.readPosition();
+                return new Point(this.coords[0], this.coords[1]);
+            case "MultiPoint":
+                return new MultiPoint(this.readPositions());
+            case "LineString":
+                return new LineString(this.readPositions());
+            case "MultiLineString":
+                return new MultiLineString(this.readLineStrings());
+            case "Polygon":
+                return this.readPolygon();
+            case "MultiPolygon": {
+                List<Polygon> polygons = new ArrayList<>();
+                this.expect('[');
+                if (!this.consume(']')) {
+                    do {
+                        polygons.add(this.readPolygon());
+                    } while (this.consume(','));
+                    this.expect(']');
+                }
+                return new MultiPolygon(polygons.toArray(new Polygon[0]));
+            }
+            default:
+                throw new IllegalStateException("unknown GeoJSON object type: \"" + type + '"');
+        }
+    }
+
+    private Polygon readPolygon() {
+        LineString[] lines = this.readLineStrings();
+        checkState(lines.length > 0, "Polygon must contain at least one ring!");
+        return new Polygon(lines[0], Arrays.copyOfRange(lines, 1, lines.length));
+    }
+
+    private LineString[] readLineStrings() {
+        List<LineString> lines = new ArrayList<>();
+        this.expect('[');
+        if (!this.consume(']')) {
+            do {
+                lines.add(new LineString(this.readPositions()));
+            } while (this.consume(','));
+            this.expect(']');
+        }
+        return lines.toArray(new LineString[0]);
+    }
+
+    private double[] readPositions() {
+        this.coordCount = 0;
+        this.expect('[');
+        if (!this.consume(']')) {
+            do {
+                this.readPosition();
+            } while (this.consume(','));
+            this.expect(']');
+        }
+        return Arrays.copyOf(this.coords, this.coordCount);
+    }
+
+    private void readPosition() {
+        if (this.coordCount + 2 > this.coords.length) { //grow coordinate buffer
+            this.coords = Arrays.copyOf(this.coords, this.coords.length << 1);
+        }
+
+        this.expect('[');
+        this.coords[this.coordCount++] = this.readDouble();
+        this.expect(',');
+        this.coords[this.coordCount++] = this.readDouble();
+        while (this.consume(',')) { //optional elevation
+            this.readDouble();
+        }
+        this.expect(']');
+    }
+
+    //
+    // tokenizer
+    //
+
+    /**
+     * @return the next non-whitespace byte, without consuming it, or {@code -1} if the end of the buffer has been reached
+     */
+    private int peek() {
+        ByteBuf buf = this.buf;
+        int i = buf.readerIndex();
+        int end = buf.writerIndex();
+        for (; i < end; i++) {
+            byte b = buf.getByte(i);
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                buf.readerIndex(i);
+                return b & 0xFF;
+            }
+        }
+        buf.readerIndex(end);
+        return -1;
+    }
+
+    private boolean consume(char c) {
+        if (this.peek() == c) {
+            this.buf.skipBytes(1);
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        int b = this.peek();
+        checkState(b == c, "expected '%s' at offset %d, found '%s'", c, this.buf.readerIndex(), b < 0 ? "EOF" : String.valueOf((char) b));
+        this.buf.skipBytes(1);
+    }
+
+    private boolean consumeNull() {
+        if (this.peek() == 'n') {
+            checkState(this.buf.readableBytes() >= 4 && this.buf.getInt(this.buf.readerIndex()) == ('n' << 24 | 'u' << 16 | 'l' << 8 | 'l'),
+                    "invalid token at offset %d", this.buf.readerIndex());
+            this.buf.skipBytes(4);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads an object field name, and compares it to the given name without decoding it.
+     *
+     * @param name the expected name. Must consist only of ASCII characters which don't need to be escaped
+     */
+    private void expectName(String name) {
+        this.expect('"');
+
+        ByteBuf buf = this.buf;
+        int start = buf.readerIndex();
+        int len = name.length();
+        boolean matches = buf.readableBytes() > len && buf.getByte(start + len) == '"';
+        for (int i = 0; matches && i < len; i++) {
+            matches = buf.getByte(start + i) == name.charAt(i);
+        }
+        checkState(matches, "expected field \"%s\" at offset %d", name, start);
+
+        buf.skipBytes(len + 1);
+        this.expect(':');
+    }
+
+    private String readName() {
+        String name = this.readString();
+        this.expect(':');
+        return name;
+    }
+
+    private String readString() {
+        this.expect('"');
+
+        ByteBuf buf = this.buf;
+        int start = buf.readerIndex();
+        int end = buf.forEachByte(start, buf.writerIndex() - start, FIND_STRING_END);
+        checkState(end >= 0, "unterminated string at offset %d", start);
+
+        if (buf.getByte(end) == '"') { //fast path: there are no escape sequences, decode the whole string at once
+            buf.readerIndex(end + 1);
+            return buf.toString(start, end - start, StandardCharsets.UTF_8);
+        }
+
+        //slow path: decode each chunk between escape sequences separately
+        StringBuilder builder = new StringBuilder();
+        for (int pos = start; ; ) {
+            end = buf.forEachByte(pos, buf.writerIndex() - pos, FIND_STRING_END);
+            checkState(end >= 0, "unterminated string at offset %d", start);
+            builder.append(buf.toString(pos, end - pos, StandardCharsets.UTF_8));
+
+            if (buf.getByte(end) == '"') {
+                buf.readerIndex(end + 1);
+                return builder.toString();
+            }
+
+            checkState(end + 1 < buf.writerIndex(), "unterminated string at offset %d", start);
+            byte escape = buf.getByte(end + 1);
+            pos = end + 2;
+            switch (escape) {
+                case '"':
+                case '\\':
+                case '/':
+                    builder.append((char) escape);
+                    break;
+                case 'b':
+                    builder.append('\b');
+                    break;
+                case 'f':
+                    builder.append('\f');
+                    break;
+                case 'n':
+                    builder.append('\n');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case 't':
+                    builder.append('\t');
+                    break;
+                case 'u':
+                    checkState(pos + 4 <= buf.writerIndex(), "unterminated string at offset %d", start);
+                    builder.append((char) Integer.parseInt(buf.toString(pos, 4, StandardCharsets.US_ASCII), 16));
+                    pos += 4;
+                    break;
+                default:
+                    throw new IllegalStateException("invalid escape sequence at offset " + end);
+            }
+        }
+    }
+
+    /**
+     * Reads a scalar value (a string, number or boolean) as a {@link String}.
+     *
+     * @return the value, or {@code null} if the value was {@code null}
+     */
+    private String readScalar() {
+        int b = this.peek();
+        if (b == '"') {
+            return this.readString();
+        } else if (this.consumeNull()) {
+            return null;
+        }
+
+        ByteBuf buf = this.buf;
+        int start = buf.readerIndex();
+        int end = buf.forEachByte(start, buf.writerIndex() - start, FIND_TOKEN_END);
+        if (end < 0) {
+            end = buf.writerIndex();
+        }
+        checkState(end > start, "expected value at offset %d", start);
+
+        buf.readerIndex(end);
+        return buf.toString(start, end - start, StandardCharsets.US_ASCII);
+    }
+
+    private double readDouble() {
+        this.peek();
+
+        ByteBuf buf = this.buf;
+        int start = buf.readerIndex();
+        int end = buf.writerIndex();
+        int i = start;
+
+        boolean negative = i < end && buf.getByte(i) == '-';
+        if (negative) {
+            i++;
+        }
+
+        long mantissa = 0L;
+        int exponent = 0;
+        boolean exact = true;
+        int digitsStart = i;
+
+        //integer part
+        for (byte b; i < end && (b = buf.getByte(i)) >= '0' && b <= '9'; i++) {
+            if (mantissa < MAX_EXACT_MANTISSA / 10L) {
+                mantissa = mantissa * 10L + (b - '0');
+            } else { //too many significant digits to parse exactly
+                exact = false;
+                exponent++;
+            }
+        }
+
+        //fractional part
+        if (i < end && buf.getByte(i) == '.') {
+            i++;
+            for (byte b; i < end && (b = buf.getByte(i)) >= '0' && b <= '9'; i++) {
+                if (mantissa < MAX_EXACT_MANTISSA / 10L) {
+                    mantissa = mantissa * 10L + (b - '0');
+                    exponent--;
+                } else if (b != '0') {
+                    exact = false;
+                }
+            }
+        }
+        checkState(i > digitsStart, "expected number at offset %d", start);
+
+        //exponent
+        if (i < end && (buf.getByte(i) | 0x20) == 'e') {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (buf.getByte(i) == '-' || buf.getByte(i) == '+')) {
+                negativeExponent = buf.getByte(i++) == '-';
+            }
+
+            int explicitExponent = 0;
+            for (byte b; i < end && (b = buf.getByte(i)) >= '0' && b <= '9'; i++) {
+                explicitExponent = Math.min(explicitExponent * 10 + (b - '0'), 100000);
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        buf.readerIndex(i);
+
+        if (exact && exponent >= -22 && exponent <= 22) { //the result can be computed exactly using a single floating-point operation
+            double value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+            return negative ? -value : value;
+        } else { //fall back to the slow, but always correct implementation
+            return Double.parseDouble(buf.toString(start, i - start, StandardCharsets.US_ASCII));
+        }
+    }
+}
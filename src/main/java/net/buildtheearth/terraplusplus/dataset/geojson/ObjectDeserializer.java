@@ -85,6 +85,10 @@ final class ObjectDeserializer extends AbstractGeoJsonDeserializer<GeoJsonObject
                         Map<String, String> map = new HashMap<>();
                         while (in.peek() != JsonToken.END_OBJECT) {
                             String name = in.nextName();
+                            if (in.peek() == JsonToken.NULL) { //null values are treated as if the property were missing, like in GeoJsonReader
+                                in.nextNull();
+                                continue;
+                            }
                             if (map.putIfAbsent(name, in.nextString()) != null) {
                                 TerraMod.LOGGER.warn("duplicate GeoJSON property key: {}", name);
                             }
@@ -96,7 +100,11 @@ final class ObjectDeserializer extends AbstractGeoJsonDeserializer<GeoJsonObject
                     }
                     break;
                 case "id":
-                    id = in.nextString();
+                    if (in.peek() != JsonToken.NULL) {
+                        id = in.nextString();
+                    } else {
+                        in.nextNull();
+                    }
                     break;
                 default:
                     throw new IllegalArgumentException("invalid field name ");
@@ -10,6 +10,8 @@ import lombok.NonNull;
 import net.buildtheearth.terraplusplus.dataset.Dataset;
 import net.buildtheearth.terraplusplus.dataset.geojson.GeoJsonObject;
 import net.buildtheearth.terraplusplus.dataset.geojson.object.Reference;
+import net.buildtheearth.terraplusplus.util.http.Http;
+import net.buildtheearth.terraplusplus.util.http.PriorityGroup;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -45,6 +47,7 @@ public abstract class AbstractReferenceResolvingGeoJsonDataset<V> extends Datase
 
     @Override
     public CompletableFuture<V> load(@NonNull String key) throws Exception {
+        PriorityGroup group = Http.currentGroup(); //references are resolved from another thread, so they need to use the original priority group
         return this.delegate.getAsync(key).thenCompose(objects -> {
             if (!areAnyObjectsReferences(objects)) { //none of the objects are references, so there's nothing to be resolved!
                 return CompletableFuture.completedFuture(this.translate(Arrays.stream(objects)));
@@ -55,7 +58,7 @@ public abstract class AbstractReferenceResolvingGeoJsonDataset<V> extends Datase
             List<CompletableFuture<V>> referenceFutures = new ArrayList<>();
             for (GeoJsonObject object : objects) {
                 if (object instanceof Reference) {
-                    referenceFutures.add(this.getAsync(((Reference) object).location()));
+                    referenceFutures.add(Http.withGroup(group, () -> this.getAsync(((Reference) object).location())));
                 } else {
                     nonReferenceObjects.add(object);
                 }
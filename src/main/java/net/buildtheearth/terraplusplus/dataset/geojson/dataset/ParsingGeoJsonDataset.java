@@ -1,14 +1,18 @@
 package net.buildtheearth.terraplusplus.dataset.geojson.dataset;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufAllocator;
 import lombok.NonNull;
+import net.buildtheearth.terraplusplus.TerraConfig;
 import net.buildtheearth.terraplusplus.dataset.KeyedHttpDataset;
 import net.buildtheearth.terraplusplus.dataset.geojson.GeoJson;
 import net.buildtheearth.terraplusplus.dataset.geojson.GeoJsonObject;
+import net.buildtheearth.terraplusplus.util.http.Disk;
+import net.buildtheearth.terraplusplus.util.http.Http;
+import net.buildtheearth.terraplusplus.util.http.PriorityGroup;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author DaPorkchop_
@@ -18,10 +22,60 @@ public class ParsingGeoJsonDataset extends KeyedHttpDataset<GeoJsonObject[]> {
         super(urls);
     }
 
+    @Override
+    public CompletableFuture<GeoJsonObject[]> load(@NonNull String key) throws Exception {
+        if (!TerraConfig.http.cache) { //persistent cache is disabled
+            return super.load(key);
+        }
+
+        //try to load the tile from disk in binary form before falling back to fetching and parsing it
+        PriorityGroup group = Http.currentGroup();
+        //the tile is decoded on a worker thread rather than on the disk thread, so that decoding doesn't hold up other disk reads
+        return Disk.readCache(this.binaryCacheKey(key)).thenComposeAsync(buf -> {
+            if (buf != null) {
+                try {
+                    return CompletableFuture.completedFuture(GeoJson.parseAll(buf));
+                } catch (Exception e) { //treat invalid entries as if they didn't exist, they'll be overwritten once the tile is fetched again
+                } finally {
+                    buf.release();
+                }
+            }
+
+            //we're on another thread now, so the tile must be requested in the original priority group
+            return Http.withGroup(group, () -> {
+                try {
+                    return super.load(key);
+                } catch (Exception e) {
+                    CompletableFuture<GeoJsonObject[]> future = new CompletableFuture<>();
+                    future.completeExceptionally(e);
+                    return future;
+                }
+            });
+        });
+    }
+
+    @Override
+    protected boolean storeResponses() {
+        return false; //the tiles are cached in binary form once they've been parsed, there's no point in caching the original text as well
+    }
+
     @Override
     protected GeoJsonObject[] decode(@NonNull String path, @NonNull ByteBuf data) throws Exception {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteBufInputStream(data)))) { //parse each line as a GeoJSON object
-            return reader.lines().map(GeoJson::parse).toArray(GeoJsonObject[]::new);
+        GeoJsonObject[] objects = GeoJson.parseAll(data); //parse each line as a GeoJSON object
+        if (TerraConfig.http.cache) { //save tile to disk in binary form so that it doesn't need to be parsed from text again
+            ByteBuf buf = ByteBufAllocator.DEFAULT.ioBuffer();
+            try {
+                GeoJson.toBinary(objects, buf);
+            } catch (Exception e) {
+                buf.release();
+                throw e;
+            }
+            Disk.writeCache(this.binaryCacheKey(path), buf, System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(TerraConfig.http.cacheTTL));
         }
+        return objects;
+    }
+
+    protected String binaryCacheKey(@NonNull String key) {
+        return "binary_geojson\0" + String.join("\0", this.urls) + '\0' + key;
     }
 }
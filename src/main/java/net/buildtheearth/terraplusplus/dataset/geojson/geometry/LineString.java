@@ -7,51 +7,75 @@ import net.buildtheearth.terraplusplus.projection.OutOfProjectionBoundsException
 import net.buildtheearth.terraplusplus.projection.ProjectionFunction;
 import net.buildtheearth.terraplusplus.util.bvh.Bounds2d;
 
-import java.util.Objects;
-
 import static java.lang.Math.*;
 import static net.daporkchop.lib.common.util.PValidation.*;
 
 /**
+ * A sequence of points.
+ * <p>
+ * The points are packed into a single {@code double[]} as interleaved lon/lat (or x/y, once projected) pairs, rather than being stored as
+ * individual {@link Point} objects.
+ *
  * @author DaPorkchop_
  */
 @Data
 public final class LineString implements Geometry {
-    protected final Point[] points;
+    protected final double[] coords;
+
+    public LineString(@NonNull double[] coords) {
+        checkArg((coords.length & 1) == 0, "coordinate array must contain an even number of values!");
+        checkArg(coords.length >= 4, "LineString must contain at least 2 points!");
+        this.coords = coords;
+    }
+
+    /**
+     * @return the number of points in this line
+     */
+    public int size() {
+        return this.coords.length >> 1;
+    }
 
-    public LineString(@NonNull Point[] points) {
-        checkArg(points.length >= 2, "LineString must contain at least 2 points!");
-        this.points = points;
+    /**
+     * @param i the index of the point
+     * @return the longitude (or X coordinate) of the point at the given index
+     */
+    public double lon(int i) {
+        return this.coords[i << 1];
+    }
+
+    /**
+     * @param i the index of the point
+     * @return the latitude (or Z coordinate) of the point at the given index
+     */
+    public double lat(int i) {
+        return this.coords[(i << 1) + 1];
     }
 
     public boolean isLinearRing() {
-        return this.points.length >= 4 && Objects.equals(this.points[0], this.points[this.points.length - 1]);
+        double[] coords = this.coords;
+        int last = coords.length - 2;
+        return coords.length >= 8 && coords[0] == coords[last] && coords[1] == coords[last + 1];
     }
 
     @Override
     public LineString project(@NonNull ProjectionFunction projection) throws OutOfProjectionBoundsException {
-        Point[] out = this.points.clone();
-        for (int i = 0; i < out.length; i++) {
-            out[i] = out[i].project(projection);
-        }
+        double[] out = this.coords.clone();
+        projection.project(out, 0, out.length >> 1);
         return new LineString(out);
     }
 
     @Override
     public Bounds2d bounds() {
-        if (this.points.length == 0) {
-            return null;
-        }
-
         double minLon = Double.POSITIVE_INFINITY;
         double maxLon = Double.NEGATIVE_INFINITY;
         double minLat = Double.POSITIVE_INFINITY;
         double maxLat = Double.NEGATIVE_INFINITY;
-        for (Point point : this.points) {
-            minLon = min(minLon, point.lon);
-            maxLon = max(maxLon, point.lon);
-            minLat = min(minLat, point.lat);
-            maxLat = max(maxLat, point.lat);
+        double[] coords = this.coords;
+        for (int i = 0; i < coords.length; i += 2) {
+            minLon = min(minLon, coords[i]);
+            maxLon = max(maxLon, coords[i]);
+            minLat = min(minLat, coords[i + 1]);
+            maxLat = max(maxLat, coords[i + 1]);
         }
         return Bounds2d.of(minLon, maxLon, minLat, maxLat);
     }
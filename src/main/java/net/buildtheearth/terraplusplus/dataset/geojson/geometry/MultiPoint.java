@@ -1,6 +1,6 @@
 package net.buildtheearth.terraplusplus.dataset.geojson.geometry;
 
-import com.google.common.collect.Iterators;
+import com.google.common.collect.AbstractIterator;
 import lombok.Data;
 import lombok.NonNull;
 import net.buildtheearth.terraplusplus.dataset.geojson.Geometry;
@@ -11,32 +11,61 @@ import net.buildtheearth.terraplusplus.util.bvh.Bounds2d;
 import java.util.Iterator;
 
 import static java.lang.Math.*;
+import static net.daporkchop.lib.common.util.PValidation.*;
 
 /**
+ * A set of points.
+ * <p>
+ * Like {@link LineString}, the points are packed into a single {@code double[]} as interleaved lon/lat pairs.
+ *
  * @author DaPorkchop_
  */
 @Data
 public final class MultiPoint implements Geometry, Iterable<Point> {
-    @NonNull
-    protected final Point[] points;
+    protected final double[] coords;
+
+    public MultiPoint(@NonNull double[] coords) {
+        checkArg((coords.length & 1) == 0, "coordinate array must contain an even number of values!");
+        this.coords = coords;
+    }
+
+    /**
+     * @return the number of points
+     */
+    public int size() {
+        return this.coords.length >> 1;
+    }
 
     @Override
     public Iterator<Point> iterator() {
-        return Iterators.forArray(this.points);
+        return new AbstractIterator<Point>() {
+            int i = 0;
+
+            @Override
+            protected Point computeNext() {
+                double[] coords = MultiPoint.this.coords;
+                if (this.i >= coords.length) {
+                    return this.endOfData();
+                }
+
+                Point point = new Point(coords[this.i], coords[this.i + 1]);
+                this.i += 2;
+                return point;
+            }
+        };
     }
 
     @Override
     public MultiPoint project(@NonNull ProjectionFunction projection) throws OutOfProjectionBoundsException {
-        Point[] out = this.points.clone();
-        for (int i = 0; i < out.length; i++) {
-            out[i] = out[i].project(projection);
-        }
+        double[] out = this.coords.clone();
+        projection.project(out, 0, out.length >> 1);
         return new MultiPoint(out);
     }
 
     @Override
     public Bounds2d bounds() {
-        if (this.points.length == 0) {
+        double[] coords = this.coords;
+        if (coords.length == 0) {
             return null;
         }
 
@@ -44,11 +73,11 @@ public final class MultiPoint implements Geometry, Iterable<Point> {
         double maxLon = Double.NEGATIVE_INFINITY;
         double minLat = Double.POSITIVE_INFINITY;
         double maxLat = Double.NEGATIVE_INFINITY;
-        for (Point point : this.points) {
-            minLon = min(minLon, point.lon);
-            maxLon = max(maxLon, point.lon);
-            minLat = min(minLat, point.lat);
-            maxLat = max(maxLat, point.lat);
+        for (int i = 0; i < coords.length; i += 2) {
+            minLon = min(minLon, coords[i]);
+            maxLon = max(maxLon, coords[i]);
+            minLat = min(minLat, coords[i + 1]);
+            maxLat = max(maxLat, coords[i + 1]);
         }
         return Bounds2d.of(minLon, maxLon, minLat, maxLat);
     }
@@ -1,21 +1,25 @@
 package net.buildtheearth.terraplusplus.dataset.osm;
 
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
 import com.google.gson.JsonParseException;
 import com.google.gson.stream.JsonReader;
 import lombok.NonNull;
 import lombok.SneakyThrows;
 import net.buildtheearth.terraplusplus.TerraConstants;
 import net.buildtheearth.terraplusplus.dataset.geojson.Geometry;
+import net.buildtheearth.terraplusplus.dataset.vector.draw.DrawFunction;
 import net.buildtheearth.terraplusplus.dataset.vector.geometry.VectorGeometry;
 import net.buildtheearth.terraplusplus.util.http.Disk;
 import net.daporkchop.lib.binary.oio.reader.UTF8FileReader;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
-import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Consumes a GeoJSON geometry object and emits some number of generateable elements.
@@ -38,5 +42,43 @@ public interface OSMMapper<G extends Geometry> {
         }
     }
 
-    Collection<VectorGeometry> apply(String id, @NonNull Map<String, String> tags, @NonNull Geometry originalGeometry, @NonNull G projectedGeometry);
+    /**
+     * @return a hash of the contents of the configuration file which {@link #load()} would load
+     */
+    @SneakyThrows(IOException.class)
+    static String configHash() {
+        Path path = Disk.configFile("osm.json5");
+        byte[] data;
+        if (Files.exists(path)) {
+            data = Files.readAllBytes(path);
+        } else {
+            try (InputStream in = OSMMapper.class.getResourceAsStream("osm.json5")) {
+                data = ByteStreams.toByteArray(in);
+            }
+        }
+        return Hashing.sha256().hashBytes(data).toString();
+    }
+
+    Collection<VectorGeometry> apply(String id, @NonNull OSMTags tags, @NonNull Geometry originalGeometry, @NonNull G projectedGeometry);
+
+    /**
+     * Runs the given function on every {@link DrawFunction} which may be used by the elements emitted by this mapper.
+     * <p>
+     * The functions must always be visited in the same order, as the order is used to identify them in serialized elements.
+     *
+     * @param action the function to run
+     */
+    default void forEachDrawFunction(@NonNull Consumer<DrawFunction> action) {
+        //no-op
+    }
+
+    /**
+     * Gets the id of a tag key which must be present in order for this mapper to return a non-{@code null} value.
+     *
+     * @return the id of a tag key which must be present, or {@code -1} if this mapper may return a value regardless of which tags are present
+     * @see OSMTags#key(String)
+     */
+    default int requiredKey() {
+        return -1;
+    }
 }
@@ -0,0 +1,171 @@
+package net.buildtheearth.terraplusplus.dataset.osm;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The tags of a single OpenStreetMap element.
+ * <p>
+ * Every tag key which is referenced by the OpenStreetMap configuration is interned to a small integer id when the configuration is loaded (see
+ * {@link #key(String)}). The values of these keys are copied into a dense array once per element, so that rules can be evaluated using simple
+ * array accesses rather than repeatedly hashing the same strings.
+ *
+ * @author DaPorkchop_
+ */
+public final class OSMTags {
+    private static final byte NUMBER_UNPARSED = 0;
+    private static final byte NUMBER_VALID = 1;
+    private static final byte NUMBER_INVALID = 2;
+
+    private static final Object LOCK = new Object();
+    private static volatile Object2IntMap<String> KEY_IDS = new Object2IntOpenHashMap<>();
+
+    static {
+        KEY_IDS.defaultReturnValue(-1);
+    }
+
+    public static final OSMTags EMPTY = new OSMTags(Collections.emptyMap());
+
+    /**
+     * Gets the id of the given tag key, assigning it a new one if it doesn't already have one.
+     * <p>
+     * Ids are only assigned to keys which are referenced by the configuration, and are never re-used.
+     *
+     * @param key the tag key
+     * @return the key's id
+     */
+    public static int key(@NonNull String key) {
+        int id = KEY_IDS.getInt(key);
+        if (id >= 0) {
+            return id;
+        }
+
+        synchronized (LOCK) {
+            Object2IntMap<String> keyIds = KEY_IDS;
+            if ((id = keyIds.getInt(key)) < 0) { //copy-on-write, so that lookups never need to be synchronized
+                keyIds = new Object2IntOpenHashMap<>(keyIds);
+                keyIds.defaultReturnValue(-1);
+                keyIds.put(key, id = keyIds.size());
+                KEY_IDS = keyIds;
+            }
+            return id;
+        }
+    }
+
+    /**
+     * @param tags the tags of an element
+     * @return an {@link OSMTags} containing the given tags
+     */
+    public static OSMTags of(Map<String, String> tags) {
+        return tags == null || tags.isEmpty() ? EMPTY : new OSMTags(tags);
+    }
+
+    private final Map<String, String> map;
+    private final String[] values; //indexed by key id
+    private final int[] keys; //the ids of all the interned keys which are present, in ascending order
+
+    //numeric values of tags, parsed lazily and at most once per key
+    private double[] numbers;
+    private byte[] numberStates;
+
+    private OSMTags(@NonNull Map<String, String> map) {
+        this.map = map;
+
+        Object2IntMap<String> keyIds = KEY_IDS;
+        String[] values = new String[keyIds.size()];
+        int[] keys = new int[Math.min(map.size(), values.length)];
+        int keyCount = 0;
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            int id = keyIds.getInt(entry.getKey());
+            if (id >= 0 && entry.getValue() != null) {
+                values[id] = entry.getValue();
+                keys[keyCount++] = id;
+            }
+        }
+        Arrays.sort(keys, 0, keyCount);
+
+        this.values = values;
+        this.keys = keyCount == keys.length ? keys : Arrays.copyOf(keys, keyCount);
+    }
+
+    /**
+     * @param key the id of the tag key
+     * @return the tag's value, or {@code null} if the tag isn't set
+     * @see #key(String)
+     */
+    public String get(int key) {
+        return key < this.values.length ? this.values[key] : null;
+    }
+
+    /**
+     * Gets the value of the given tag as a number.
+     * <p>
+     * Each tag's value is only parsed once, no matter how many times this method is called.
+     *
+     * @param key      the id of the tag key
+     * @param fallback the value to return if the tag isn't set, or its value isn't a valid number
+     * @return the tag's numeric value
+     * @see #key(String)
+     */
+    public double number(int key, double fallback) {
+        if (key >= this.values.length || this.values[key] == null) { //tag isn't set
+            return fallback;
+        }
+
+        if (this.numbers == null) {
+            this.numbers = new double[this.values.length];
+            this.numberStates = new byte[this.values.length];
+        }
+
+        switch (this.numberStates[key]) {
+            case NUMBER_UNPARSED:
+                try {
+                    this.numbers[key] = Double.parseDouble(this.values[key]);
+                    this.numberStates[key] = NUMBER_VALID;
+                    return this.numbers[key];
+                } catch (NumberFormatException e) {
+                    this.numberStates[key] = NUMBER_INVALID;
+                    return fallback;
+                }
+            case NUMBER_VALID:
+                return this.numbers[key];
+            default:
+                return fallback;
+        }
+    }
+
+    /**
+     * @param key the tag key
+     * @return the tag's value, or {@code null} if the tag isn't set
+     */
+    public String get(@NonNull String key) {
+        return this.map.get(key);
+    }
+
+    /**
+     * @return the number of interned keys which are present
+     */
+    public int keyCount() {
+        return this.keys.length;
+    }
+
+    /**
+     * @param index the index of the key, in the range [0, {@link #keyCount()})
+     * @return the id of the interned key at the given index
+     */
+    public int keyAt(int index) {
+        return this.keys[index];
+    }
+
+    /**
+     * @return all of the tags, as a {@link Map}
+     */
+    public Map<String, String> asMap() {
+        return Collections.unmodifiableMap(this.map);
+    }
+}
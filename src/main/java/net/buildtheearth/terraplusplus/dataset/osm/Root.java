@@ -16,12 +16,13 @@ import net.buildtheearth.terraplusplus.dataset.geojson.geometry.Point;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.Polygon;
 import net.buildtheearth.terraplusplus.dataset.osm.mapper.LineMapper;
 import net.buildtheearth.terraplusplus.dataset.osm.mapper.PolygonMapper;
+import net.buildtheearth.terraplusplus.dataset.vector.draw.DrawFunction;
 import net.buildtheearth.terraplusplus.dataset.vector.geometry.VectorGeometry;
 import net.daporkchop.lib.common.util.PorkUtil;
 
 import java.io.IOException;
 import java.util.Collection;
-import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Root of the OpenStreetMap configuration.
@@ -38,7 +39,7 @@ final class Root implements OSMMapper<Geometry> {
     protected final PolygonMapper polygon;
 
     @Override
-    public Collection<VectorGeometry> apply(String id, @NonNull Map<String, String> tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry) {
+    public Collection<VectorGeometry> apply(String id, @NonNull OSMTags tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry) {
         if (projectedGeometry instanceof Point || projectedGeometry instanceof MultiPoint) { //points can't be generated
             return null;
         }
@@ -59,6 +60,12 @@ final class Root implements OSMMapper<Geometry> {
         }
     }
 
+    @Override
+    public void forEachDrawFunction(@NonNull Consumer<DrawFunction> action) {
+        this.line.forEachDrawFunction(action);
+        this.polygon.forEachDrawFunction(action);
+    }
+
     static final class Parser extends JsonParser<Root> {
         @Override
         public Root read(JsonReader in) throws IOException {
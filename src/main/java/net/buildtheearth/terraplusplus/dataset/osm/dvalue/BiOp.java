@@ -4,9 +4,9 @@ import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.stream.JsonReader;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMTags;
 
 import java.io.IOException;
-import java.util.Map;
 
 /**
  * @author DaPorkchop_
@@ -26,7 +26,11 @@ abstract class BiOp implements DValue {
             DValue second = super.read(in);
             in.endObject();
 
-            return this.construct(first, second);
+            DValue value = this.construct(first, second);
+            if (first instanceof Constant && second instanceof Constant) { //both operands are constant, so the result is as well
+                return new Constant(value.apply(OSMTags.EMPTY));
+            }
+            return value;
         }
 
         protected abstract DValue construct(@NonNull DValue first, @NonNull DValue second);
@@ -39,7 +43,7 @@ abstract class BiOp implements DValue {
         }
 
         @Override
-        public double apply(@NonNull Map<String, String> tags) {
+        public double apply(@NonNull OSMTags tags) {
             return this.first.apply(tags) + this.second.apply(tags);
         }
 
@@ -58,7 +62,7 @@ abstract class BiOp implements DValue {
         }
 
         @Override
-        public double apply(@NonNull Map<String, String> tags) {
+        public double apply(@NonNull OSMTags tags) {
             return this.first.apply(tags) - this.second.apply(tags);
         }
 
@@ -77,7 +81,7 @@ abstract class BiOp implements DValue {
         }
 
         @Override
-        public double apply(@NonNull Map<String, String> tags) {
+        public double apply(@NonNull OSMTags tags) {
             return this.first.apply(tags) * this.second.apply(tags);
         }
 
@@ -96,7 +100,7 @@ abstract class BiOp implements DValue {
         }
 
         @Override
-        public double apply(@NonNull Map<String, String> tags) {
+        public double apply(@NonNull OSMTags tags) {
             return this.first.apply(tags) / this.second.apply(tags);
         }
 
@@ -115,7 +119,7 @@ abstract class BiOp implements DValue {
         }
 
         @Override
-        public double apply(@NonNull Map<String, String> tags) {
+        public double apply(@NonNull OSMTags tags) {
             return Math.floor(this.first.apply(tags) / this.second.apply(tags));
         }
 
@@ -134,7 +138,7 @@ abstract class BiOp implements DValue {
         }
 
         @Override
-        public double apply(@NonNull Map<String, String> tags) {
+        public double apply(@NonNull OSMTags tags) {
             return Math.min(this.first.apply(tags), this.second.apply(tags));
         }
 
@@ -153,7 +157,7 @@ abstract class BiOp implements DValue {
         }
 
         @Override
-        public double apply(@NonNull Map<String, String> tags) {
+        public double apply(@NonNull OSMTags tags) {
             return Math.max(this.first.apply(tags), this.second.apply(tags));
         }
 
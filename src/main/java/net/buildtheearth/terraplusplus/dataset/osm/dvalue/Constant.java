@@ -5,9 +5,9 @@ import com.google.gson.stream.JsonReader;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import net.buildtheearth.terraplusplus.dataset.osm.JsonParser;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMTags;
 
 import java.io.IOException;
-import java.util.Map;
 
 /**
  * Returns a single, constant value.
@@ -20,7 +20,7 @@ final class Constant implements DValue {
     protected final double value;
 
     @Override
-    public double apply(@NonNull Map<String, String> tags) {
+    public double apply(@NonNull OSMTags tags) {
         return this.value;
     }
 
@@ -2,8 +2,7 @@ package net.buildtheearth.terraplusplus.dataset.osm.dvalue;
 
 import com.google.gson.annotations.JsonAdapter;
 import lombok.NonNull;
-
-import java.util.Map;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMTags;
 
 /**
  * @author DaPorkchop_
@@ -11,5 +10,5 @@ import java.util.Map;
 @JsonAdapter(DValueParser.class)
 @FunctionalInterface
 public interface DValue {
-    double apply(@NonNull Map<String, String> tags);
+    double apply(@NonNull OSMTags tags);
 }
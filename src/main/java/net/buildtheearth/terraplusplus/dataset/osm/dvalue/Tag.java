@@ -6,32 +6,31 @@ import com.google.gson.stream.JsonToken;
 import lombok.Builder;
 import lombok.NonNull;
 import net.buildtheearth.terraplusplus.dataset.osm.JsonParser;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMTags;
 
 import java.io.IOException;
-import java.util.Map;
 
 /**
- * Returns a single, constant value.
+ * Returns the numeric value of a tag, or a fallback value if the tag isn't set or isn't a valid number.
  *
  * @author DaPorkchop_
  */
 @JsonAdapter(Tag.Parser.class)
-@Builder
 final class Tag implements DValue {
-    @NonNull
     protected final String key;
+    protected final int keyId;
     protected final double fallback;
 
+    @Builder
+    public Tag(@NonNull String key, double fallback) {
+        this.key = key;
+        this.keyId = OSMTags.key(key);
+        this.fallback = fallback;
+    }
+
     @Override
-    public double apply(@NonNull Map<String, String> tags) {
-        String value = tags.get(this.key);
-        if (value != null) {
-            try {
-                return Double.parseDouble(value);
-            } catch (NumberFormatException ignored) {
-            }
-        }
-        return this.fallback;
+    public double apply(@NonNull OSMTags tags) {
+        return tags.number(this.keyId, this.fallback);
     }
 
     static class Parser extends JsonParser<DValue> {
@@ -9,6 +9,8 @@ import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiLineString;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiPolygon;
 import net.buildtheearth.terraplusplus.dataset.osm.JsonParser;
 import net.buildtheearth.terraplusplus.dataset.osm.OSMMapper;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMTags;
+import net.buildtheearth.terraplusplus.dataset.vector.draw.DrawFunction;
 import net.buildtheearth.terraplusplus.dataset.vector.geometry.VectorGeometry;
 import net.daporkchop.lib.common.util.GenericMatcher;
 
@@ -16,7 +18,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
 
 import static net.daporkchop.lib.common.util.PValidation.*;
 
@@ -31,7 +33,7 @@ abstract class All<G extends Geometry, M extends OSMMapper<G>> implements OSMMap
     protected final M[] children;
 
     @Override
-    public Collection<VectorGeometry> apply(String id, @NonNull Map<String, String> tags, @NonNull Geometry originalGeometry, @NonNull G projectedGeometry) {
+    public Collection<VectorGeometry> apply(String id, @NonNull OSMTags tags, @NonNull Geometry originalGeometry, @NonNull G projectedGeometry) {
         List<VectorGeometry> out = new ArrayList<>();
         int i = 0;
         for (M child : this.children) {
@@ -45,6 +47,13 @@ abstract class All<G extends Geometry, M extends OSMMapper<G>> implements OSMMap
         return out;
     }
 
+    @Override
+    public void forEachDrawFunction(@NonNull Consumer<DrawFunction> action) {
+        for (M child : this.children) {
+            child.forEachDrawFunction(action);
+        }
+    }
+
     static abstract class Parser<G extends Geometry, M extends OSMMapper<G>> extends JsonParser<M> {
         protected final Class<M> mapperClass = GenericMatcher.uncheckedFind(this.getClass(), Parser.class, "M");
 
@@ -2,21 +2,23 @@ package net.buildtheearth.terraplusplus.dataset.osm.mapper;
 
 import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.stream.JsonReader;
-import lombok.AllArgsConstructor;
 import lombok.NonNull;
 import net.buildtheearth.terraplusplus.dataset.geojson.Geometry;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiLineString;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiPolygon;
 import net.buildtheearth.terraplusplus.dataset.osm.JsonParser;
 import net.buildtheearth.terraplusplus.dataset.osm.OSMMapper;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMTags;
+import net.buildtheearth.terraplusplus.dataset.vector.draw.DrawFunction;
 import net.buildtheearth.terraplusplus.dataset.vector.geometry.VectorGeometry;
 import net.daporkchop.lib.common.util.GenericMatcher;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
 
 import static net.daporkchop.lib.common.util.PValidation.*;
 
@@ -25,17 +27,21 @@ import static net.daporkchop.lib.common.util.PValidation.*;
  *
  * @author DaPorkchop_
  */
-@AllArgsConstructor
 abstract class Any<G extends Geometry, M extends OSMMapper<G>> implements OSMMapper<G> {
-    @NonNull
     protected final M[] children;
+    protected final RuleIndex index;
+
+    public Any(@NonNull M[] children) {
+        this.children = children;
+        this.index = new RuleIndex(children);
+    }
 
     @Override
-    public Collection<VectorGeometry> apply(String id, @NonNull Map<String, String> tags, @NonNull Geometry originalGeometry, @NonNull G projectedGeometry) {
+    public Collection<VectorGeometry> apply(String id, @NonNull OSMTags tags, @NonNull Geometry originalGeometry, @NonNull G projectedGeometry) {
         List<VectorGeometry> out = new ArrayList<>();
-        int i = 0;
-        for (M child : this.children) {
-            Collection<VectorGeometry> result = child.apply(id + '/' + i++, tags, originalGeometry, projectedGeometry);
+        BitSet candidates = this.index.candidates(tags); //only evaluate the children which could possibly match
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            Collection<VectorGeometry> result = this.children[i].apply(id + '/' + i, tags, originalGeometry, projectedGeometry);
             if (result != null) { //don't bother processing further children
                 out.addAll(result);
             }
@@ -44,6 +50,13 @@ abstract class Any<G extends Geometry, M extends OSMMapper<G>> implements OSMMap
         return out;
     }
 
+    @Override
+    public void forEachDrawFunction(@NonNull Consumer<DrawFunction> action) {
+        for (M child : this.children) {
+            child.forEachDrawFunction(action);
+        }
+    }
+
     static abstract class Parser<G extends Geometry, M extends OSMMapper<G>> extends JsonParser<M> {
         protected final Class<M> mapperClass = GenericMatcher.uncheckedFind(this.getClass(), Parser.class, "M");
 
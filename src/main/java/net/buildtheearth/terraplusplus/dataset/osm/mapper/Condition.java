@@ -11,13 +11,15 @@ import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiLineString;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiPolygon;
 import net.buildtheearth.terraplusplus.dataset.osm.JsonParser;
 import net.buildtheearth.terraplusplus.dataset.osm.OSMMapper;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMTags;
 import net.buildtheearth.terraplusplus.dataset.osm.match.MatchCondition;
+import net.buildtheearth.terraplusplus.dataset.vector.draw.DrawFunction;
 import net.buildtheearth.terraplusplus.dataset.vector.geometry.VectorGeometry;
 import net.daporkchop.lib.common.util.GenericMatcher;
 
 import java.io.IOException;
 import java.util.Collection;
-import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Forwards elements to another mapper if a given {@link MatchCondition} matches.
@@ -32,7 +34,7 @@ abstract class Condition<G extends Geometry, M extends OSMMapper<G>> implements
     protected final M emit;
 
     @Override
-    public Collection<VectorGeometry> apply(String id, @NonNull Map<String, String> tags, @NonNull Geometry originalGeometry, @NonNull G projectedGeometry) {
+    public Collection<VectorGeometry> apply(String id, @NonNull OSMTags tags, @NonNull Geometry originalGeometry, @NonNull G projectedGeometry) {
         if (!this.match.test(id, tags, originalGeometry, projectedGeometry)) { //element doesn't match, emit nothing
             return null;
         }
@@ -40,6 +42,16 @@ abstract class Condition<G extends Geometry, M extends OSMMapper<G>> implements
         return this.emit.apply(id, tags, originalGeometry, projectedGeometry);
     }
 
+    @Override
+    public void forEachDrawFunction(@NonNull Consumer<DrawFunction> action) {
+        this.emit.forEachDrawFunction(action);
+    }
+
+    @Override
+    public int requiredKey() {
+        return this.match.requiredKey();
+    }
+
     static abstract class Parser<G extends Geometry, M extends OSMMapper<G>, I extends Condition<?, ?>> extends JsonParser<I> {
         protected final Class<M> mapperClass = GenericMatcher.uncheckedFind(this.getClass(), Parser.class, "M");
 
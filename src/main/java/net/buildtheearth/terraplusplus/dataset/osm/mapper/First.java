@@ -2,20 +2,22 @@ package net.buildtheearth.terraplusplus.dataset.osm.mapper;
 
 import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.stream.JsonReader;
-import lombok.AllArgsConstructor;
 import lombok.NonNull;
 import net.buildtheearth.terraplusplus.dataset.geojson.Geometry;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiLineString;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiPolygon;
 import net.buildtheearth.terraplusplus.dataset.osm.JsonParser;
 import net.buildtheearth.terraplusplus.dataset.osm.OSMMapper;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMTags;
+import net.buildtheearth.terraplusplus.dataset.vector.draw.DrawFunction;
 import net.buildtheearth.terraplusplus.dataset.vector.geometry.VectorGeometry;
 import net.daporkchop.lib.common.util.GenericMatcher;
 
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
 
 import static net.daporkchop.lib.common.util.PValidation.*;
 
@@ -24,15 +26,21 @@ import static net.daporkchop.lib.common.util.PValidation.*;
  *
  * @author DaPorkchop_
  */
-@AllArgsConstructor
 abstract class First<G extends Geometry, M extends OSMMapper<G>> implements OSMMapper<G> {
-    @NonNull
     protected final M[] children;
+    protected final RuleIndex index;
+
+    public First(@NonNull M[] children) {
+        this.children = children;
+        this.index = new RuleIndex(children);
+    }
 
     @Override
-    public Collection<VectorGeometry> apply(String id, @NonNull Map<String, String> tags, @NonNull Geometry originalGeometry, @NonNull G projectedGeometry) {
-        for (M child : this.children) {
-            Collection<VectorGeometry> result = child.apply(id, tags, originalGeometry, projectedGeometry);
+    public Collection<VectorGeometry> apply(String id, @NonNull OSMTags tags, @NonNull Geometry originalGeometry, @NonNull G projectedGeometry) {
+        //only evaluate the children which could possibly match, in order
+        BitSet candidates = this.index.candidates(tags);
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            Collection<VectorGeometry> result = this.children[i].apply(id, tags, originalGeometry, projectedGeometry);
             if (result != null) {
                 return result;
             }
@@ -41,6 +49,13 @@ abstract class First<G extends Geometry, M extends OSMMapper<G>> implements OSMM
         return null; //none matched!
     }
 
+    @Override
+    public void forEachDrawFunction(@NonNull Consumer<DrawFunction> action) {
+        for (M child : this.children) {
+            child.forEachDrawFunction(action);
+        }
+    }
+
     static abstract class Parser<G extends Geometry, M extends OSMMapper<G>> extends JsonParser<M> {
         protected final Class<M> mapperClass = GenericMatcher.uncheckedFind(this.getClass(), Parser.class, "M");
 
@@ -9,6 +9,7 @@ import net.buildtheearth.terraplusplus.TerraConstants;
 import net.buildtheearth.terraplusplus.dataset.geojson.Geometry;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiLineString;
 import net.buildtheearth.terraplusplus.dataset.osm.JsonParser;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMTags;
 import net.buildtheearth.terraplusplus.dataset.osm.dvalue.DValue;
 import net.buildtheearth.terraplusplus.dataset.vector.draw.DrawFunction;
 import net.buildtheearth.terraplusplus.dataset.vector.geometry.VectorGeometry;
@@ -17,7 +18,7 @@ import net.buildtheearth.terraplusplus.dataset.vector.geometry.line.NarrowLine;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * @author DaPorkchop_
@@ -31,10 +32,15 @@ final class LineNarrow implements LineMapper {
     protected final DValue layer;
 
     @Override
-    public Collection<VectorGeometry> apply(String id, @NonNull Map<String, String> tags, @NonNull Geometry originalGeometry, @NonNull MultiLineString projectedGeometry) {
+    public Collection<VectorGeometry> apply(String id, @NonNull OSMTags tags, @NonNull Geometry originalGeometry, @NonNull MultiLineString projectedGeometry) {
         return Collections.singletonList(new NarrowLine(id, this.layer.apply(tags), this.draw, projectedGeometry));
     }
 
+    @Override
+    public void forEachDrawFunction(@NonNull Consumer<DrawFunction> action) {
+        action.accept(this.draw);
+    }
+
     static final class Parser extends JsonParser<LineNarrow> {
         @Override
         public LineNarrow read(JsonReader in) throws IOException {
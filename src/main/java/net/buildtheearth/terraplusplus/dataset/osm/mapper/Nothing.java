@@ -8,12 +8,12 @@ import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiLineString;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiPolygon;
 import net.buildtheearth.terraplusplus.dataset.osm.JsonParser;
 import net.buildtheearth.terraplusplus.dataset.osm.OSMMapper;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMTags;
 import net.buildtheearth.terraplusplus.dataset.vector.geometry.VectorGeometry;
 
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Map;
 
 /**
  * Returns a non-null, empty list.
@@ -22,7 +22,7 @@ import java.util.Map;
  */
 abstract class Nothing<G extends Geometry, M extends OSMMapper<G>> implements OSMMapper<G> {
     @Override
-    public Collection<VectorGeometry> apply(String id, @NonNull Map<String, String> tags, @NonNull Geometry originalGeometry, @NonNull G projectedGeometry) {
+    public Collection<VectorGeometry> apply(String id, @NonNull OSMTags tags, @NonNull Geometry originalGeometry, @NonNull G projectedGeometry) {
         return Collections.emptyList();
     }
 
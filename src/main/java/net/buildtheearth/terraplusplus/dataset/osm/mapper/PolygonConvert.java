@@ -12,6 +12,8 @@ import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiLineString;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiPolygon;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.Polygon;
 import net.buildtheearth.terraplusplus.dataset.osm.JsonParser;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMTags;
+import net.buildtheearth.terraplusplus.dataset.vector.draw.DrawFunction;
 import net.buildtheearth.terraplusplus.dataset.vector.geometry.VectorGeometry;
 
 import java.io.IOException;
@@ -20,6 +22,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * @author DaPorkchop_
@@ -53,7 +56,7 @@ public interface PolygonConvert extends PolygonMapper {
         protected final LineMapper next;
 
         @Override
-        public Collection<VectorGeometry> apply(String id, @NonNull Map<String, String> tags, @NonNull Geometry originalGeometry, @NonNull MultiPolygon projectedGeometry) {
+        public Collection<VectorGeometry> apply(String id, @NonNull OSMTags tags, @NonNull Geometry originalGeometry, @NonNull MultiPolygon projectedGeometry) {
             //convert multipolygon to multilinestring
             List<LineString> lines = new ArrayList<>();
             for (Polygon polygon : projectedGeometry.polygons()) {
@@ -64,6 +67,11 @@ public interface PolygonConvert extends PolygonMapper {
             return this.next.apply(id, tags, originalGeometry, new MultiLineString(lines.toArray(new LineString[0])));
         }
 
+        @Override
+        public void forEachDrawFunction(@NonNull Consumer<DrawFunction> action) {
+            this.next.forEachDrawFunction(action);
+        }
+
         static class Parser extends JsonParser<Line> {
             @Override
             public Line read(JsonReader in) throws IOException {
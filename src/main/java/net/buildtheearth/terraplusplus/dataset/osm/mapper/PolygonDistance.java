@@ -9,6 +9,7 @@ import net.buildtheearth.terraplusplus.TerraConstants;
 import net.buildtheearth.terraplusplus.dataset.geojson.Geometry;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiPolygon;
 import net.buildtheearth.terraplusplus.dataset.osm.JsonParser;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMTags;
 import net.buildtheearth.terraplusplus.dataset.osm.dvalue.DValue;
 import net.buildtheearth.terraplusplus.dataset.vector.draw.DrawFunction;
 import net.buildtheearth.terraplusplus.dataset.vector.geometry.VectorGeometry;
@@ -17,7 +18,7 @@ import net.buildtheearth.terraplusplus.dataset.vector.geometry.polygon.DistanceP
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * @author DaPorkchop_
@@ -33,10 +34,15 @@ final class PolygonDistance implements PolygonMapper {
     protected final int maxDist = 2;
 
     @Override
-    public Collection<VectorGeometry> apply(String id, @NonNull Map<String, String> tags, @NonNull Geometry originalGeometry, @NonNull MultiPolygon projectedGeometry) {
+    public Collection<VectorGeometry> apply(String id, @NonNull OSMTags tags, @NonNull Geometry originalGeometry, @NonNull MultiPolygon projectedGeometry) {
         return Collections.singletonList(new DistancePolygon(id, this.layer.apply(tags), this.draw, projectedGeometry, this.maxDist));
     }
 
+    @Override
+    public void forEachDrawFunction(@NonNull Consumer<DrawFunction> action) {
+        action.accept(this.draw);
+    }
+
     static final class Parser extends JsonParser<PolygonDistance> {
         @Override
         public PolygonDistance read(JsonReader in) throws IOException {
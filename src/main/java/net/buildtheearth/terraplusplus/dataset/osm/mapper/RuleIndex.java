@@ -0,0 +1,57 @@
+package net.buildtheearth.terraplusplus.dataset.osm.mapper;
+
+import lombok.NonNull;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMMapper;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMTags;
+
+import java.util.BitSet;
+
+/**
+ * Indexes a list of mappers by the tag keys they require, allowing the mappers which can't possibly return a value for an element to be skipped
+ * without evaluating their conditions.
+ *
+ * @author DaPorkchop_
+ */
+final class RuleIndex {
+    private final BitSet unindexed = new BitSet(); //mappers which don't require any specific key, and therefore always need to be evaluated
+    private final BitSet[] byKey; //mappers which require a specific key, indexed by key id
+
+    public RuleIndex(@NonNull OSMMapper<?>[] mappers) {
+        int maxKey = -1;
+        for (OSMMapper<?> mapper : mappers) {
+            maxKey = Math.max(maxKey, mapper.requiredKey());
+        }
+
+        this.byKey = new BitSet[maxKey + 1];
+        for (int i = 0; i < mappers.length; i++) {
+            int key = mappers[i].requiredKey();
+            if (key < 0) {
+                this.unindexed.set(i);
+            } else {
+                if (this.byKey[key] == null) {
+                    this.byKey[key] = new BitSet();
+                }
+                this.byKey[key].set(i);
+            }
+        }
+    }
+
+    /**
+     * Gets the indices of all the mappers which could possibly return a value for an element with the given tags.
+     * <p>
+     * The returned {@link BitSet} may be freely modified by the caller.
+     *
+     * @param tags the element's tags
+     * @return the indices of the candidate mappers
+     */
+    public BitSet candidates(@NonNull OSMTags tags) {
+        BitSet candidates = (BitSet) this.unindexed.clone();
+        for (int i = 0, count = tags.keyCount(); i < count; i++) {
+            int key = tags.keyAt(i);
+            if (key < this.byKey.length && this.byKey[key] != null) {
+                candidates.or(this.byKey[key]);
+            }
+        }
+        return candidates;
+    }
+}
@@ -5,9 +5,9 @@ import com.google.gson.stream.JsonReader;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import net.buildtheearth.terraplusplus.dataset.geojson.Geometry;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMTags;
 
 import java.io.IOException;
-import java.util.Map;
 
 /**
  * Combines the results of multiple match conditions using a logical AND operation.
@@ -21,7 +21,7 @@ final class And implements MatchCondition {
     protected final MatchCondition[] delegates;
 
     @Override
-    public boolean test(String id, @NonNull Map<String, String> tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry) {
+    public boolean test(String id, @NonNull OSMTags tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry) {
         for (MatchCondition delegate : this.delegates) {
             if (!delegate.test(id, tags, originalGeometry, projectedGeometry)) {
                 return false;
@@ -30,6 +30,17 @@ final class And implements MatchCondition {
         return true;
     }
 
+    @Override
+    public int requiredKey() {
+        for (MatchCondition delegate : this.delegates) { //all delegates must match, so any key required by any one of them is required
+            int key = delegate.requiredKey();
+            if (key >= 0) {
+                return key;
+            }
+        }
+        return -1;
+    }
+
     static class Parser extends MatchParser {
         @Override
         public MatchCondition read(JsonReader in) throws IOException {
@@ -8,9 +8,9 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import net.buildtheearth.terraplusplus.dataset.geojson.Geometry;
 import net.buildtheearth.terraplusplus.dataset.osm.JsonParser;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMTags;
 
 import java.io.IOException;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -33,7 +33,7 @@ interface Id extends MatchCondition {
         protected final Set<String> expectedIds;
 
         @Override
-        public boolean test(String id, @NonNull Map<String, String> tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry) {
+        public boolean test(String id, @NonNull OSMTags tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry) {
             return this.expectedIds.contains(id);
         }
     }
@@ -48,7 +48,7 @@ interface Id extends MatchCondition {
         protected final String expectedId;
 
         @Override
-        public boolean test(String id, @NonNull Map<String, String> tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry) {
+        public boolean test(String id, @NonNull OSMTags tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry) {
             return Objects.equals(this.expectedId, id);
         }
     }
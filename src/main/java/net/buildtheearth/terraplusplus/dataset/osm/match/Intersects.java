@@ -8,10 +8,10 @@ import lombok.Getter;
 import lombok.NonNull;
 import net.buildtheearth.terraplusplus.dataset.geojson.Geometry;
 import net.buildtheearth.terraplusplus.dataset.osm.JsonParser;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMTags;
 import net.buildtheearth.terraplusplus.util.bvh.Bounds2d;
 
 import java.io.IOException;
-import java.util.Map;
 
 /**
  * Combines the results of multiple match conditions using a logical AND operation.
@@ -28,7 +28,7 @@ final class Intersects implements MatchCondition, Bounds2d {
     protected final double maxZ;
 
     @Override
-    public boolean test(String id, @NonNull Map<String, String> tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry) {
+    public boolean test(String id, @NonNull OSMTags tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry) {
         Bounds2d bounds = originalGeometry.bounds();
         return bounds != null && this.intersects(bounds);
     }
@@ -3,8 +3,7 @@ package net.buildtheearth.terraplusplus.dataset.osm.match;
 import com.google.gson.annotations.JsonAdapter;
 import lombok.NonNull;
 import net.buildtheearth.terraplusplus.dataset.geojson.Geometry;
-
-import java.util.Map;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMTags;
 
 /**
  * @author DaPorkchop_
@@ -17,5 +16,17 @@ public interface MatchCondition {
      */
     MatchCondition FALSE = (id, tags, originalGeometry, projectedGeometry) -> false;
 
-    boolean test(String id, @NonNull Map<String, String> tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry);
+    boolean test(String id, @NonNull OSMTags tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry);
+
+    /**
+     * Gets the id of a tag key which must be present in order for this condition to match.
+     * <p>
+     * This allows rules to be indexed by the tag keys they test, so that rules which can't possibly match an element don't need to be tested at all.
+     *
+     * @return the id of a tag key which must be present, or {@code -1} if this condition may match elements regardless of which tags are present
+     * @see OSMTags#key(String)
+     */
+    default int requiredKey() {
+        return -1;
+    }
 }
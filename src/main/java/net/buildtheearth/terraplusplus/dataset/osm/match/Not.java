@@ -7,9 +7,9 @@ import lombok.RequiredArgsConstructor;
 import net.buildtheearth.terraplusplus.TerraConstants;
 import net.buildtheearth.terraplusplus.dataset.geojson.Geometry;
 import net.buildtheearth.terraplusplus.dataset.osm.JsonParser;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMTags;
 
 import java.io.IOException;
-import java.util.Map;
 
 /**
  * Inverts the result of a single match condition.
@@ -23,7 +23,7 @@ final class Not implements MatchCondition {
     protected final MatchCondition delegate;
 
     @Override
-    public boolean test(String id, @NonNull Map<String, String> tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry) {
+    public boolean test(String id, @NonNull OSMTags tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry) {
         return !this.delegate.test(id, tags, originalGeometry, projectedGeometry);
     }
 
@@ -5,9 +5,9 @@ import com.google.gson.stream.JsonReader;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import net.buildtheearth.terraplusplus.dataset.geojson.Geometry;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMTags;
 
 import java.io.IOException;
-import java.util.Map;
 
 /**
  * Combines the results of multiple match conditions using a logical OR operation.
@@ -21,7 +21,7 @@ final class Or implements MatchCondition {
     protected final MatchCondition[] delegates;
 
     @Override
-    public boolean test(String id, @NonNull Map<String, String> tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry) {
+    public boolean test(String id, @NonNull OSMTags tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry) {
         for (MatchCondition delegate : this.delegates) {
             if (delegate.test(id, tags, originalGeometry, projectedGeometry)) {
                 return true;
@@ -30,6 +30,18 @@ final class Or implements MatchCondition {
         return false;
     }
 
+    @Override
+    public int requiredKey() {
+        //only one delegate needs to match, so a key is only required if it's required by every one of them
+        int key = this.delegates.length != 0 ? this.delegates[0].requiredKey() : -1;
+        for (int i = 1; key >= 0 && i < this.delegates.length; i++) {
+            if (this.delegates[i].requiredKey() != key) {
+                key = -1;
+            }
+        }
+        return key;
+    }
+
     static class Parser extends MatchParser {
         @Override
         public MatchCondition read(JsonReader in) throws IOException {
@@ -4,13 +4,13 @@ import com.google.common.collect.ImmutableSet;
 import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
+import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import net.buildtheearth.terraplusplus.dataset.geojson.Geometry;
 import net.buildtheearth.terraplusplus.dataset.osm.JsonParser;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMTags;
 
 import java.io.IOException;
-import java.util.Map;
 import java.util.Set;
 
 /**
@@ -26,14 +26,19 @@ interface Tag extends MatchCondition {
      *
      * @author DaPorkchop_
      */
-    @RequiredArgsConstructor
+    @Getter
     final class All implements Tag {
-        @NonNull
         protected final String key;
+        protected final int requiredKey;
+
+        public All(@NonNull String key) {
+            this.key = key;
+            this.requiredKey = OSMTags.key(key);
+        }
 
         @Override
-        public boolean test(String id, @NonNull Map<String, String> tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry) {
-            return tags.containsKey(this.key);
+        public boolean test(String id, @NonNull OSMTags tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry) {
+            return tags.get(this.requiredKey) != null;
         }
     }
 
@@ -42,16 +47,22 @@ interface Tag extends MatchCondition {
      *
      * @author DaPorkchop_
      */
-    @RequiredArgsConstructor
+    @Getter
     final class Any implements Tag {
-        @NonNull
         protected final String key;
-        @NonNull
+        protected final int requiredKey;
         protected final Set<String> expectedValues;
 
+        public Any(@NonNull String key, @NonNull Set<String> expectedValues) {
+            this.key = key;
+            this.requiredKey = OSMTags.key(key);
+            this.expectedValues = expectedValues;
+        }
+
         @Override
-        public boolean test(String id, @NonNull Map<String, String> tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry) {
-            return this.expectedValues.contains(tags.get(this.key));
+        public boolean test(String id, @NonNull OSMTags tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry) {
+            String value = tags.get(this.requiredKey);
+            return value != null && this.expectedValues.contains(value);
         }
     }
 
@@ -60,16 +71,21 @@ interface Tag extends MatchCondition {
      *
      * @author DaPorkchop_
      */
-    @RequiredArgsConstructor
+    @Getter
     final class Exactly implements Tag {
-        @NonNull
         protected final String key;
-        @NonNull
+        protected final int requiredKey;
         protected final String value;
 
+        public Exactly(@NonNull String key, @NonNull String value) {
+            this.key = key;
+            this.requiredKey = OSMTags.key(key);
+            this.value = value;
+        }
+
         @Override
-        public boolean test(String id, @NonNull Map<String, String> tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry) {
-            return this.value.equals(tags.get(this.key));
+        public boolean test(String id, @NonNull OSMTags tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry) {
+            return this.value.equals(tags.get(this.requiredKey));
         }
     }
 
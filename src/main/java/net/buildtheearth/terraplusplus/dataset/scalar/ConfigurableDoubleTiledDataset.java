@@ -3,14 +3,23 @@ package net.buildtheearth.terraplusplus.dataset.scalar;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonGetter;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import io.netty.buffer.ByteBuf;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
+import net.buildtheearth.terraplusplus.TerraConfig;
+import net.buildtheearth.terraplusplus.TerraConstants;
 import net.buildtheearth.terraplusplus.config.scalarparse.d.DoubleScalarParser;
 import net.buildtheearth.terraplusplus.dataset.BlendMode;
 import net.buildtheearth.terraplusplus.projection.GeographicProjection;
+import net.buildtheearth.terraplusplus.util.http.Http;
+import net.buildtheearth.terraplusplus.util.http.PriorityGroup;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Implementation of {@link DoubleTiledDataset} whose behavior is defined by JSON configuration.
@@ -24,6 +33,9 @@ public class ConfigurableDoubleTiledDataset extends DoubleTiledDataset {
     protected final String[] urls;
     protected final DoubleScalarParser parse;
 
+    @Getter(AccessLevel.NONE)
+    protected String cacheKey; //lazily computed, as it requires serializing this dataset's configuration
+
     @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
     public ConfigurableDoubleTiledDataset(
             @JsonProperty(value = "urls", required = true) @NonNull String[] urls,
@@ -43,8 +55,46 @@ public class ConfigurableDoubleTiledDataset extends DoubleTiledDataset {
     }
 
     @Override
-    protected double[] decode(int tileX, int tileZ, @NonNull ByteBuf data) throws Exception {
-        return this.parse.parse(this.resolution, data);
+    public CompletableFuture<ScalarTile> load(@NonNull ChunkPos pos) throws Exception {
+        if (!TerraConfig.http.cache) { //persistent cache is disabled
+            return super.load(pos);
+        }
+
+        //try to load the already decoded tile from disk before falling back to fetching and decoding it
+        PriorityGroup group = Http.currentGroup();
+        return ScalarTileDiskCache.read(this.decodedCacheKey(pos.x, pos.z)).thenCompose(tile -> {
+            if (tile != null) {
+                return CompletableFuture.completedFuture(this.toTile(tile));
+            }
+
+            //we're on a disk thread now, so the tile must be requested in the original priority group
+            return Http.withGroup(group, () -> {
+                try {
+                    return super.load(pos);
+                } catch (Exception e) {
+                    CompletableFuture<ScalarTile> future = new CompletableFuture<>();
+                    future.completeExceptionally(e);
+                    return future;
+                }
+            });
+        });
+    }
+
+    @Override
+    protected ScalarTile decode(int tileX, int tileZ, @NonNull ByteBuf data) throws Exception {
+        ScalarTile tile = this.parse.parseTile(this.resolution, data);
+        if (TerraConfig.http.cache) { //save decoded tile to disk so that it doesn't need to be decoded again
+            ScalarTileDiskCache.write(this.decodedCacheKey(tileX, tileZ), tile);
+        }
+        return this.toTile(tile);
+    }
+
+    protected String decodedCacheKey(int tileX, int tileZ) throws JsonProcessingException {
+        String cacheKey = this.cacheKey;
+        if (cacheKey == null) { //the dataset's configuration uniquely identifies it
+            this.cacheKey = cacheKey = TerraConstants.JSON_MAPPER.writeValueAsString(this);
+        }
+        return "decoded_scalar_tile\0" + cacheKey + '\0' + tileX + ',' + tileZ;
     }
 
     @Override
@@ -0,0 +1,35 @@
+package net.buildtheearth.terraplusplus.dataset.scalar;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Implementation of {@link ScalarTile} which stores its values in a {@code double[]}.
+ *
+ * @author DaPorkchop_
+ */
+@RequiredArgsConstructor
+public final class DoubleScalarTile implements ScalarTile {
+    @NonNull
+    protected final double[] values;
+
+    @Override
+    public double get(int index) {
+        return this.values[index];
+    }
+
+    @Override
+    public int size() {
+        return this.values.length;
+    }
+
+    @Override
+    public long retainedSize() {
+        return 16L + ((long) this.values.length << 3L);
+    }
+
+    @Override
+    public double[] toArray() {
+        return this.values.clone();
+    }
+}
@@ -5,6 +5,7 @@ import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import net.buildtheearth.terraplusplus.TerraConfig;
 import net.buildtheearth.terraplusplus.dataset.BlendMode;
 import net.buildtheearth.terraplusplus.dataset.IScalarDataset;
 import net.buildtheearth.terraplusplus.dataset.TiledDataset;
@@ -22,6 +23,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 import static net.daporkchop.lib.common.util.PValidation.*;
+import static net.daporkchop.lib.common.util.PorkUtil.*;
 
 /**
  * A {@link TiledDataset} which operates on a grid of interpolated {@code double}s.
@@ -29,7 +31,9 @@ import static net.daporkchop.lib.common.util.PValidation.*;
  * @author DaPorkchop_
  */
 @Getter
-public abstract class DoubleTiledDataset extends TiledHttpDataset<double[]> implements IScalarDataset {
+public abstract class DoubleTiledDataset extends TiledHttpDataset<ScalarTile> implements IScalarDataset {
+    protected static final ScalarTileCache TILE_CACHE = new ScalarTileCache();
+
     protected final BlendMode blend;
     protected final int resolution;
     protected final int shift;
@@ -46,6 +50,24 @@ public abstract class DoubleTiledDataset extends TiledHttpDataset<double[]> impl
         this.blend = blend;
     }
 
+    @Override
+    public CompletableFuture<ScalarTile> getAsync(@NonNull ChunkPos pos) {
+        return TILE_CACHE.get(this, pos);
+    }
+
+    /**
+     * Converts the given {@link ScalarTile} to the storage format configured in {@link TerraConfig#tileCache}.
+     *
+     * @param tile the tile
+     * @return a {@link ScalarTile} containing the same values as the given tile
+     */
+    protected ScalarTile toTile(@NonNull ScalarTile tile) {
+        checkArg(tile.size() == this.resolution * this.resolution, "invalid tile size: %d (expected: %d)", tile.size(), this.resolution * this.resolution);
+
+        //quantized tiles are already a quarter of the size, there's no point in moving them off-heap
+        return TerraConfig.tileCache.offHeap && !(tile instanceof ShortScalarTile || tile instanceof OffHeapFloatScalarTile) ? new OffHeapFloatScalarTile(tile) : tile;
+    }
+
     @Override
     public CompletableFuture<Double> getAsync(double lon, double lat) throws OutOfProjectionBoundsException {
         class State extends AbstractState<Double> {
@@ -89,39 +111,110 @@ public abstract class DoubleTiledDataset extends TiledHttpDataset<double[]> impl
 
             @Override
             public double[] apply(Void unused) { //stage 2: actually compute the values now that the tiles have been fetched
-                BlendMode blend = DoubleTiledDataset.this.blend;
+                return DoubleTiledDataset.this.sample(this.localBounds, sizeX, sizeZ, this);
+            }
+        }
+
+        CornerBoundingBox2d localBounds = bounds.fromGeo(this.projection);
+        Bounds2d paddedLocalBounds = localBounds.axisAlign().expand(this.blend.size).validate(this.projection, false);
+
+        return new State(localBounds, paddedLocalBounds).future();
+    }
+
+    @Override
+    public CompletableFuture<double[]>[] getAsync(@NonNull CornerBoundingBox2d[] bounds, int sizeX, int sizeZ) {
+        CompletableFuture<double[]>[] futures = uncheckedCast(new CompletableFuture[bounds.length]);
+        if (notNegative(sizeX, "sizeX") == 0 | notNegative(sizeZ, "sizeZ") == 0) { //no input points -> no output points, ez
+            Arrays.fill(futures, CompletableFuture.completedFuture(new double[0]));
+            return futures;
+        }
 
-                double stepX = 1.0d / sizeX;
-                double stepZ = 1.0d / sizeZ;
+        //all of the bounding boxes share the same tile futures, so each tile is only looked up once for the whole batch. however, each bounding
+        // box only waits for the tiles it actually needs, so a tile which fails to load doesn't affect any bounding boxes which don't need it.
+        Long2ObjectMap<CompletableFuture<ScalarTile>> tiles = new Long2ObjectOpenHashMap<>();
+
+        class State extends AbstractState<double[]> {
+            protected final CornerBoundingBox2d localBounds;
 
-                double[] point = new double[2];
-                double[] out = new double[sizeX * sizeZ];
+            public State(@NonNull CornerBoundingBox2d localBounds, Bounds2d paddedLocalBounds) {
+                super(paddedLocalBounds);
 
-                double fx = 0.0d;
-                for (int i = 0, x = 0; x < sizeX; x++, fx += stepX) {
-                    double fz = 0.0d;
-                    for (int z = 0; z < sizeZ; z++, fz += stepZ) {
-                        //compute coordinates of point
-                        point = this.localBounds.point(point, fx, fz);
+                this.localBounds = localBounds;
+            }
 
-                        //sample value at point
-                        out[i++] = blend.get(point[0], point[1], this);
-                    }
+            @Override
+            protected CompletableFuture<ScalarTile> tile(@NonNull ChunkPos pos) {
+                long key = BinMath.packXY(pos.x, pos.z);
+                CompletableFuture<ScalarTile> tile = tiles.get(key);
+                if (tile == null) {
+                    tiles.put(key, tile = super.tile(pos));
                 }
+                return tile;
+            }
 
-                return out;
+            @Override
+            public double[] apply(Void unused) { //stage 2: actually compute the values now that the tiles have been fetched
+                return DoubleTiledDataset.this.sample(this.localBounds, sizeX, sizeZ, this);
             }
         }
 
-        CornerBoundingBox2d localBounds = bounds.fromGeo(this.projection);
-        Bounds2d paddedLocalBounds = localBounds.axisAlign().expand(this.blend.size).validate(this.projection, false);
+        for (int i = 0; i < bounds.length; i++) {
+            try {
+                CornerBoundingBox2d localBounds = bounds[i].fromGeo(this.projection);
+                Bounds2d paddedLocalBounds = localBounds.axisAlign().expand(this.blend.size).validate(this.projection, false);
+                futures[i] = new State(localBounds, paddedLocalBounds).future();
+            } catch (OutOfProjectionBoundsException e) { //only this bounding box is affected
+                (futures[i] = new CompletableFuture<>()).completeExceptionally(e);
+            }
+        }
+        return futures;
+    }
 
-        return new State(localBounds, paddedLocalBounds).future();
+    /**
+     * Samples a grid of values from the given bounding box.
+     * <p>
+     * Rather than interpolating the position of every sample point from the bounding box's corners, the endpoints of each row are computed once
+     * and the sample position is simply stepped along the row.
+     *
+     * @param localBounds the bounding box to sample from (in local coordinates)
+     * @param sizeX       the number of samples to take along the X axis
+     * @param sizeZ       the number of samples to take along the Z axis
+     * @param sampler     the {@link IntToDoubleBiFunction} to use for getting raw sample values
+     * @return the sampled values
+     */
+    protected double[] sample(@NonNull CornerBoundingBox2d localBounds, int sizeX, int sizeZ, @NonNull IntToDoubleBiFunction sampler) {
+        BlendMode blend = this.blend;
+
+        double stepX = 1.0d / sizeX;
+        double stepZ = 1.0d / sizeZ;
+
+        double[] start = new double[2];
+        double[] end = new double[2];
+        double[] out = new double[sizeX * sizeZ];
+
+        double fx = 0.0d;
+        for (int i = 0, x = 0; x < sizeX; x++, fx += stepX) {
+            //compute the endpoints of the current row
+            start = localBounds.point(start, fx, 0.0d);
+            end = localBounds.point(end, fx, 1.0d);
+
+            double px = start[0];
+            double pz = start[1];
+            double dx = (end[0] - px) * stepZ;
+            double dz = (end[1] - pz) * stepZ;
+
+            for (int z = 0; z < sizeZ; z++, px += dx, pz += dz) {
+                //sample value at point
+                out[i++] = blend.get(px, pz, sampler);
+            }
+        }
+
+        return out;
     }
 
     @RequiredArgsConstructor
     protected abstract class AbstractState<R> implements Function<Void, R>, IntToDoubleBiFunction {
-        final Long2ObjectMap<double[]> loadedTiles = new Long2ObjectOpenHashMap<>();
+        final Long2ObjectMap<ScalarTile> loadedTiles = new Long2ObjectOpenHashMap<>();
 
         @NonNull
         protected final Bounds2d paddedLocalBounds;
@@ -131,18 +224,18 @@ public abstract class DoubleTiledDataset extends TiledHttpDataset<double[]> impl
             int shift = DoubleTiledDataset.this.shift;
             int mask = DoubleTiledDataset.this.mask;
 
-            double[] tile = this.loadedTiles.get(BinMath.packXY(x >> shift, z >> shift));
+            ScalarTile tile = this.loadedTiles.get(BinMath.packXY(x >> shift, z >> shift));
             if (tile == null) {
                 return Double.NaN;
             }
-            return tile[(z & mask) << shift | (x & mask)];
+            return tile.get((z & mask) << shift | (x & mask));
         }
 
         public CompletableFuture<R> future() {
             ChunkPos[] tilePositions = this.paddedLocalBounds.toTiles(DoubleTiledDataset.this.resolution);
 
             return CompletableFuture.allOf(Arrays.stream(tilePositions)
-                    .map(pos -> DoubleTiledDataset.this.getAsync(pos)
+                    .map(pos -> this.tile(pos)
                             .thenApply(tile -> { //put tile directly into map when it's loaded
                                 //synchronize because we can't be certain that all of the futures will be completed by the same thread
                                 synchronized (this.loadedTiles) {
@@ -153,5 +246,15 @@ public abstract class DoubleTiledDataset extends TiledHttpDataset<double[]> impl
                     .toArray(CompletableFuture[]::new))
                     .thenApplyAsync(this);
         }
+
+        /**
+         * Gets the tile at the given position.
+         *
+         * @param pos the tile position
+         * @return a {@link CompletableFuture} which will be completed with the tile
+         */
+        protected CompletableFuture<ScalarTile> tile(@NonNull ChunkPos pos) {
+            return DoubleTiledDataset.this.getAsync(pos);
+        }
     }
 }
@@ -0,0 +1,40 @@
+package net.buildtheearth.terraplusplus.dataset.scalar;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Implementation of {@link ScalarTile} which stores its values in a {@code float[]}.
+ * <p>
+ * This is lossless for data which is natively stored with at most 24 bits of precision, such as terrarium-encoded elevation or 32-bit
+ * floating-point TIFFs.
+ *
+ * @author DaPorkchop_
+ */
+@RequiredArgsConstructor
+public final class FloatScalarTile implements ScalarTile {
+    @NonNull
+    protected final float[] values;
+
+    public FloatScalarTile(@NonNull double[] values) {
+        this.values = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            this.values[i] = (float) values[i];
+        }
+    }
+
+    @Override
+    public double get(int index) {
+        return this.values[index];
+    }
+
+    @Override
+    public int size() {
+        return this.values.length;
+    }
+
+    @Override
+    public long retainedSize() {
+        return 16L + ((long) this.values.length << 2L);
+    }
+}
@@ -17,6 +17,8 @@ import net.buildtheearth.terraplusplus.util.IntRange;
 import net.buildtheearth.terraplusplus.util.bvh.BVH;
 import net.buildtheearth.terraplusplus.util.bvh.Bounds2d;
 import net.buildtheearth.terraplusplus.util.http.Disk;
+import net.buildtheearth.terraplusplus.util.http.Http;
+import net.buildtheearth.terraplusplus.util.http.PriorityGroup;
 import net.daporkchop.lib.common.function.io.IOFunction;
 import net.daporkchop.lib.common.function.throwing.EFunction;
 
@@ -28,11 +30,15 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static net.daporkchop.lib.common.util.PValidation.*;
+import static net.daporkchop.lib.common.util.PorkUtil.*;
 
 /**
  * Implementation of {@link IScalarDataset} which can sample from multiple {@link IScalarDataset}s and combine the results.
@@ -77,6 +83,7 @@ public class MultiScalarDataset implements IScalarDataset {
 
         class State implements BiConsumer<Double, Throwable> {
             final CompletableFuture<Double> future = new CompletableFuture<>();
+            final PriorityGroup group = Http.currentGroup(); //later datasets are sampled from other threads, so they need to use the caller's group
             int i = -1;
 
             @Override
@@ -92,11 +99,14 @@ public class MultiScalarDataset implements IScalarDataset {
 
             private void advance() {
                 if (++this.i < datasets.length) {
-                    try {
-                        datasets[this.i].dataset.getAsync(lon, lat).whenComplete(this);
-                    } catch (OutOfProjectionBoundsException e) {
-                        this.future.completeExceptionally(e);
-                    }
+                    Http.withGroup(this.group, () -> {
+                        try {
+                            datasets[this.i].dataset.getAsync(lon, lat).whenComplete(this);
+                        } catch (OutOfProjectionBoundsException e) {
+                            this.future.completeExceptionally(e);
+                        }
+                        return null;
+                    });
                 } else { //no datasets remain, complete the future successfully with whatever value we currently have
                     this.future.complete(Double.NaN);
                 }
@@ -126,6 +136,7 @@ public class MultiScalarDataset implements IScalarDataset {
 
         class State implements BiConsumer<double[], Throwable> {
             final CompletableFuture<double[]> future = new CompletableFuture<>();
+            final PriorityGroup group = Http.currentGroup(); //later datasets are sampled from other threads, so they need to use the caller's group
             double[] out;
             int remaining = sizeX * sizeZ;
             int i = -1;
@@ -160,11 +171,14 @@ public class MultiScalarDataset implements IScalarDataset {
 
             private void advance() {
                 if (++this.i < datasets.length) {
-                    try {
-                        datasets[this.i].dataset.getAsync(bounds, sizeX, sizeZ).whenComplete(this);
-                    } catch (OutOfProjectionBoundsException e) {
-                        this.future.completeExceptionally(e);
-                    }
+                    Http.withGroup(this.group, () -> {
+                        try {
+                            datasets[this.i].dataset.getAsync(bounds, sizeX, sizeZ).whenComplete(this);
+                        } catch (OutOfProjectionBoundsException e) {
+                            this.future.completeExceptionally(e);
+                        }
+                        return null;
+                    });
                 } else { //no datasets remain, complete the future successfully with whatever value we currently have
                     this.future.complete(this.out);
                 }
@@ -176,6 +190,119 @@ public class MultiScalarDataset implements IScalarDataset {
         return state.future;
     }
 
+    @Override
+    public CompletableFuture<double[]>[] getAsync(@NonNull CornerBoundingBox2d[] bounds, int sizeX, int sizeZ) {
+        CompletableFuture<double[]>[] futures = uncheckedCast(new CompletableFuture[bounds.length]);
+        if (bounds.length == 0) { //no bounding boxes -> nothing to do
+            return futures;
+        } else if (notNegative(sizeX, "sizeX") == 0 | notNegative(sizeZ, "sizeZ") == 0) { //no input points -> no output points, ez
+            Arrays.fill(futures, CompletableFuture.completedFuture(new double[0]));
+            return futures;
+        }
+
+        Bounds2d totalBounds = bounds[0];
+        for (int i = 1; i < bounds.length; i++) {
+            totalBounds = totalBounds.union(bounds[i]);
+        }
+
+        WrappedDataset[] datasets = this.bvh.getAllIntersecting(totalBounds).toArray(new WrappedDataset[0]);
+        if (datasets.length == 0) { //no matching datasets!
+            Arrays.fill(futures, CompletableFuture.completedFuture(null));
+            return futures;
+        }
+        Arrays.sort(datasets); //ensure datasets are in priority order
+
+        class State implements BiConsumer<Void, Throwable> {
+            final double[][] out = new double[bounds.length][];
+            final int[] remaining = new int[bounds.length];
+            final PriorityGroup group = Http.currentGroup(); //later datasets are sampled from other threads, so they need to use the caller's group
+            int i = -1;
+
+            //the indices of the bounding boxes which intersect the current dataset, and the futures for their values
+            int[] indices;
+            CompletableFuture<double[]>[] data;
+
+            State() {
+                for (int j = 0; j < bounds.length; j++) {
+                    futures[j] = new CompletableFuture<>();
+
+                    //only bounding boxes which intersect at least one dataset can ever be completed
+                    for (WrappedDataset dataset : datasets) {
+                        if (dataset.intersects(bounds[j])) {
+                            this.remaining[j] = sizeX * sizeZ;
+                            break;
+                        }
+                    }
+                }
+            }
+
+            @Override
+            public void accept(Void unused, Throwable cause) { //all of the bounding boxes sampled from the current dataset have been completed
+                WrappedDataset dataset = datasets[this.i];
+                for (int j = 0; j < this.indices.length; j++) {
+                    int index = this.indices[j];
+                    double[] in;
+                    try {
+                        in = this.data[j].join();
+                    } catch (CompletionException | CancellationException e) { //only the bounding box whose sampling failed is affected
+                        this.remaining[index] = 0;
+                        futures[index].completeExceptionally(e);
+                        continue;
+                    }
+
+                    if (in == null) { //if the array is null, it's as if it were an array of NaNs - nothing would be set, we simply skip it
+                        continue;
+                    }
+
+                    double[] out = this.out[index];
+                    if (out == null) { //ensure the destination array is set
+                        Arrays.fill(this.out[index] = out = new double[sizeX * sizeZ], Double.NaN);
+                    }
+
+                    for (int k = 0; k < sizeX * sizeZ; k++) {
+                        if (Double.isNaN(out[k])) { //if value in output array is NaN, consider replacing it
+                            double v = in[k];
+                            if (!Double.isNaN(v) && dataset.test(v)) { //if the value in the input array is accepted, use it as the output
+                                out[k] = v;
+                                if (--this.remaining[index] == 0) { //if no samples are left to process, this bounding box is done!
+                                    futures[index].complete(out);
+                                    break;
+                                }
+                            }
+                        }
+                    }
+                }
+                this.advance();
+            }
+
+            private void advance() {
+                while (++this.i < datasets.length) {
+                    //only sample the bounding boxes which both intersect the dataset and still have missing values
+                    WrappedDataset dataset = datasets[this.i];
+                    this.indices = IntStream.range(0, bounds.length)
+                            .filter(j -> this.remaining[j] != 0 && dataset.intersects(bounds[j]))
+                            .toArray();
+                    if (this.indices.length == 0) { //dataset doesn't need to be sampled at all
+                        continue;
+                    }
+
+                    CornerBoundingBox2d[] datasetBounds = Arrays.stream(this.indices).mapToObj(j -> bounds[j]).toArray(CornerBoundingBox2d[]::new);
+                    this.data = Http.withGroup(this.group, () -> dataset.dataset.getAsync(datasetBounds, sizeX, sizeZ));
+                    CompletableFuture.allOf(this.data).whenComplete(this);
+                    return;
+                }
+
+                //no datasets remain, complete all the remaining bounding boxes successfully with whatever values we currently have
+                for (int j = 0; j < bounds.length; j++) {
+                    futures[j].complete(this.out[j]);
+                }
+            }
+        }
+
+        new State().advance();
+        return futures;
+    }
+
     /**
      * Wrapper around a dataset with a bounding box.
      *
@@ -0,0 +1,50 @@
+package net.buildtheearth.terraplusplus.dataset.scalar;
+
+import lombok.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Implementation of {@link ScalarTile} which stores its values as {@code float}s in a direct {@link ByteBuffer}.
+ * <p>
+ * The memory is released by the garbage collector once the tile is no longer referenced, but since the tile itself is tiny the values don't
+ * contribute to heap pressure.
+ *
+ * @author DaPorkchop_
+ */
+public final class OffHeapFloatScalarTile implements ScalarTile {
+    protected final ByteBuffer values;
+
+    /**
+     * Creates a new {@link OffHeapFloatScalarTile} which reads its values directly from the given buffer, without copying them.
+     *
+     * @param values a buffer containing the values. The buffer's byte order is respected.
+     */
+    OffHeapFloatScalarTile(@NonNull ByteBuffer values) {
+        this.values = values;
+    }
+
+    public OffHeapFloatScalarTile(@NonNull ScalarTile tile) {
+        int size = tile.size();
+        this.values = ByteBuffer.allocateDirect(size << 2).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < size; i++) {
+            this.values.putFloat(i << 2, (float) tile.get(i));
+        }
+    }
+
+    @Override
+    public double get(int index) {
+        return this.values.getFloat(index << 2);
+    }
+
+    @Override
+    public int size() {
+        return this.values.capacity() >> 2;
+    }
+
+    @Override
+    public long retainedSize() {
+        return 64L + this.values.capacity();
+    }
+}
@@ -0,0 +1,70 @@
+package net.buildtheearth.terraplusplus.dataset.scalar;
+
+import lombok.NonNull;
+
+/**
+ * A square grid of scalar values, as loaded by a {@link DoubleTiledDataset}.
+ * <p>
+ * Values are indexed by {@code z * resolution + x}. Missing values are represented as {@link Double#NaN}.
+ *
+ * @author DaPorkchop_
+ */
+public interface ScalarTile {
+    /**
+     * Wraps the given values into a {@link ScalarTile}, using the most compact representation which can store all of the values without any loss
+     * of precision.
+     *
+     * @param values the values
+     * @return a {@link ScalarTile} containing the given values
+     */
+    static ScalarTile of(@NonNull double[] values) {
+        boolean shorts = true;
+        boolean floats = true;
+        for (int i = 0; i < values.length && (shorts | floats); i++) {
+            double v = values[i];
+            if (Double.isNaN(v)) {
+                continue;
+            }
+
+            shorts &= v >= -Short.MAX_VALUE && v <= Short.MAX_VALUE && (short) v == v;
+            floats &= (float) v == v;
+        }
+
+        if (shorts) {
+            return new ShortScalarTile(values);
+        } else if (floats) {
+            return new FloatScalarTile(values);
+        } else {
+            return new DoubleScalarTile(values);
+        }
+    }
+
+    /**
+     * Gets the value at the given index.
+     *
+     * @param index the index of the value
+     * @return the value, or {@link Double#NaN} if no value is present
+     */
+    double get(int index);
+
+    /**
+     * @return the number of values in this tile
+     */
+    int size();
+
+    /**
+     * @return the approximate number of bytes of memory retained by this tile
+     */
+    long retainedSize();
+
+    /**
+     * @return a new {@code double[]} containing all of the values in this tile
+     */
+    default double[] toArray() {
+        double[] values = new double[this.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = this.get(i);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,186 @@
+package net.buildtheearth.terraplusplus.dataset.scalar;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import lombok.NonNull;
+import net.buildtheearth.terraplusplus.TerraConfig;
+import net.buildtheearth.terraplusplus.util.http.Http;
+import net.buildtheearth.terraplusplus.util.http.PriorityGroup;
+import net.daporkchop.lib.common.math.BinMath;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * In-memory cache of {@link ScalarTile}s shared by all {@link DoubleTiledDataset}s.
+ * <p>
+ * Unlike a soft-value cache, the amount of memory retained by this cache is bounded by an explicit budget (see {@link TerraConfig.TileCacheOpts#maxMemory}),
+ * which makes it independent of the garbage collector's whims. Tiles are evicted using the CLOCK algorithm once the budget is exceeded.
+ *
+ * @author DaPorkchop_
+ */
+final class ScalarTileCache {
+    private static final long ENTRY_OVERHEAD = 64L; //rough estimate of the size of an entry, used so that entries without a tile aren't free
+    private static final long FAILURE_TTL = TimeUnit.SECONDS.toNanos(30L); //how long a failed load is remembered for before it will be retried
+
+    private final Long2ObjectMap<Entry> map = new Long2ObjectOpenHashMap<>();
+
+    private Entry[] ring = new Entry[256];
+    private int ringSize;
+    private int hand;
+
+    private long weight;
+
+    /**
+     * Gets the tile at the given position from the given dataset, loading it if it isn't already cached.
+     *
+     * @param dataset the dataset which the tile belongs to
+     * @param pos     the position of the tile
+     * @return a {@link CompletableFuture} which will be completed with the tile
+     */
+    public CompletableFuture<ScalarTile> get(@NonNull DoubleTiledDataset dataset, @NonNull ChunkPos pos) {
+        long key = BinMath.packXY(pos.x, pos.z);
+
+        Entry entry;
+        synchronized (this) {
+            for (entry = this.map.get(key); entry != null; entry = entry.next) {
+                if (entry.dataset == dataset) {
+                    if (entry.failedAt != 0L && System.nanoTime() - entry.failedAt >= FAILURE_TTL) { //the load failed a while ago, try again
+                        this.remove(entry);
+                        break;
+                    }
+
+                    //cache hit
+                    entry.referenced = true;
+                    Http.dependOn(entry.group); //if the tile is still loading, the caller's priority also applies to it
+                    return entry.future;
+                }
+            }
+            Entry head = this.map.get(key);
+
+            //cache miss, create a new entry and add it to the front of the chain
+            entry = new Entry(dataset, key, head);
+            this.map.put(key, entry);
+            this.addToRing(entry);
+        }
+
+        //begin loading the tile outside of the lock, it might take a while. the tile is loaded in its own priority group, as it may be shared with
+        // others who need it more urgently than we do.
+        PriorityGroup group = entry.group;
+        Http.dependOn(group);
+        Entry _entry = entry;
+        Http.withGroup(group, () -> {
+            try {
+                dataset.load(pos).whenComplete(_entry);
+            } catch (Throwable t) {
+                _entry.accept(null, t);
+            }
+            return null;
+        });
+        return entry.future;
+    }
+
+    private void addToRing(@NonNull Entry entry) {
+        if (this.ringSize == this.ring.length) {
+            this.ring = Arrays.copyOf(this.ring, this.ring.length << 1);
+        }
+        this.ring[entry.slot = this.ringSize++] = entry;
+    }
+
+    private void remove(@NonNull Entry entry) {
+        //remove from ring by moving the last entry into the now empty slot
+        Entry last = this.ring[--this.ringSize];
+        this.ring[last.slot = entry.slot] = last;
+        this.ring[this.ringSize] = null;
+        entry.slot = -1;
+
+        //unlink from chain
+        Entry head = this.map.get(entry.key);
+        if (head == entry) {
+            if (entry.next != null) {
+                this.map.put(entry.key, entry.next);
+            } else {
+                this.map.remove(entry.key);
+            }
+        } else {
+            Entry prev = head;
+            while (prev.next != entry) {
+                prev = prev.next;
+            }
+            prev.next = entry.next;
+        }
+
+        this.weight -= entry.weight;
+    }
+
+    private void evict() {
+        long budget = Math.max(TerraConfig.tileCache.maxMemory, 0L) << 20L;
+
+        //at most two full rotations are required to find a victim: one to clear all the reference bits, and one to evict
+        for (int remaining = this.ringSize << 1; this.weight > budget && this.ringSize > 0 && remaining > 0; remaining--) {
+            if (this.hand >= this.ringSize) {
+                this.hand = 0;
+            }
+
+            Entry entry = this.ring[this.hand];
+            if (entry.weight < 0L) { //tile is still loading, it can't be evicted yet
+                this.hand++;
+            } else if (entry.referenced) { //give the entry a second chance
+                entry.referenced = false;
+                this.hand++;
+            } else { //evict the entry. the hand isn't advanced, as another entry was moved into this slot
+                this.remove(entry);
+                remaining = this.ringSize << 1;
+            }
+        }
+    }
+
+    /**
+     * A single entry in the cache.
+     *
+     * @author DaPorkchop_
+     */
+    private final class Entry implements BiConsumer<ScalarTile, Throwable> {
+        final DoubleTiledDataset dataset;
+        final long key;
+        Entry next; //the next entry with the same key but a different dataset
+
+        final CompletableFuture<ScalarTile> future = new CompletableFuture<>();
+        PriorityGroup group = new PriorityGroup(Http.currentPriority()); //the priority group of the tile while it's loading, or null once it's done
+        long weight = -1L; //-1 means that the tile is still being loaded
+        long failedAt; //the time at which the tile failed to load, or 0 if it hasn't failed
+        boolean referenced = true;
+        int slot;
+
+        Entry(@NonNull DoubleTiledDataset dataset, long key, Entry next) {
+            this.dataset = dataset;
+            this.key = key;
+            this.next = next;
+        }
+
+        @Override
+        public void accept(ScalarTile tile, Throwable cause) {
+            synchronized (ScalarTileCache.this) {
+                //failed loads are kept in the cache for a short while as well, in order to avoid spamming requests for tiles which can't be
+                // loaded. they're retried once FAILURE_TTL has elapsed, so a transient error doesn't make the tile unavailable until it's evicted.
+                if (cause != null) {
+                    this.failedAt = System.nanoTime() | 1L; //ensure it's never 0
+                }
+                this.group = null;
+                this.weight = ENTRY_OVERHEAD + (tile != null ? tile.retainedSize() : 0L);
+                ScalarTileCache.this.weight += this.weight;
+                ScalarTileCache.this.evict();
+            }
+
+            //complete the future outside of the lock, as doing so will run any dependent actions
+            if (cause != null) {
+                this.future.completeExceptionally(cause);
+            } else {
+                this.future.complete(tile);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package net.buildtheearth.terraplusplus.dataset.scalar;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import net.buildtheearth.terraplusplus.TerraConfig;
+import net.buildtheearth.terraplusplus.util.http.Disk;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static net.daporkchop.lib.common.util.PValidation.*;
+
+/**
+ * Persistent on-disk cache of already decoded {@link ScalarTile}s.
+ * <p>
+ * Tiles are stored uncompressed in little-endian byte order, which allows {@code float} tiles to be served directly from the memory-mapped cache
+ * without any decoding at all.
+ *
+ * @author DaPorkchop_
+ */
+@UtilityClass
+class ScalarTileDiskCache {
+    private final int MAGIC = 0x54505453; //"TPTS"
+    private final int VERSION = 1;
+
+    private final int TYPE_DOUBLE = 0;
+    private final int TYPE_FLOAT = 1;
+    private final int TYPE_SHORT = 2;
+
+    private final int HEADER_SIZE = 4 + 1 + 1 + 4; //magic, version, type, size
+
+    /**
+     * Asynchronously reads a tile from the persistent cache.
+     *
+     * @param key the key which uniquely identifies the tile
+     * @return a {@link CompletableFuture} which will be completed with the tile, or with {@code null} if the tile isn't cached or is invalid
+     */
+    public CompletableFuture<ScalarTile> read(@NonNull String key) {
+        return Disk.readCache(key).thenApply(buf -> {
+            if (buf == null) {
+                return null;
+            }
+
+            try { //the cached data is managed by the garbage collector, so float tiles can simply reference it directly
+                return decode(buf.nioBuffer().order(ByteOrder.LITTLE_ENDIAN));
+            } catch (Exception e) { //treat invalid entries as if they didn't exist, they'll be overwritten once the tile is fetched again
+                return null;
+            } finally {
+                buf.release();
+            }
+        });
+    }
+
+    private ScalarTile decode(@NonNull ByteBuffer buffer) {
+        checkArg(buffer.getInt(0) == MAGIC, "invalid magic");
+        checkArg(buffer.get(4) == VERSION, "invalid version");
+        int type = buffer.get(5);
+        int size = notNegative(buffer.getInt(6), "size");
+        buffer.position(HEADER_SIZE);
+
+        switch (type) {
+            case TYPE_DOUBLE: {
+                checkArg(buffer.remaining() == size << 3, "invalid file size");
+                double[] values = new double[size];
+                buffer.asDoubleBuffer().get(values);
+                return new DoubleScalarTile(values);
+            }
+            case TYPE_FLOAT: {
+                checkArg(buffer.remaining() == size << 2, "invalid file size");
+                return new OffHeapFloatScalarTile(buffer.slice().order(ByteOrder.LITTLE_ENDIAN)); //use the mapped memory directly
+            }
+            case TYPE_SHORT: {
+                double scale = buffer.getDouble();
+                double offset = buffer.getDouble();
+                checkArg(buffer.remaining() == size << 1, "invalid file size");
+                short[] values = new short[size];
+                buffer.asShortBuffer().get(values);
+                return new ShortScalarTile(values, scale, offset);
+            }
+            default:
+                throw new IllegalArgumentException("unknown type: " + type);
+        }
+    }
+
+    /**
+     * Asynchronously writes the given tile to the persistent cache.
+     *
+     * @param key  the key which uniquely identifies the tile
+     * @param tile the tile
+     */
+    public void write(@NonNull String key, @NonNull ScalarTile tile) {
+        int size = tile.size();
+        ByteBuf buf = ByteBufAllocator.DEFAULT.ioBuffer(HEADER_SIZE + 16 + (size << 3));
+        buf.writeIntLE(MAGIC).writeByte(VERSION);
+
+        if (tile instanceof ShortScalarTile) {
+            ShortScalarTile shortTile = (ShortScalarTile) tile;
+            buf.writeByte(TYPE_SHORT).writeIntLE(size).writeLongLE(Double.doubleToRawLongBits(shortTile.scale)).writeLongLE(Double.doubleToRawLongBits(shortTile.offset));
+            for (short value : shortTile.values) {
+                buf.writeShortLE(value);
+            }
+        } else if (tile instanceof FloatScalarTile || tile instanceof OffHeapFloatScalarTile) {
+            buf.writeByte(TYPE_FLOAT).writeIntLE(size);
+            for (int i = 0; i < size; i++) {
+                buf.writeIntLE(Float.floatToRawIntBits((float) tile.get(i)));
+            }
+        } else {
+            buf.writeByte(TYPE_DOUBLE).writeIntLE(size);
+            for (int i = 0; i < size; i++) {
+                buf.writeLongLE(Double.doubleToRawLongBits(tile.get(i)));
+            }
+        }
+
+        Disk.writeCache(key, buf, System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(TerraConfig.http.cacheTTL));
+    }
+}
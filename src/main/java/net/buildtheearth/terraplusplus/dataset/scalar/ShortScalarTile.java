@@ -0,0 +1,74 @@
+package net.buildtheearth.terraplusplus.dataset.scalar;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import static net.daporkchop.lib.common.util.PValidation.*;
+
+/**
+ * Implementation of {@link ScalarTile} which stores its values as quantized {@code short}s.
+ * <p>
+ * Each value is computed as {@code raw * scale + offset}. A raw value of {@link #NODATA} indicates that no value is present.
+ *
+ * @author DaPorkchop_
+ */
+@RequiredArgsConstructor
+public final class ShortScalarTile implements ScalarTile {
+    public static final short NODATA = Short.MIN_VALUE;
+
+    @NonNull
+    protected final short[] values;
+    protected final double scale;
+    protected final double offset;
+
+    /**
+     * Creates a new {@link ShortScalarTile} from the given values, which must all be either {@link Double#NaN} or integers which can be
+     * represented as a {@code short} (excluding {@link #NODATA}).
+     *
+     * @param values the values
+     */
+    public ShortScalarTile(@NonNull double[] values) {
+        this.values = new short[values.length];
+        this.scale = 1.0d;
+        this.offset = 0.0d;
+
+        for (int i = 0; i < values.length; i++) {
+            double v = values[i];
+            if (Double.isNaN(v)) {
+                this.values[i] = NODATA;
+            } else {
+                checkArg(v >= -Short.MAX_VALUE && v <= Short.MAX_VALUE && (short) v == v, "value at index %d cannot be stored as a short: %s", i, v);
+                this.values[i] = (short) v;
+            }
+        }
+    }
+
+    /**
+     * Gets a {@link ShortScalarTile} with the same raw values as this one, whose values are transformed by the given factor and offset.
+     * <p>
+     * This doesn't need to touch the raw values at all, so it's essentially free.
+     *
+     * @param factor the factor to multiply all of the values by
+     * @param add    the value to add to all of the values (after multiplication)
+     * @return the transformed tile
+     */
+    public ShortScalarTile transform(double factor, double add) {
+        return new ShortScalarTile(this.values, this.scale * factor, this.offset * factor + add);
+    }
+
+    @Override
+    public double get(int index) {
+        short raw = this.values[index];
+        return raw != NODATA ? raw * this.scale + this.offset : Double.NaN;
+    }
+
+    @Override
+    public int size() {
+        return this.values.length;
+    }
+
+    @Override
+    public long retainedSize() {
+        return 32L + ((long) this.values.length << 1L);
+    }
+}
@@ -1,7 +1,14 @@
 package net.buildtheearth.terraplusplus.dataset.vector;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.hash.Hashing;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
+import net.buildtheearth.terraplusplus.TerraConfig;
+import net.buildtheearth.terraplusplus.TerraConstants;
 import net.buildtheearth.terraplusplus.dataset.geojson.GeoJsonObject;
 import net.buildtheearth.terraplusplus.dataset.geojson.Geometry;
 import net.buildtheearth.terraplusplus.dataset.geojson.dataset.AbstractReferenceResolvingGeoJsonDataset;
@@ -10,15 +17,19 @@ import net.buildtheearth.terraplusplus.dataset.geojson.geometry.Point;
 import net.buildtheearth.terraplusplus.dataset.geojson.object.Feature;
 import net.buildtheearth.terraplusplus.dataset.geojson.object.Reference;
 import net.buildtheearth.terraplusplus.dataset.osm.OSMMapper;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMTags;
 import net.buildtheearth.terraplusplus.dataset.vector.geometry.VectorGeometry;
 import net.buildtheearth.terraplusplus.projection.GeographicProjection;
 import net.buildtheearth.terraplusplus.projection.OutOfProjectionBoundsException;
+import net.buildtheearth.terraplusplus.util.http.Disk;
+import net.buildtheearth.terraplusplus.util.http.Http;
+import net.buildtheearth.terraplusplus.util.http.PriorityGroup;
 import net.daporkchop.lib.common.util.PorkUtil;
 
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -30,16 +41,83 @@ public class GeoJsonToVectorDataset extends AbstractReferenceResolvingGeoJsonDat
     protected final OSMMapper<Geometry> mapper;
     protected final GeographicProjection earthProjection;
 
+    @Getter(AccessLevel.NONE)
+    protected final VectorGeometrySerializer serializer;
+    @Getter(AccessLevel.NONE)
+    protected final String cacheKeyPrefix;
+
     public GeoJsonToVectorDataset(@NonNull ParsingGeoJsonDataset delegate, @NonNull OSMMapper<Geometry> mapper, @NonNull GeographicProjection earthProjection) {
+        this(delegate, mapper, earthProjection, null);
+    }
+
+    /**
+     * @param mapperHash a hash of the configuration which the {@link OSMMapper} was loaded from (see {@link OSMMapper#configHash()}). If
+     *                   {@code null}, mapped tiles will not be stored in the persistent cache.
+     */
+    public GeoJsonToVectorDataset(@NonNull ParsingGeoJsonDataset delegate, @NonNull OSMMapper<Geometry> mapper, @NonNull GeographicProjection earthProjection, String mapperHash) {
         super(delegate);
 
         this.mapper = mapper;
         this.earthProjection = earthProjection;
+
+        String cacheKeyPrefix = null;
+        if (mapperHash != null) {
+            try { //mapped tiles depend on the source data, the mapper configuration and the projection
+                String projectionJson = TerraConstants.JSON_MAPPER.writeValueAsString(earthProjection);
+                String hash = Hashing.sha256().hashUnencodedChars(mapperHash + '\0' + projectionJson + '\0' + String.join("\0", delegate.urls())).toString();
+                cacheKeyPrefix = "vector_tile\0" + hash + '\0';
+            } catch (JsonProcessingException e) { //projection can't be serialized, so we can't tell whether or not a cached tile is valid
+            }
+        }
+        this.cacheKeyPrefix = cacheKeyPrefix;
+        this.serializer = cacheKeyPrefix != null ? new VectorGeometrySerializer(mapper) : null;
+    }
+
+    @Override
+    public CompletableFuture<VectorGeometry[]> load(@NonNull String key) throws Exception {
+        if (!TerraConfig.http.cache || this.cacheKeyPrefix == null) { //persistent cache is disabled
+            return super.load(key);
+        }
+
+        //try to load the already mapped elements from disk before falling back to mapping the source data again
+        PriorityGroup group = Http.currentGroup();
+        //the tile is decoded on a worker thread rather than on the disk thread, so that decoding doesn't hold up other disk reads
+        return Disk.readCache(this.cacheKeyPrefix + key).thenComposeAsync(buf -> {
+            if (buf != null) {
+                try {
+                    return CompletableFuture.completedFuture(this.serializer.read(buf));
+                } catch (Exception e) { //treat invalid entries as if they didn't exist, they'll be overwritten once the tile is mapped again
+                } finally {
+                    buf.release();
+                }
+            }
+
+            //we're on another thread now, so the source data must be requested in the original priority group
+            return Http.withGroup(group, () -> {
+                try {
+                    return super.load(key);
+                } catch (Exception e) {
+                    CompletableFuture<VectorGeometry[]> future = new CompletableFuture<>();
+                    future.completeExceptionally(e);
+                    return future;
+                }
+            }).thenApply(elements -> {
+                ByteBuf data = ByteBufAllocator.DEFAULT.ioBuffer();
+                try {
+                    this.serializer.write(elements, data);
+                } catch (Exception e) { //some elements can't be serialized, don't cache this tile
+                    data.release();
+                    return elements;
+                }
+                Disk.writeCache(this.cacheKeyPrefix + key, data, System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(TerraConfig.http.cacheTTL));
+                return elements;
+            });
+        });
     }
 
     @Override
     protected VectorGeometry[] translate(@NonNull Stream<GeoJsonObject> inputs) {
-        return inputs.flatMap(object -> this.convertToElements(null, Collections.emptyMap(), object)).toArray(VectorGeometry[]::new);
+        return inputs.flatMap(object -> this.convertToElements(null, OSMTags.EMPTY, object)).toArray(VectorGeometry[]::new);
     }
 
     @Override
@@ -47,7 +125,7 @@ public class GeoJsonToVectorDataset extends AbstractReferenceResolvingGeoJsonDat
         return inputs.flatMap(Arrays::stream).toArray(VectorGeometry[]::new);
     }
 
-    protected Stream<VectorGeometry> convertToElements(String id, @NonNull Map<String, String> tags, @NonNull GeoJsonObject object) {
+    protected Stream<VectorGeometry> convertToElements(String id, @NonNull OSMTags tags, @NonNull GeoJsonObject object) {
         if (object instanceof Iterable) {
             //recursively process all child elements
             return StreamSupport.stream(PorkUtil.<Iterable<? extends GeoJsonObject>>uncheckedCast(object).spliterator(), false)
@@ -55,7 +133,7 @@ public class GeoJsonToVectorDataset extends AbstractReferenceResolvingGeoJsonDat
         } else if (object instanceof Feature) {
             //process child using properties from feature
             Feature feature = (Feature) object;
-            return this.convertToElements(feature.id() != null ? feature.id() : id, feature.properties() != null ? feature.properties() : tags, feature.geometry());
+            return this.convertToElements(feature.id() != null ? feature.id() : id, feature.properties() != null ? OSMTags.of(feature.properties()) : tags, feature.geometry());
         } else if (object instanceof Point) { //TODO: we currently can't handle points
             return Stream.empty();
         } else if (object instanceof Reference) { //ignore references, they'll be resolved later asynchronously
@@ -63,7 +141,7 @@ public class GeoJsonToVectorDataset extends AbstractReferenceResolvingGeoJsonDat
         } else {
             try {
                 Geometry geometry = (Geometry) object;
-                Collection<VectorGeometry> elements = this.mapper.apply(id, tags, geometry, geometry.project(this.earthProjection::fromGeo));
+                Collection<VectorGeometry> elements = this.mapper.apply(id, tags, geometry, geometry.project(this.earthProjection.fromGeoFunction()));
                 return elements != null ? elements.stream() : Stream.empty();
             } catch (OutOfProjectionBoundsException e) {//skip element
                 return Stream.empty();
@@ -0,0 +1,133 @@
+package net.buildtheearth.terraplusplus.dataset.vector;
+
+import io.netty.buffer.ByteBuf;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import lombok.NonNull;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMMapper;
+import net.buildtheearth.terraplusplus.dataset.vector.draw.DrawFunction;
+import net.buildtheearth.terraplusplus.dataset.vector.geometry.AbstractVectorGeometry;
+import net.buildtheearth.terraplusplus.dataset.vector.geometry.VectorGeometry;
+import net.buildtheearth.terraplusplus.dataset.vector.geometry.line.NarrowLine;
+import net.buildtheearth.terraplusplus.dataset.vector.geometry.line.SharpLine;
+import net.buildtheearth.terraplusplus.dataset.vector.geometry.line.WideLine;
+import net.buildtheearth.terraplusplus.dataset.vector.geometry.polygon.DistancePolygon;
+import net.buildtheearth.terraplusplus.dataset.vector.geometry.polygon.FillPolygon;
+import net.daporkchop.lib.common.util.PorkUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static net.daporkchop.lib.common.util.PValidation.*;
+
+/**
+ * Converts the {@link VectorGeometry} elements of a single tile to and from a compact binary representation.
+ * <p>
+ * {@link DrawFunction}s can't be serialized by themselves, so they are stored as indices into the list of draw functions used by the
+ * {@link OSMMapper} which produced the elements. Serialized elements may therefore only be read using a serializer created from the same
+ * mapper configuration.
+ *
+ * @author DaPorkchop_
+ */
+final class VectorGeometrySerializer {
+    private static final int MAGIC = 0x54505647; //"TPVG"
+    private static final int VERSION = 2;
+
+    private static final int TYPE_NARROW_LINE = 0;
+    private static final int TYPE_SHARP_LINE = 1;
+    private static final int TYPE_WIDE_LINE = 2;
+    private static final int TYPE_FILL_POLYGON = 3;
+    private static final int TYPE_DISTANCE_POLYGON = 4;
+
+    private final List<DrawFunction> draws = new ArrayList<>();
+    private final Reference2IntMap<DrawFunction> drawIds = new Reference2IntOpenHashMap<>();
+
+    public VectorGeometrySerializer(@NonNull OSMMapper<?> mapper) {
+        this.drawIds.defaultReturnValue(-1);
+
+        mapper.forEachDrawFunction(draw -> {
+            if (!this.drawIds.containsKey(draw)) {
+                this.drawIds.put(draw, this.draws.size());
+                this.draws.add(draw);
+            }
+        });
+    }
+
+    /**
+     * Writes the given elements to the given {@link ByteBuf}.
+     *
+     * @param elements the elements
+     * @param dst      the {@link ByteBuf} to write to
+     * @throws IllegalArgumentException if any of the elements can't be serialized
+     */
+    public void write(@NonNull VectorGeometry[] elements, @NonNull ByteBuf dst) {
+        dst.writeInt(MAGIC).writeByte(VERSION).writeInt(elements.length);
+
+        for (VectorGeometry element : elements) {
+            int type;
+            if (element instanceof NarrowLine) {
+                type = TYPE_NARROW_LINE;
+            } else if (element instanceof SharpLine) {
+                type = TYPE_SHARP_LINE;
+            } else if (element instanceof WideLine) {
+                type = TYPE_WIDE_LINE;
+            } else if (element instanceof FillPolygon) {
+                type = TYPE_FILL_POLYGON;
+            } else if (element instanceof DistancePolygon) {
+                type = TYPE_DISTANCE_POLYGON;
+            } else {
+                throw new IllegalArgumentException("unsupported element type: " + PorkUtil.className(element));
+            }
+
+            dst.writeByte(type);
+            ((AbstractVectorGeometry) element).write(dst, draw -> {
+                int id = this.drawIds.getInt(draw);
+                checkArg(id >= 0, "unknown draw function: %s", draw);
+                return id;
+            });
+        }
+    }
+
+    /**
+     * Reads the elements from the given {@link ByteBuf}.
+     *
+     * @param src the {@link ByteBuf} to read from
+     * @return the elements
+     * @throws IllegalArgumentException if the data is invalid, or was written using a different mapper configuration
+     */
+    public VectorGeometry[] read(@NonNull ByteBuf src) {
+        checkArg(src.readInt() == MAGIC, "invalid magic number");
+        checkArg(src.readUnsignedByte() == VERSION, "unsupported version");
+
+        VectorGeometry[] elements = new VectorGeometry[notNegative(src.readInt(), "count")];
+        for (int i = 0; i < elements.length; i++) {
+            int type = src.readUnsignedByte();
+            switch (type) {
+                case TYPE_NARROW_LINE:
+                    elements[i] = new NarrowLine(src, this::draw);
+                    break;
+                case TYPE_SHARP_LINE:
+                    elements[i] = new SharpLine(src, this::draw);
+                    break;
+                case TYPE_WIDE_LINE:
+                    elements[i] = new WideLine(src, this::draw);
+                    break;
+                case TYPE_FILL_POLYGON:
+                    elements[i] = new FillPolygon(src, this::draw);
+                    break;
+                case TYPE_DISTANCE_POLYGON:
+                    elements[i] = new DistancePolygon(src, this::draw);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown element type: " + type);
+            }
+        }
+        checkArg(!src.isReadable(), "trailing data");
+        return elements;
+    }
+
+    private DrawFunction draw(int id) {
+        checkArg(id >= 0 && id < this.draws.size(), "unknown draw function id: %d", id);
+        return this.draws.get(id);
+    }
+}
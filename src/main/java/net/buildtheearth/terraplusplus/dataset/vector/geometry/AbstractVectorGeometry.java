@@ -1,14 +1,27 @@
 package net.buildtheearth.terraplusplus.dataset.vector.geometry;
 
+import io.netty.buffer.ByteBuf;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.doubles.DoubleList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.LineString;
-import net.buildtheearth.terraplusplus.dataset.geojson.geometry.Point;
 import net.buildtheearth.terraplusplus.dataset.vector.draw.DrawFunction;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+import static net.buildtheearth.terraplusplus.util.VarInts.*;
+import static net.daporkchop.lib.common.util.PValidation.*;
 
 /**
  * @author DaPorkchop_
@@ -17,19 +30,166 @@ import java.util.List;
 @Getter
 @EqualsAndHashCode
 public abstract class AbstractVectorGeometry implements VectorGeometry {
+    private static final Comparator<Segment> START_ORDER = Comparator.comparingDouble(Segment::x0).thenComparingDouble(Segment::z0);
+
     protected static void convertToSegments(@NonNull LineString line, @NonNull List<Segment> segments) {
-        Point[] points = line.points();
-        Point prev = points[0];
-        for (int i = 1; i < points.length; i++) {
-            Point next = points[i];
-            segments.add(new Segment(prev.lon(), prev.lat(), next.lon(), next.lat()));
-            prev = next;
+        double[] coords = line.coords();
+        for (int i = 2; i < coords.length; i += 2) {
+            segments.add(new Segment(coords[i - 2], coords[i - 1], coords[i], coords[i + 1]));
+        }
+    }
+
+    /**
+     * Writes the given segments to the given {@link ByteBuf}.
+     * <p>
+     * Connected segments are stored as runs of coordinates, so that a vertex shared by two segments is only stored once. Each coordinate is stored as
+     * the zigzag-encoded variable-length difference between its bits and those of the previous coordinate on the same axis, using the same encoding
+     * as binary GeoJSON tiles. Unlike binary GeoJSON, coordinates aren't quantized: the cached geometry must be exactly the same as freshly mapped
+     * geometry, otherwise terrain generated from a cached tile could differ from terrain generated from the original one.
+     * <p>
+     * Format:
+     * <pre>
+     * segments := runCount:varint run[runCount]
+     * run      := count:varint (dx:zigzag-varint dz:zigzag-varint)[count]
+     * </pre>
+     *
+     * @param dst      the {@link ByteBuf} to write to
+     * @param segments the segments to write. The order of the segments is not preserved.
+     * @see #readSegments(ByteBuf)
+     */
+    protected static void writeSegments(@NonNull ByteBuf dst, @NonNull Segment[] segments) {
+        //sort segments by their starting point, so that the segment continuing a run can be found with a binary search
+        Segment[] sorted = segments.clone();
+        Arrays.sort(sorted, START_ORDER);
+        boolean[] written = new boolean[sorted.length];
+
+        //join segments into runs
+        DoubleList coords = new DoubleArrayList(sorted.length << 1);
+        IntList runLengths = new IntArrayList();
+        for (int i = 0; i < sorted.length; i++) {
+            if (written[i]) {
+                continue;
+            }
+
+            Segment segment = sorted[i];
+            coords.add(segment.x0());
+            coords.add(segment.z0());
+            int length = 1;
+            for (int next = i; next >= 0; next = findNext(sorted, written, segment.x1(), segment.z1())) {
+                written[next] = true;
+                segment = sorted[next];
+                coords.add(segment.x1());
+                coords.add(segment.z1());
+                length++;
+            }
+            runLengths.add(length);
+        }
+
+        writeVarLong(dst, runLengths.size());
+        long lastX = 0L;
+        long lastZ = 0L;
+        for (int run = 0, i = 0; run < runLengths.size(); run++) {
+            int length = runLengths.getInt(run);
+            writeVarLong(dst, length);
+            for (int end = i + (length << 1); i < end; i += 2) {
+                long x = Double.doubleToRawLongBits(coords.getDouble(i));
+                long z = Double.doubleToRawLongBits(coords.getDouble(i + 1));
+                writeVarLong(dst, zigzag(x - lastX));
+                writeVarLong(dst, zigzag(z - lastZ));
+                lastX = x;
+                lastZ = z;
+            }
         }
     }
 
+    /**
+     * Reads segments written by {@link #writeSegments(ByteBuf, Segment[])} from the given {@link ByteBuf}.
+     *
+     * @param src the {@link ByteBuf} to read from
+     * @return the segments
+     */
+    protected static Segment[] readSegments(@NonNull ByteBuf src) {
+        int runCount = notNegative(toInt(readVarLong(src), "runCount"), "runCount");
+
+        List<Segment> segments = new ArrayList<>();
+        long x = 0L;
+        long z = 0L;
+        for (int run = 0; run < runCount; run++) {
+            int length = toInt(readVarLong(src), "count");
+            checkArg(length >= 2 && length <= src.readableBytes() >> 1, "invalid run length: %d", length);
+
+            double x0 = Double.longBitsToDouble(x += unzigzag(readVarLong(src)));
+            double z0 = Double.longBitsToDouble(z += unzigzag(readVarLong(src)));
+            for (int i = 1; i < length; i++) {
+                double x1 = Double.longBitsToDouble(x += unzigzag(readVarLong(src)));
+                double z1 = Double.longBitsToDouble(z += unzigzag(readVarLong(src)));
+                segments.add(new Segment(x0, z0, x1, z1));
+                x0 = x1;
+                z0 = z1;
+            }
+        }
+        return segments.toArray(new Segment[0]);
+    }
+
+    /**
+     * Finds a segment which hasn't been written yet and which starts at the given point.
+     *
+     * @return the index of the segment, or {@code -1} if there is none
+     */
+    private static int findNext(@NonNull Segment[] sorted, @NonNull boolean[] written, double x, double z) {
+        //find the first segment which doesn't start before the given point
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Segment segment = sorted[mid];
+            int d = Double.compare(segment.x0(), x);
+            if (d < 0 || (d == 0 && Double.compare(segment.z0(), z) < 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        for (int i = low; i < sorted.length && Double.compare(sorted[i].x0(), x) == 0 && Double.compare(sorted[i].z0(), z) == 0; i++) {
+            if (!written[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     @NonNull
     protected final String id;
     protected final double layer;
     @NonNull
     protected final DrawFunction draw;
+
+    /**
+     * Reads an element from the given {@link ByteBuf}.
+     *
+     * @param src   the {@link ByteBuf} to read from
+     * @param draws a function which gets the {@link DrawFunction} with the given index
+     * @see #write(ByteBuf, ToIntFunction)
+     */
+    protected AbstractVectorGeometry(@NonNull ByteBuf src, @NonNull IntFunction<DrawFunction> draws) {
+        int idLength = src.readInt();
+        this.id = src.toString(src.readerIndex(), idLength, StandardCharsets.UTF_8);
+        src.skipBytes(idLength);
+        this.layer = src.readDouble();
+        this.draw = draws.apply(src.readInt());
+    }
+
+    /**
+     * Writes this element to the given {@link ByteBuf}.
+     *
+     * @param dst   the {@link ByteBuf} to write to
+     * @param draws a function which gets the index of the given {@link DrawFunction}
+     */
+    public void write(@NonNull ByteBuf dst, @NonNull ToIntFunction<DrawFunction> draws) {
+        byte[] id = this.id.getBytes(StandardCharsets.UTF_8);
+        dst.writeInt(id.length).writeBytes(id);
+        dst.writeDouble(this.layer);
+        dst.writeInt(draws.applyAsInt(this.draw));
+    }
 }
@@ -1,5 +1,6 @@
 package net.buildtheearth.terraplusplus.dataset.vector.geometry.line;
 
+import io.netty.buffer.ByteBuf;
 import lombok.Getter;
 import lombok.NonNull;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.LineString;
@@ -11,6 +12,9 @@ import net.buildtheearth.terraplusplus.util.bvh.BVH;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.StreamSupport;
 
 /**
  * @author DaPorkchop_
@@ -29,6 +33,19 @@ public abstract class AbstractLine extends AbstractVectorGeometry {
         this.segments = BVH.of(segments.toArray(new Segment[0]));
     }
 
+    public AbstractLine(@NonNull ByteBuf src, @NonNull IntFunction<DrawFunction> draws) {
+        super(src, draws);
+
+        this.segments = BVH.of(readSegments(src));
+    }
+
+    @Override
+    public void write(@NonNull ByteBuf dst, @NonNull ToIntFunction<DrawFunction> draws) {
+        super.write(dst, draws);
+
+        writeSegments(dst, StreamSupport.stream(this.segments.spliterator(), false).toArray(Segment[]::new));
+    }
+
     @Override
     public double minX() {
         return this.segments.minX();
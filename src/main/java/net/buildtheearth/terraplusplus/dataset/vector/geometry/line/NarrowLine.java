@@ -7,12 +7,15 @@ import static java.lang.Math.min;
 import static net.daporkchop.lib.common.math.PMath.floorI;
 
 import io.github.opencubicchunks.cubicchunks.api.util.Coords;
+import io.netty.buffer.ByteBuf;
 import lombok.NonNull;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiLineString;
 import net.buildtheearth.terraplusplus.dataset.vector.draw.DrawFunction;
 import net.buildtheearth.terraplusplus.generator.CachedChunkData;
 import net.buildtheearth.terraplusplus.util.bvh.Bounds2d;
 
+import java.util.function.IntFunction;
+
 /**
  * @author DaPorkchop_
  */
@@ -21,6 +24,10 @@ public final class NarrowLine extends AbstractLine {
         super(id, layer, draw, lines);
     }
 
+    public NarrowLine(@NonNull ByteBuf src, @NonNull IntFunction<DrawFunction> draws) {
+        super(src, draws);
+    }
+
     @Override
     public void apply(@NonNull CachedChunkData.Builder builder, final int chunkX, final int chunkZ, @NonNull Bounds2d bounds) {
         int minChunkBlockX = Coords.cubeToMinBlock(chunkX);
@@ -8,12 +8,15 @@ import static net.daporkchop.lib.common.math.PMath.ceilI;
 import static net.daporkchop.lib.common.math.PMath.floorI;
 
 import io.github.opencubicchunks.cubicchunks.api.util.Coords;
+import io.netty.buffer.ByteBuf;
 import lombok.NonNull;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiLineString;
 import net.buildtheearth.terraplusplus.dataset.vector.draw.DrawFunction;
 import net.buildtheearth.terraplusplus.generator.CachedChunkData;
 import net.buildtheearth.terraplusplus.util.bvh.Bounds2d;
 
+import java.util.function.IntFunction;
+
 /**
  * A line style that resembles WorldEdit //line tool, that BTE Builders seem to prefer a lot.
  * 
@@ -25,6 +28,10 @@ public class SharpLine extends AbstractLine {
         super(id, layer, draw, lines);
     }
 
+    public SharpLine(@NonNull ByteBuf src, @NonNull IntFunction<DrawFunction> draws) {
+        super(src, draws);
+    }
+
     @Override
     public void apply(@NonNull CachedChunkData.Builder builder, final int chunkX, final int chunkZ, @NonNull Bounds2d bounds) {
         final int minChunkBlockX = Coords.cubeToMinBlock(chunkX);
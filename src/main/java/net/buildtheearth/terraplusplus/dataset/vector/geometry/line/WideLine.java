@@ -2,6 +2,7 @@ package net.buildtheearth.terraplusplus.dataset.vector.geometry.line;
 
 import io.github.opencubicchunks.cubicchunks.api.util.Coords;
 import io.github.opencubicchunks.cubicchunks.api.util.MathUtil;
+import io.netty.buffer.ByteBuf;
 import lombok.NonNull;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiLineString;
 import net.buildtheearth.terraplusplus.dataset.vector.draw.DrawFunction;
@@ -9,6 +10,9 @@ import net.buildtheearth.terraplusplus.generator.CachedChunkData;
 import net.buildtheearth.terraplusplus.util.bvh.Bounds2d;
 import net.minecraft.util.math.MathHelper;
 
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
 import static java.lang.Math.*;
 import static net.daporkchop.lib.common.math.PMath.*;
 
@@ -24,6 +28,19 @@ public final class WideLine extends AbstractLine {
         this.radius = radius;
     }
 
+    public WideLine(@NonNull ByteBuf src, @NonNull IntFunction<DrawFunction> draws) {
+        super(src, draws);
+
+        this.radius = src.readDouble();
+    }
+
+    @Override
+    public void write(@NonNull ByteBuf dst, @NonNull ToIntFunction<DrawFunction> draws) {
+        super.write(dst, draws);
+
+        dst.writeDouble(this.radius);
+    }
+
     @Override
     public void apply(@NonNull CachedChunkData.Builder builder, int chunkX, int chunkZ, @NonNull Bounds2d bounds) {
         this.segments.forEachIntersecting(bounds.expand(this.radius), s -> {
@@ -1,21 +1,26 @@
 package net.buildtheearth.terraplusplus.dataset.vector.geometry.polygon;
 
+import io.github.opencubicchunks.cubicchunks.api.util.Coords;
+import io.netty.buffer.ByteBuf;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
-import net.buildtheearth.terraplusplus.TerraConstants;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.LineString;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiPolygon;
-import net.buildtheearth.terraplusplus.dataset.geojson.geometry.Point;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.Polygon;
 import net.buildtheearth.terraplusplus.dataset.vector.draw.DrawFunction;
 import net.buildtheearth.terraplusplus.dataset.vector.geometry.AbstractVectorGeometry;
 import net.buildtheearth.terraplusplus.dataset.vector.geometry.Segment;
-import net.buildtheearth.terraplusplus.util.interval.IntervalTree;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
 
 import static java.lang.Math.*;
 import static net.daporkchop.lib.common.math.PMath.*;
@@ -26,13 +31,59 @@ import static net.daporkchop.lib.common.util.PValidation.*;
  */
 @Getter
 public abstract class AbstractPolygon extends AbstractVectorGeometry {
-    protected final IntervalTree<Segment> segments;
+    private static final int[] EMPTY_STRIP = new int[17];
+
+    static {
+        Arrays.fill(EMPTY_STRIP, EMPTY_STRIP.length);
+    }
+
+    /**
+     * Converts the given segments to a flat array of edges, in the format used by {@link #edges}.
+     */
+    protected static double[] toEdges(@NonNull List<Segment> segments) {
+        Segment[] sorted = segments.stream()
+                .filter(segment -> segment.minX() < segment.maxX()) //vertical segments can never intersect a vertical scanline, discard them
+                .sorted(Comparator.comparingDouble(Segment::minX))
+                .toArray(Segment[]::new);
+
+        double[] edges = new double[sorted.length << 2];
+        for (int i = 0; i < sorted.length; i++) {
+            Segment segment = sorted[i];
+            edges[(i << 2) + 0] = segment.x0();
+            edges[(i << 2) + 1] = segment.z0();
+            edges[(i << 2) + 2] = segment.x1();
+            edges[(i << 2) + 3] = segment.z1();
+        }
+        return edges;
+    }
+
+    /**
+     * The polygon's edges, stored as {@code x0, z0, x1, z1} for each edge and sorted in ascending order by their minimum X coordinate.
+     */
+    @Getter(AccessLevel.NONE)
+    protected final double[] edges;
+    /**
+     * The running maximum X coordinate of the polygon's {@link #edges}, used by {@link Scanline} to quickly find the edges crossing a given X coordinate.
+     */
+    @Getter(AccessLevel.NONE)
+    protected final double[] edgesRunningMaxX;
 
     protected final double minX;
     protected final double maxX;
     protected final double minZ;
     protected final double maxZ;
 
+    //rasterized strips of 16 columns, indexed by chunk X coordinate. these are computed lazily and then kept for as long as the polygon itself (and
+    // therefore the tile containing it) stays cached, so that each column is only rasterized once no matter how many chunks the polygon covers.
+    // large polygons (e.g. oceans) can span many thousands of chunks of which only a handful are ever generated, so the map is only allocated once
+    // the first strip is rasterized and only contains the strips which were actually needed.
+    @Getter(AccessLevel.NONE)
+    private Int2ObjectMap<int[]> strips; //guarded by this
+    @Getter(AccessLevel.NONE)
+    private final int minChunkX;
+    @Getter(AccessLevel.NONE)
+    private final int maxChunkX;
+
     public AbstractPolygon(@NonNull String id, double layer, @NonNull DrawFunction draw, @NonNull MultiPolygon polygons) {
         super(id, layer, draw);
 
@@ -44,11 +95,12 @@ public abstract class AbstractPolygon extends AbstractVectorGeometry {
         List<Segment> segments = new ArrayList<>();
 
         for (Polygon polygon : polygons.polygons()) {
-            for (Point point : polygon.outerRing().points()) {
-                minX = min(minX, point.lon());
-                maxX = max(maxX, point.lon());
-                minZ = min(minZ, point.lat());
-                maxZ = max(maxZ, point.lat());
+            double[] coords = polygon.outerRing().coords();
+            for (int i = 0; i < coords.length; i += 2) {
+                minX = min(minX, coords[i]);
+                maxX = max(maxX, coords[i]);
+                minZ = min(minZ, coords[i + 1]);
+                maxZ = max(maxZ, coords[i + 1]);
             }
 
             checkArg(polygon.outerRing().isLinearRing(), "outer ring must be a closed loop!");
@@ -64,38 +116,109 @@ public abstract class AbstractPolygon extends AbstractVectorGeometry {
         this.minZ = minZ;
         this.maxZ = maxZ;
 
-        this.segments = new IntervalTree<>(segments);
+        this.edges = toEdges(segments);
+        this.edgesRunningMaxX = Scanline.runningMaxX(this.edges);
+
+        this.minChunkX = floorI(minX) >> 4;
+        this.maxChunkX = floorI(maxX) >> 4;
+    }
+
+    public AbstractPolygon(@NonNull ByteBuf src, @NonNull IntFunction<DrawFunction> draws) {
+        super(src, draws);
+
+        this.minX = src.readDouble();
+        this.maxX = src.readDouble();
+        this.minZ = src.readDouble();
+        this.maxZ = src.readDouble();
+
+        this.edges = toEdges(Arrays.asList(readSegments(src)));
+        this.edgesRunningMaxX = Scanline.runningMaxX(this.edges);
+
+        this.minChunkX = floorI(this.minX) >> 4;
+        this.maxChunkX = floorI(this.maxX) >> 4;
+    }
+
+    @Override
+    public void write(@NonNull ByteBuf dst, @NonNull ToIntFunction<DrawFunction> draws) {
+        super.write(dst, draws);
+
+        dst.writeDouble(this.minX).writeDouble(this.maxX).writeDouble(this.minZ).writeDouble(this.maxZ);
+
+        //only the edges are kept, so the rings are written as runs of connected edges. this doesn't restore vertical segments, but those aren't
+        // needed as they'd be discarded again when reading
+        Segment[] segments = new Segment[this.edges.length >> 2];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(this.edges[(i << 2) + 0], this.edges[(i << 2) + 1], this.edges[(i << 2) + 2], this.edges[(i << 2) + 3]);
+        }
+        writeSegments(dst, segments);
     }
 
-    protected double[] getIntersectionPoints(int pos) {
-        int retries = 0;
-        double offset = 0.5d;
-        do {
-            double center = pos + offset;
-            List<Segment> segments = this.segments.getAllIntersecting(center);
-            if ((segments.size() & 1) == 0) { //if there's an even count, this was successful
-                int size = segments.size();
-                if (size == 0) {
-                    return TerraConstants.EMPTY_DOUBLE_ARRAY;
-                } else {
-                    double[] arr = new double[size];
-
-                    int i = 0;
-                    for (Segment s : segments) {
-                        arr[i++] = lerp(s.z0(), s.z1(), (s.x0() - center) / (s.x0() - s.x1()));
-                    }
-                    Arrays.sort(arr);
-
-                    return arr;
+    /**
+     * Gets the rasterized form of the 16 columns of blocks at the given chunk X coordinate.
+     * <p>
+     * The returned array starts with 17 offsets: the Z coordinates at which the polygon's edges cross column {@code x} (relative to the chunk) are
+     * stored, rounded down and in ascending order, in the range {@code [strip[x], strip[x + 1])}. Each consecutive pair of crossings encloses a
+     * span of blocks inside the polygon, including the first block and excluding the second.
+     * <p>
+     * Each strip is only rasterized once, after which it is cached for as long as this polygon is. The returned array must not be modified.
+     *
+     * @param chunkX the chunk X coordinate
+     * @return the rasterized strip
+     */
+    protected int[] strip(int chunkX) {
+        if (chunkX < this.minChunkX || chunkX > this.maxChunkX) { //the polygon doesn't cover any columns in this strip
+            return EMPTY_STRIP;
+        }
+
+        int[] strip;
+        synchronized (this) {
+            strip = this.strips != null ? this.strips.get(chunkX) : null;
+        }
+
+        if (strip == null) { //rasterize strip outside of the lock
+            strip = this.rasterizeStrip(chunkX);
+
+            //if multiple threads race to get here, they'll all compute the same result, so it doesn't matter which one wins
+            synchronized (this) {
+                if (this.strips == null) {
+                    this.strips = new Int2ObjectOpenHashMap<>();
                 }
+                this.strips.put(chunkX, strip);
+            }
+        }
+        return strip;
+    }
+
+    private int[] rasterizeStrip(int chunkX) {
+        int baseX = Coords.cubeToMinBlock(chunkX);
+
+        IntArrayList strip = new IntArrayList();
+        strip.size(17); //reserve space for the offsets
+
+        Scanline scanline = this.scanline();
+        for (int x = 0; x < 16; x++) {
+            strip.set(x, strip.size());
+
+            int count = scanline.advance(x + baseX + 0.5d);
+            double[] intersectionPoints = scanline.points();
+            for (int i = 0; i < count; i++) {
+                strip.add(floorI(intersectionPoints[i]));
             }
+        }
+        strip.set(16, strip.size());
+        scanline.release(); //don't keep this polygon's edges alive through the thread-local scanline
 
-            //retry with another random offset
-            //this happens because sometimes segments are exactly aligned to the sample grid, in which case everything breaks
-            offset = 0.45d + ThreadLocalRandom.current().nextDouble() * 0.1d;
-        } while (retries++ < 3);
+        return strip.toIntArray();
+    }
 
-        //retried multiple times with different offsets and it still failed, abort...
-        return TerraConstants.EMPTY_DOUBLE_ARRAY;
+    /**
+     * Gets a {@link Scanline} for sweeping over this polygon's edges.
+     * <p>
+     * The returned instance is only valid on the current thread, and until the next time this method is called on any polygon.
+     *
+     * @return a {@link Scanline}
+     */
+    protected Scanline scanline() {
+        return Scanline.get(this.edges, this.edgesRunningMaxX);
     }
 }
@@ -1,6 +1,7 @@
 package net.buildtheearth.terraplusplus.dataset.vector.geometry.polygon;
 
 import io.github.opencubicchunks.cubicchunks.api.util.Coords;
+import io.netty.buffer.ByteBuf;
 import lombok.NonNull;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiPolygon;
 import net.buildtheearth.terraplusplus.dataset.vector.draw.DrawFunction;
@@ -8,9 +9,10 @@ import net.buildtheearth.terraplusplus.generator.CachedChunkData;
 import net.buildtheearth.terraplusplus.util.bvh.Bounds2d;
 
 import java.util.Arrays;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
 
 import static java.lang.Math.*;
-import static net.daporkchop.lib.common.math.PMath.*;
 import static net.daporkchop.lib.common.util.PValidation.*;
 
 /**
@@ -25,92 +27,56 @@ public final class DistancePolygon extends AbstractPolygon {
         this.maxDist = positive(maxDist, "maxDist");
     }
 
+    public DistancePolygon(@NonNull ByteBuf src, @NonNull IntFunction<DrawFunction> draws) {
+        super(src, draws);
+
+        this.maxDist = positive(src.readInt(), "maxDist");
+    }
+
+    @Override
+    public void write(@NonNull ByteBuf dst, @NonNull ToIntFunction<DrawFunction> draws) {
+        super.write(dst, draws);
+
+        dst.writeInt(this.maxDist);
+    }
+
     @Override
     public void apply(@NonNull CachedChunkData.Builder builder, int chunkX, int chunkZ, @NonNull Bounds2d bounds) {
         int baseX = Coords.cubeToMinBlock(chunkX);
         int baseZ = Coords.cubeToMinBlock(chunkZ);
 
         int maxDist = this.maxDist;
-        int[][] distances2d = new int[(maxDist << 1) + 1][16];
-
-        for (int x = -maxDist; x < 16 + maxDist; x++) {
-            DISTANCES:
-            { //compute distances
-                int[] distances = distances2d[0];
-                System.arraycopy(distances2d, 1, distances2d, 0, maxDist << 1); //shift distances down by one
-                distances2d[maxDist << 1] = distances;
-                double[] intersectionPoints = this.getIntersectionPoints(x + baseX);
-
-                if (intersectionPoints.length == 0) { //no intersections along this line
-                    Arrays.fill(distances, Integer.MIN_VALUE);
-                    break DISTANCES;
-                }
-
-                int i = Arrays.binarySearch(intersectionPoints, baseZ - maxDist);
-                i ^= i >> 31; //convert possibly negative insertion index to positive
-                i -= i & 1; //ensure we start on an even index
-
-                int max;
-
-                if (i < intersectionPoints.length) { //index is valid
-                    int mask = 0;
-                    int min = floorI(intersectionPoints[i++]) - baseZ;
-
-                    //fill everything up to this point with blanks
-                    for (int z = 0, itrMax = clamp(min, 0, 16); z < itrMax; z++) {
-                        distances[z] = z - min;
-                    }
-
-                    do {
-                        max = floorI(intersectionPoints[i++]) - baseZ;
-
-                        for (int z = clamp(min, 0, 16), itrMax = clamp(max, 0, 16); z < itrMax; z++) {
-                            distances[z] = min(z - min, max - z - 1) ^ mask;
-                        }
-
-                        min = max;
-                        mask = ~mask;
-                    } while (i < intersectionPoints.length && max <= baseX + 16);
-                } else { //index is too high, simply fill from the end
-                    max = floorI(intersectionPoints[intersectionPoints.length - 1]) - baseZ;
-                }
-
-                //fill everything to the edge with blanks
-                for (int z = clamp(max, 0, 16); z < 16; z++) {
-                    distances[z] = max - z - 1;
+        DistanceTransform transform = DistanceTransform.get(maxDist);
+
+        //rasterize the polygon over the chunk and a margin of maxDist blocks around it
+        for (int x = 0, size = transform.size(); x < size; x++) {
+            boolean[] column = transform.beginColumn();
+
+            int blockX = baseX + x - maxDist;
+            int[] strip = this.strip(blockX >> 4);
+            for (int i = strip[blockX & 0xF], end = strip[(blockX & 0xF) + 1]; i < end; ) {
+                int min = max(strip[i++] - baseZ + maxDist, 0);
+                int max = min(strip[i++] - baseZ + maxDist, size);
+                if (min < max) {
+                    Arrays.fill(column, min, max, true);
                 }
             }
 
-            if (x >= maxDist) {
-                int[] distances = distances2d[maxDist];
-                for (int z = 0; z < 16; z++) {
-                    int dist = distances[z];
-                    int r = abs(dist);
-                    for (int dx = max(-r, -maxDist), maxDx = min(r, maxDist); dx <= maxDx; dx++) {
-                        if (dx != 0) {
-                            int d2 = distances2d[dx + maxDist][z];
-                            if (dist > 0) {
-                                /*if (d2 >= 0) {
-                                    d2 = d2 + abs(dx);
-                                } else {
-                                    d2 = abs(dx) - 1;
-                                }*/
-                                d2 = (d2 & ~(d2 >> 31)) + abs(dx) - (d2 >>> 31);
-                            } else {
-                                /*if (d2 >= 0) {
-                                    d2 = -abs(dx);
-                                } else {
-                                    d2 = (d2 ^ ~(d2 >> 31)) - abs(dx);
-                                }*/
-                                d2 = (d2 & (d2 >> 31)) - abs(dx);
-                            }
-                            if (abs(d2) < abs(dist)) {
-                                dist = d2;
-                            }
-                        }
-                    }
-                    if (dist >= -maxDist) {
-                        this.draw.drawOnto(builder, x - maxDist, z, min(dist, maxDist));
+            transform.endColumn(x);
+        }
+        transform.finish();
+
+        int[] nearestInside = transform.nearestInside();
+        int[] nearestOutside = transform.nearestOutside();
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                int i = x * 16 + z;
+                if (nearestInside[i] == 0) { //the block is inside the polygon: distances are positive, starting at 0 along the edge
+                    this.draw.drawOnto(builder, x, z, min((int) round(sqrt(nearestOutside[i])) - 1, maxDist));
+                } else { //the block is outside the polygon: distances are negative, starting at -1 along the edge
+                    int dist = (int) round(sqrt(nearestInside[i]));
+                    if (dist <= maxDist) {
+                        this.draw.drawOnto(builder, x, z, -dist);
                     }
                 }
             }
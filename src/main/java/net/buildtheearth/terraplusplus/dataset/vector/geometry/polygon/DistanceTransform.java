@@ -0,0 +1,216 @@
+package net.buildtheearth.terraplusplus.dataset.vector.geometry.polygon;
+
+import io.netty.util.concurrent.FastThreadLocal;
+
+import java.util.Arrays;
+
+import static net.daporkchop.lib.common.util.PValidation.*;
+
+/**
+ * Computes the exact Euclidean distance from each block in a chunk to the nearest block inside and outside of a shape.
+ * <p>
+ * The shape is rasterized into a grid covering the chunk plus a margin on every side, one column at a time. The distances are then computed in
+ * linear time using the algorithm described by Felzenszwalb and Huttenlocher in "Distance Transforms of Sampled Functions": first along each
+ * column, and then along each of the chunk's rows using the lower envelope of the parabolas defined by the column distances. Any block further
+ * away than the margin is not guaranteed to be found.
+ * <p>
+ * Instances are re-used by each thread, so computing a distance transform doesn't allocate anything.
+ *
+ * @author DaPorkchop_
+ */
+final class DistanceTransform {
+    private static final FastThreadLocal<DistanceTransform> INSTANCES = new FastThreadLocal<DistanceTransform>() {
+        @Override
+        protected DistanceTransform initialValue() {
+            return new DistanceTransform();
+        }
+    };
+
+    /**
+     * Gets this thread's {@link DistanceTransform} instance, and resets it to use the given margin.
+     *
+     * @param margin the number of blocks around the chunk to include in the grid
+     * @return a {@link DistanceTransform}
+     */
+    public static DistanceTransform get(int margin) {
+        return INSTANCES.get().reset(notNegative(margin, "margin"));
+    }
+
+    private int margin;
+    private int size;
+    private int none; //a distance which is greater than any real distance in the grid
+
+    //the shape's blocks in the current column
+    private boolean[] column = new boolean[0];
+
+    //1-dimensional distances along the current column
+    private int[] columnInside = new int[0];
+    private int[] columnOutside = new int[0];
+
+    //squared 1-dimensional distances along each column, only for the chunk's rows. indexed by x * 16 + z
+    private int[] rowsInside = new int[0];
+    private int[] rowsOutside = new int[0];
+
+    //scratch space for computing the lower envelope of a row
+    private int[] f = new int[0];
+    private int[] v = new int[0];
+    private double[] boundaries = new double[0];
+
+    //squared 2-dimensional distances, only for the chunk itself. indexed by x * 16 + z
+    private final int[] nearestInside = new int[16 * 16];
+    private final int[] nearestOutside = new int[16 * 16];
+
+    private DistanceTransform reset(int margin) {
+        int size = 16 + (margin << 1);
+        if (this.column.length < size) { //grow buffers
+            this.column = new boolean[size];
+            this.columnInside = new int[size];
+            this.columnOutside = new int[size];
+            this.rowsInside = new int[size * 16];
+            this.rowsOutside = new int[size * 16];
+            this.f = new int[size];
+            this.v = new int[size];
+            this.boundaries = new double[size + 1];
+        }
+
+        this.margin = margin;
+        this.size = size;
+        this.none = size << 1;
+        return this;
+    }
+
+    /**
+     * @return the size of the grid along each axis
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Begins rasterizing a column of the grid.
+     * <p>
+     * The returned array is cleared, and should have every block inside the shape set to {@code true} before calling {@link #endColumn(int)}.
+     * Indices are relative to the grid, so the chunk's first row is at index {@code margin}.
+     *
+     * @return the column, with a length of at least {@link #size()}
+     */
+    public boolean[] beginColumn() {
+        Arrays.fill(this.column, false);
+        return this.column;
+    }
+
+    /**
+     * Finishes rasterizing a column of the grid.
+     *
+     * @param x the X coordinate of the column, relative to the grid
+     */
+    public void endColumn(int x) {
+        int size = this.size;
+        int margin = this.margin;
+        boolean[] column = this.column;
+        int[] columnInside = this.columnInside;
+        int[] columnOutside = this.columnOutside;
+
+        //forwards pass
+        for (int z = 0, inside = this.none, outside = this.none; z < size; z++) {
+            if (column[z]) {
+                inside = 0;
+                outside++;
+            } else {
+                inside++;
+                outside = 0;
+            }
+            columnInside[z] = inside;
+            columnOutside[z] = outside;
+        }
+
+        //backwards pass
+        for (int z = size - 1, inside = this.none, outside = this.none; z >= 0; z--) {
+            if (column[z]) {
+                inside = 0;
+                outside++;
+            } else {
+                inside++;
+                outside = 0;
+            }
+            columnInside[z] = Math.min(columnInside[z], inside);
+            columnOutside[z] = Math.min(columnOutside[z], outside);
+        }
+
+        //we only need the rows which are part of the chunk
+        for (int z = 0; z < 16; z++) {
+            int inside = columnInside[z + margin];
+            int outside = columnOutside[z + margin];
+            this.rowsInside[x * 16 + z] = inside * inside;
+            this.rowsOutside[x * 16 + z] = outside * outside;
+        }
+    }
+
+    /**
+     * Computes the final distances, once every column of the grid has been rasterized.
+     */
+    public void finish() {
+        this.transformRows(this.rowsInside, this.nearestInside);
+        this.transformRows(this.rowsOutside, this.nearestOutside);
+    }
+
+    private void transformRows(int[] rows, int[] dst) {
+        int size = this.size;
+        int margin = this.margin;
+        int[] f = this.f;
+        int[] v = this.v;
+        double[] boundaries = this.boundaries;
+
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < size; x++) {
+                f[x] = rows[x * 16 + z];
+            }
+
+            //compute the lower envelope of the parabolas rooted at each column
+            int k = 0;
+            v[0] = 0;
+            boundaries[0] = Double.NEGATIVE_INFINITY;
+            boundaries[1] = Double.POSITIVE_INFINITY;
+            for (int q = 1; q < size; q++) {
+                double s;
+                while ((s = intersect(f, v[k], q)) <= boundaries[k]) {
+                    k--;
+                }
+                k++;
+                v[k] = q;
+                boundaries[k] = s;
+                boundaries[k + 1] = Double.POSITIVE_INFINITY;
+            }
+
+            //sample the lower envelope, but only for the columns which are part of the chunk
+            k = 0;
+            for (int q = 0; q < margin + 16; q++) {
+                while (boundaries[k + 1] < q) {
+                    k++;
+                }
+                if (q >= margin) {
+                    int dx = q - v[k];
+                    dst[(q - margin) * 16 + z] = dx * dx + f[v[k]];
+                }
+            }
+        }
+    }
+
+    private static double intersect(int[] f, int p, int q) {
+        return ((f[q] + q * q) - (f[p] + p * p)) / (2.0d * (q - p));
+    }
+
+    /**
+     * @return the squared distance from each block in the chunk to the nearest block inside the shape, indexed by {@code x * 16 + z}
+     */
+    public int[] nearestInside() {
+        return this.nearestInside;
+    }
+
+    /**
+     * @return the squared distance from each block in the chunk to the nearest block outside the shape, indexed by {@code x * 16 + z}
+     */
+    public int[] nearestOutside() {
+        return this.nearestOutside;
+    }
+}
@@ -1,13 +1,16 @@
 package net.buildtheearth.terraplusplus.dataset.vector.geometry.polygon;
 
 import io.github.opencubicchunks.cubicchunks.api.util.Coords;
+import io.netty.buffer.ByteBuf;
 import lombok.NonNull;
 import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiPolygon;
 import net.buildtheearth.terraplusplus.dataset.vector.draw.DrawFunction;
 import net.buildtheearth.terraplusplus.generator.CachedChunkData;
 import net.buildtheearth.terraplusplus.util.bvh.Bounds2d;
 
-import static net.daporkchop.lib.common.math.PMath.*;
+import java.util.function.IntFunction;
+
+import static java.lang.Math.*;
 
 /**
  * @author DaPorkchop_
@@ -17,18 +20,25 @@ public final class FillPolygon extends AbstractPolygon {
         super(id, layer, draw, polygons);
     }
 
+    public FillPolygon(@NonNull ByteBuf src, @NonNull IntFunction<DrawFunction> draws) {
+        super(src, draws);
+    }
+
     @Override
     public void apply(@NonNull CachedChunkData.Builder builder, int chunkX, int chunkZ, @NonNull Bounds2d bounds) {
         int baseX = Coords.cubeToMinBlock(chunkX);
         int baseZ = Coords.cubeToMinBlock(chunkZ);
 
+        int[] strip = this.strip(chunkX);
         for (int x = 0; x < 16; x++) {
-            double[] intersectionPoints = this.getIntersectionPoints(x + baseX);
+            for (int i = strip[x], end = strip[x + 1]; i < end; ) {
+                int min = strip[i++] - baseZ;
+                int max = strip[i++] - baseZ;
+                if (min >= 16) { //all remaining spans are past the end of the chunk
+                    break;
+                }
 
-            for (int i = 0; i < intersectionPoints.length; ) {
-                int min = clamp(floorI(intersectionPoints[i++]) - baseZ, 0, 16);
-                int max = clamp(floorI(intersectionPoints[i++]) - baseZ, 0, 16);
-                for (int z = min; z < max; z++) {
+                for (int z = max(min, 0), itrMax = min(max, 16); z < itrMax; z++) {
                     this.draw.drawOnto(builder, x, z, 1);
                 }
             }
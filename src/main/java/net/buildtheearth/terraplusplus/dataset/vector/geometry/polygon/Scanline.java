@@ -0,0 +1,199 @@
+package net.buildtheearth.terraplusplus.dataset.vector.geometry.polygon;
+
+import io.netty.util.concurrent.FastThreadLocal;
+import lombok.NonNull;
+
+import java.util.Arrays;
+
+import static java.lang.Math.*;
+import static net.daporkchop.lib.common.math.PMath.*;
+import static net.daporkchop.lib.common.util.PValidation.*;
+
+/**
+ * Sweeps a vertical line along the X axis of a polygon, computing the Z coordinates at which it intersects the polygon's edges.
+ * <p>
+ * The polygon's edges are sorted by their minimum X coordinate, which allows the set of edges crossing the line (the "active edge table") to be
+ * updated incrementally as the line advances, rather than being searched for again at every position. The initial active edge table is found using
+ * a binary search over the edges' running maximum X coordinate (see {@link #runningMaxX(double[])}), so starting a sweep somewhere in the middle
+ * of a large polygon doesn't require scanning all of the edges to its left. Instances are re-used by each thread, so querying intersections
+ * doesn't allocate anything.
+ *
+ * @author DaPorkchop_
+ */
+final class Scanline {
+    private static final FastThreadLocal<Scanline> INSTANCES = new FastThreadLocal<Scanline>() {
+        @Override
+        protected Scanline initialValue() {
+            return new Scanline();
+        }
+    };
+
+    /**
+     * Gets this thread's {@link Scanline} instance, and resets it to sweep over the given edges.
+     *
+     * @param edges       the edges of the polygon (see {@link AbstractPolygon#edges})
+     * @param runningMaxX the running maximum X coordinate of the edges, as computed by {@link #runningMaxX(double[])}
+     * @return a {@link Scanline}
+     */
+    public static Scanline get(@NonNull double[] edges, @NonNull double[] runningMaxX) {
+        return INSTANCES.get().reset(edges, runningMaxX);
+    }
+
+    /**
+     * Computes the running maximum X coordinate of the given edges.
+     * <p>
+     * Element {@code i} of the returned array is the largest maximum X coordinate of any of the edges {@code [0, i]}. Since it never decreases, it
+     * can be binary searched in order to find the first edge which extends past a given X coordinate.
+     *
+     * @param edges the edges of the polygon (see {@link AbstractPolygon#edges})
+     * @return the running maximum X coordinate of the edges
+     */
+    public static double[] runningMaxX(@NonNull double[] edges) {
+        double[] runningMaxX = new double[edges.length >> 2];
+        double maxX = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < runningMaxX.length; i++) {
+            runningMaxX[i] = maxX = max(maxX, max(edges[(i << 2) + 0], edges[(i << 2) + 2]));
+        }
+        return runningMaxX;
+    }
+
+    private double[] edges;
+    private double[] runningMaxX;
+    private int nextEdge;
+    private double x;
+
+    private int[] active = new int[16];
+    private int activeCount;
+
+    private double[] points = new double[16];
+
+    private Scanline reset(double[] edges, double[] runningMaxX) {
+        checkArg(runningMaxX.length == edges.length >> 2, "runningMaxX doesn't match edges");
+        this.edges = edges;
+        this.runningMaxX = runningMaxX;
+        this.nextEdge = -1;
+        this.activeCount = 0;
+        this.x = Double.NEGATIVE_INFINITY;
+        return this;
+    }
+
+    /**
+     * Builds the active edge table at the given X coordinate from scratch.
+     */
+    private void seed(double x) {
+        double[] edges = this.edges;
+        double[] runningMaxX = this.runningMaxX;
+
+        //every edge before the first one whose running maximum is past x ends at or before x
+        int lo = 0;
+        for (int hi = runningMaxX.length; lo < hi; ) {
+            int mid = (lo + hi) >>> 1;
+            if (runningMaxX[mid] > x) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+
+        //every edge after the last one which starts at or before x starts after x
+        int end = lo;
+        for (int hi = runningMaxX.length; end < hi; ) {
+            int mid = (end + hi) >>> 1;
+            if (min(edges[(mid << 2) + 0], edges[(mid << 2) + 2]) <= x) {
+                end = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+
+        //only the edges in between need to be checked individually
+        int[] active = this.active;
+        int activeCount = 0;
+        for (int i = lo; i < end; i++) {
+            int edge = i << 2;
+            if (max(edges[edge + 0], edges[edge + 2]) > x) {
+                if (activeCount == active.length) {
+                    this.active = active = Arrays.copyOf(active, activeCount << 1);
+                }
+                active[activeCount++] = edge;
+            }
+        }
+        this.activeCount = activeCount;
+        this.nextEdge = end;
+    }
+
+    /**
+     * Moves the line to the given X coordinate, and computes the Z coordinates of all of the intersections with the polygon's edges.
+     * <p>
+     * An edge is considered to intersect the line if {@code minX <= x < maxX}. This ensures that the number of intersections is always even,
+     * even if the line passes exactly through one of the polygon's vertices.
+     * <p>
+     * Moving the line in ascending order is fastest, as the active edges from the previous position can be re-used. Otherwise, the active edges
+     * are searched for again from scratch.
+     *
+     * @param x the X coordinate
+     * @return the number of intersections. The Z coordinates themselves may be obtained from {@link #points()}, and are sorted in ascending order
+     */
+    public int advance(double x) {
+        double[] edges = this.edges;
+        if (this.nextEdge < 0 || x < this.x) { //this is the first position, or we're moving backwards: build the active edge table from scratch
+            this.seed(x);
+        }
+        this.x = x;
+
+        //remove edges which end before the new position
+        int[] active = this.active;
+        int activeCount = 0;
+        for (int i = 0; i < this.activeCount; i++) {
+            int edge = active[i];
+            if (max(edges[edge + 0], edges[edge + 2]) > x) {
+                active[activeCount++] = edge;
+            }
+        }
+
+        //add edges which start at or before the new position
+        for (int edge; (edge = this.nextEdge << 2) < edges.length && min(edges[edge + 0], edges[edge + 2]) <= x; this.nextEdge++) {
+            if (max(edges[edge + 0], edges[edge + 2]) > x) {
+                if (activeCount == active.length) {
+                    this.active = active = Arrays.copyOf(active, activeCount << 1);
+                }
+                active[activeCount++] = edge;
+            }
+        }
+        this.activeCount = activeCount;
+
+        //compute intersection points
+        double[] points = this.points;
+        if (points.length < activeCount) {
+            this.points = points = new double[max(activeCount, points.length << 1)];
+        }
+        for (int i = 0; i < activeCount; i++) {
+            int edge = active[i];
+            double x0 = edges[edge + 0];
+            double z0 = edges[edge + 1];
+            double x1 = edges[edge + 2];
+            double z1 = edges[edge + 3];
+            points[i] = lerp(z0, z1, (x0 - x) / (x0 - x1));
+        }
+        Arrays.sort(points, 0, activeCount);
+        return activeCount;
+    }
+
+    /**
+     * @return the Z coordinates of the intersections computed by the last call to {@link #advance(double)}
+     */
+    public double[] points() {
+        return this.points;
+    }
+
+    /**
+     * Releases this scanline's references to the polygon's edges.
+     * <p>
+     * Since instances are kept by each thread, this should be called once the sweep is finished so that the edges of a polygon which is no longer
+     * cached can be garbage collected.
+     */
+    public void release() {
+        this.edges = null;
+        this.runningMaxX = null;
+    }
+}
@@ -33,8 +33,14 @@ import net.buildtheearth.terraplusplus.generator.data.IEarthDataBaker;
 import net.buildtheearth.terraplusplus.generator.populate.IEarthPopulator;
 import net.buildtheearth.terraplusplus.projection.GeographicProjection;
 import net.buildtheearth.terraplusplus.projection.OutOfProjectionBoundsException;
+import net.buildtheearth.terraplusplus.util.http.Http;
+import net.buildtheearth.terraplusplus.util.http.PrioritizedCacheLoader;
+import net.buildtheearth.terraplusplus.util.http.PriorityGroup;
+import net.buildtheearth.terraplusplus.util.http.RequestPriority;
 import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.init.Blocks;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.text.TextComponentString;
@@ -101,7 +107,9 @@ public class EarthGenerator extends BasicCubeGenerator {
             if (cubeGenerator instanceof EarthGenerator) {
                 // Prefetch terrain data
                 try {
-                    ((EarthGenerator) cubeGenerator).cache.getUnchecked(pos);
+                    // Chunks out of every player's view distance are only being loaded speculatively, their data isn't needed any time soon
+                    RequestPriority priority = isNearPlayer(world, pos) ? RequestPriority.NEAR_PLAYER : RequestPriority.PREFETCH;
+                    Http.withPriority(priority, () -> ((EarthGenerator) cubeGenerator).cache.getUnchecked(pos));
                 } catch (Exception e) {
                     // Catch any unexpected exceptions during async cube/column loading
                     TerraMod.LOGGER.error("Async exception while prefetching data for " + pos, e);
@@ -110,6 +118,19 @@ public class EarthGenerator extends BasicCubeGenerator {
         }
     }
 
+    private static boolean isNearPlayer(World world, ChunkPos pos) {
+        MinecraftServer server = world.getMinecraftServer();
+        int radius = server != null ? server.getPlayerList().getViewDistance() : 10;
+
+        // This is called from an async loading thread, so copy the player list to avoid iterating over it while it's being modified
+        for (EntityPlayer player : new ArrayList<>(world.playerEntities)) {
+            if (max(abs(player.chunkCoordX - pos.x), abs(player.chunkCoordZ - pos.z)) <= radius) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public static boolean isNullIsland(int chunkX, int chunkZ) {
         return max(chunkX ^ (chunkX >> 31), chunkZ ^ (chunkZ >> 31)) < 3;
     }
@@ -128,6 +149,7 @@ public class EarthGenerator extends BasicCubeGenerator {
     public final GeneratorDatasets datasets;
 
     public final LoadingCache<ChunkPos, CompletableFuture<CachedChunkData>> cache;
+    private final PrioritizedCacheLoader<ChunkPos, CachedChunkData> loader;
 
     public EarthGenerator(World world) {
         super(world);
@@ -142,7 +164,7 @@ public class EarthGenerator extends BasicCubeGenerator {
         this.cache = CacheBuilder.newBuilder()
                 .expireAfterAccess(5L, TimeUnit.MINUTES)
                 .softValues()
-                .build(new ChunkDataLoader(this.settings));
+                .build(this.loader = new PrioritizedCacheLoader<>(new ChunkDataLoader(this.settings)));
 
         // Structures
         if (this.cubiccfg.caves) {
@@ -189,7 +211,7 @@ public class EarthGenerator extends BasicCubeGenerator {
         MinecraftForge.EVENT_BUS.post(new CubePopulatorEvent.Pre(cube));
 
         // Pre-populate terrain with cached data
-        CompletableFuture<CachedChunkData> cache = this.cache.getUnchecked(pos.chunkPos());
+        CompletableFuture<CachedChunkData> cache = this.getCachedChunkData(pos.chunkPos());
         if (!cache.isDone()) {
             // If we're about to generate terrain synchronously,
             // we need to ensure that it's available
@@ -222,9 +244,27 @@ public class EarthGenerator extends BasicCubeGenerator {
         }
     }
 
+    /**
+     * Gets the cached data for the given chunk, requesting any data which needs to be fetched with {@link RequestPriority#BLOCKING} priority
+     * as the caller is about to wait for it.
+     * <p>
+     * If the data was already being loaded with a lower priority (e.g. by an async loading callback), the priority of everything it's waiting
+     * for is raised to {@link RequestPriority#BLOCKING} as well.
+     */
+    private CompletableFuture<CachedChunkData> getCachedChunkData(ChunkPos pos) {
+        CompletableFuture<CachedChunkData> future = Http.withPriority(RequestPriority.BLOCKING, () -> this.cache.getUnchecked(pos));
+        if (!future.isDone()) {
+            PriorityGroup group = this.loader.group(pos);
+            if (group != null) {
+                group.raise(RequestPriority.BLOCKING);
+            }
+        }
+        return future;
+    }
+
     @Override
     public CubePrimer generateCube(int cubeX, int cubeY, int cubeZ) {
-        CompletableFuture<CachedChunkData> cache = this.cache.getUnchecked(new ChunkPos(cubeX, cubeZ));
+        CompletableFuture<CachedChunkData> cache = this.getCachedChunkData(new ChunkPos(cubeX, cubeZ));
 
         // Return a blank cube if this is Null Island
         if (isNullIsland(cubeX, cubeZ)) {
@@ -289,7 +329,7 @@ public class EarthGenerator extends BasicCubeGenerator {
 
         MinecraftForge.EVENT_BUS.post(new CubePopulatorEvent.Pre(cube));
 
-        CompletableFuture<CachedChunkData> cache = this.cache.getUnchecked(pos.chunkPos());
+        CompletableFuture<CachedChunkData> cache = this.getCachedChunkData(pos.chunkPos());
         if (!cache.isDone()) {
             cache.join();
         }
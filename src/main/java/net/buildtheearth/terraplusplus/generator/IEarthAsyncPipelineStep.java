@@ -5,6 +5,8 @@ import net.buildtheearth.terraplusplus.TerraMod;
 import net.buildtheearth.terraplusplus.projection.OutOfProjectionBoundsException;
 import net.buildtheearth.terraplusplus.util.CornerBoundingBox2d;
 import net.buildtheearth.terraplusplus.util.bvh.Bounds2d;
+import net.buildtheearth.terraplusplus.util.http.Http;
+import net.buildtheearth.terraplusplus.util.http.PriorityGroup;
 import net.minecraft.util.math.ChunkPos;
 
 import java.util.Arrays;
@@ -20,6 +22,9 @@ import static net.daporkchop.lib.common.util.PorkUtil.*;
  */
 public interface IEarthAsyncPipelineStep<D, V, B extends IEarthAsyncDataBuilder<V>> {
     static <V, B extends IEarthAsyncDataBuilder<V>> CompletableFuture<V> getFuture(ChunkPos pos, GeneratorDatasets datasets, IEarthAsyncPipelineStep<?, V, B>[] steps, Supplier<B> builderFactory) {
+        //the data is requested on another thread, so the caller's priority group needs to be carried over to it
+        PriorityGroup group = Http.currentGroup();
+
         //i used the future to create the future
         return CompletableFuture.supplyAsync(() -> {
             int baseX = Coords.cubeToMinBlock(pos.x);
@@ -30,12 +35,15 @@ public interface IEarthAsyncPipelineStep<D, V, B extends IEarthAsyncDataBuilder<
                 Bounds2d chunkBounds = Bounds2d.of(baseX, baseX + 16, baseZ, baseZ + 16);
                 CornerBoundingBox2d chunkBoundsGeo = chunkBounds.toCornerBB(datasets.projection(), false).toGeo();
 
-                for (int i = 0; i < steps.length; i++) {
-                    try {
-                        futures[i] = steps[i].requestData(pos, datasets, chunkBounds, chunkBoundsGeo);
-                    } catch (OutOfProjectionBoundsException ignored) {
+                Http.withGroup(group, () -> {
+                    for (int i = 0; i < steps.length; i++) {
+                        try {
+                            futures[i] = steps[i].requestData(pos, datasets, chunkBounds, chunkBoundsGeo);
+                        } catch (OutOfProjectionBoundsException ignored) {
+                        }
                     }
-                }
+                    return null;
+                });
             } catch (OutOfProjectionBoundsException ignored) {
             }
 
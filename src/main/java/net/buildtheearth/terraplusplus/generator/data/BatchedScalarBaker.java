@@ -0,0 +1,150 @@
+package net.buildtheearth.terraplusplus.generator.data;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.github.opencubicchunks.cubicchunks.api.util.Coords;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import net.buildtheearth.terraplusplus.dataset.IScalarDataset;
+import net.buildtheearth.terraplusplus.generator.GeneratorDatasets;
+import net.buildtheearth.terraplusplus.projection.GeographicProjection;
+import net.buildtheearth.terraplusplus.projection.OutOfProjectionBoundsException;
+import net.buildtheearth.terraplusplus.util.CornerBoundingBox2d;
+import net.buildtheearth.terraplusplus.util.bvh.Bounds2d;
+import net.buildtheearth.terraplusplus.util.http.Http;
+import net.buildtheearth.terraplusplus.util.http.PriorityGroup;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static net.daporkchop.lib.common.util.PValidation.*;
+import static net.daporkchop.lib.common.util.PorkUtil.*;
+
+/**
+ * Base implementation of {@link IEarthDataBaker} for data which is sampled from an {@link IScalarDataset} at a resolution of one sample per block.
+ * <p>
+ * Rather than requesting the data for each chunk individually, the data is requested for a whole square region of chunks at once. Since chunks
+ * are almost always generated in large batches of adjacent columns, this allows the dataset to resolve the backing tiles for many chunks at once.
+ *
+ * @author DaPorkchop_
+ */
+public abstract class BatchedScalarBaker implements IEarthDataBaker<double[]> {
+    protected static final int REGION_SHIFT = Integer.parseUnsignedInt(System.getProperty("terraplusplus.scalar_region_shift", "2"));
+    protected static final int REGION_SIZE = 1 << REGION_SHIFT;
+    protected static final int REGION_MASK = REGION_SIZE - 1;
+
+    static {
+        checkState(REGION_SHIFT < 8, "terraplusplus.scalar_region_shift (%d) must be at most 7!", REGION_SHIFT);
+    }
+
+    //each chunk in a region has its own future, so a chunk which fails doesn't affect the rest of the region. the samples for a region only need
+    // to be kept until all of its chunks have been baked, which generally happens within a few seconds.
+    protected final Cache<ChunkPos, CompletableFuture<double[]>[]> regions = CacheBuilder.newBuilder()
+            .maximumSize(1024L)
+            .expireAfterAccess(1L, TimeUnit.MINUTES)
+            .build();
+    //the priority groups of the regions which are still being loaded. the region is shared by all of its chunks, so whoever needs one of them
+    // most urgently has to be able to raise the priority of the whole region.
+    protected final Map<ChunkPos, PriorityGroup> loadingRegions = new ConcurrentHashMap<>();
+
+    /**
+     * @param datasets the datasets to be used
+     * @return the {@link IScalarDataset} to sample data from
+     */
+    protected abstract IScalarDataset dataset(@NonNull GeneratorDatasets datasets);
+
+    @Override
+    @SneakyThrows(ExecutionException.class)
+    public CompletableFuture<double[]> requestData(ChunkPos pos, GeneratorDatasets datasets, Bounds2d bounds, CornerBoundingBox2d boundsGeo) throws OutOfProjectionBoundsException {
+        if (REGION_SHIFT == 0) { //batching is disabled
+            return this.dataset(datasets).getAsync(boundsGeo, 16, 16);
+        }
+
+        ChunkPos regionPos = new ChunkPos(pos.x >> REGION_SHIFT, pos.z >> REGION_SHIFT);
+        CompletableFuture<double[]>[] region = this.regions.get(regionPos, () -> {
+            PriorityGroup group = new PriorityGroup(Http.currentPriority());
+            this.loadingRegions.put(regionPos, group);
+            CompletableFuture<double[]>[] futures = Http.withGroup(group, () -> this.requestRegion(regionPos.x, regionPos.z, datasets));
+            CompletableFuture.allOf(futures).whenComplete((v, t) -> this.loadingRegions.remove(regionPos, group));
+            return futures;
+        });
+        Http.dependOn(this.loadingRegions.get(regionPos));
+
+        int index = (pos.x & REGION_MASK) << REGION_SHIFT | (pos.z & REGION_MASK);
+        return region[index].whenComplete((data, cause) -> {
+            if (cause != null) { //don't keep failed chunks around, the next attempt to generate them should try again
+                this.regions.asMap().remove(regionPos, region);
+            }
+        });
+    }
+
+    protected CompletableFuture<double[]>[] requestRegion(int regionX, int regionZ, @NonNull GeneratorDatasets datasets) {
+        GeographicProjection projection = datasets.projection();
+
+        //project every corner of the region's chunk grid once, rather than once for each of the (up to four) chunks which share it. this gives
+        // exactly the same bounding boxes as IEarthAsyncPipelineStep#getFuture computes for each chunk, since adjacent chunks' corners are the
+        // same integer block coordinates.
+        int corners = REGION_SIZE + 1;
+        double[][] cornersGeo = new double[corners * corners][];
+        OutOfProjectionBoundsException[] cornerExceptions = new OutOfProjectionBoundsException[corners * corners];
+        for (int i = 0, dx = 0; dx < corners; dx++) {
+            for (int dz = 0; dz < corners; dz++, i++) {
+                try {
+                    double[] geo = projection.toGeo(Coords.cubeToMinBlock((regionX << REGION_SHIFT) + dx), Coords.cubeToMinBlock((regionZ << REGION_SHIFT) + dz));
+                    projection.fromGeo(geo[0], geo[1]); //the corner must also be valid in geographic coordinates, as checked by CornerBoundingBox2d#validate
+                    cornersGeo[i] = geo;
+                } catch (OutOfProjectionBoundsException e) {
+                    cornerExceptions[i] = e;
+                }
+            }
+        }
+
+        CornerBoundingBox2d[] boundsGeo = new CornerBoundingBox2d[REGION_SIZE * REGION_SIZE];
+        List<OutOfProjectionBoundsException> outOfBounds = new ArrayList<>(); //the exceptions for the chunks which are out of bounds, in order
+        for (int i = 0, dx = 0; dx < REGION_SIZE; dx++) {
+            for (int dz = 0; dz < REGION_SIZE; dz++, i++) {
+                int c00 = dx * corners + dz;
+                int c10 = c00 + corners;
+                try {
+                    boundsGeo[i] = new CornerBoundingBox2d(
+                            corner(cornersGeo, cornerExceptions, c00), corner(cornersGeo, cornerExceptions, c00 + 1),
+                            corner(cornersGeo, cornerExceptions, c10), corner(cornersGeo, cornerExceptions, c10 + 1),
+                            projection, true, false);
+                } catch (OutOfProjectionBoundsException e) {
+                    outOfBounds.add(e);
+                }
+            }
+        }
+
+        if (outOfBounds.isEmpty()) {
+            return this.dataset(datasets).getAsync(boundsGeo, 16, 16);
+        }
+
+        //some chunks are out of bounds: only request the remaining ones, and fail the others individually
+        CompletableFuture<double[]>[] futures = this.dataset(datasets).getAsync(Arrays.stream(boundsGeo).filter(Objects::nonNull).toArray(CornerBoundingBox2d[]::new), 16, 16);
+        CompletableFuture<double[]>[] out = uncheckedCast(new CompletableFuture[boundsGeo.length]);
+        for (int i = 0, j = 0, k = 0; i < boundsGeo.length; i++) {
+            if (boundsGeo[i] != null) {
+                out[i] = futures[j++];
+            } else {
+                (out[i] = new CompletableFuture<>()).completeExceptionally(outOfBounds.get(k++));
+            }
+        }
+        return out;
+    }
+
+    private static double[] corner(double[][] cornersGeo, OutOfProjectionBoundsException[] cornerExceptions, int index) throws OutOfProjectionBoundsException {
+        if (cornersGeo[index] == null) {
+            throw cornerExceptions[index];
+        }
+        return cornersGeo[index];
+    }
+}
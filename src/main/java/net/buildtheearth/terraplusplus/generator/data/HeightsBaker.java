@@ -1,26 +1,23 @@
 package net.buildtheearth.terraplusplus.generator.data;
 
+import lombok.NonNull;
 import net.buildtheearth.terraplusplus.dataset.IScalarDataset;
 import net.buildtheearth.terraplusplus.generator.CachedChunkData;
 import net.buildtheearth.terraplusplus.generator.EarthGeneratorPipelines;
 import net.buildtheearth.terraplusplus.generator.GeneratorDatasets;
-import net.buildtheearth.terraplusplus.projection.OutOfProjectionBoundsException;
-import net.buildtheearth.terraplusplus.util.CornerBoundingBox2d;
-import net.buildtheearth.terraplusplus.util.bvh.Bounds2d;
 import net.minecraft.util.math.ChunkPos;
 
 import java.util.Arrays;
-import java.util.concurrent.CompletableFuture;
 
 import static net.daporkchop.lib.common.math.PMath.*;
 
 /**
  * @author DaPorkchop_
  */
-public class HeightsBaker implements IEarthDataBaker<double[]> {
+public class HeightsBaker extends BatchedScalarBaker {
     @Override
-    public CompletableFuture<double[]> requestData(ChunkPos pos, GeneratorDatasets datasets, Bounds2d bounds, CornerBoundingBox2d boundsGeo) throws OutOfProjectionBoundsException {
-        return datasets.<IScalarDataset>getCustom(EarthGeneratorPipelines.KEY_DATASET_HEIGHTS).getAsync(boundsGeo, 16, 16);
+    protected IScalarDataset dataset(@NonNull GeneratorDatasets datasets) {
+        return datasets.getCustom(EarthGeneratorPipelines.KEY_DATASET_HEIGHTS);
     }
 
     @Override
@@ -1,6 +1,10 @@
 package net.buildtheearth.terraplusplus.generator.data;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.github.opencubicchunks.cubicchunks.api.util.Coords;
+import lombok.NonNull;
+import lombok.SneakyThrows;
 import net.buildtheearth.terraplusplus.dataset.IElementDataset;
 import net.buildtheearth.terraplusplus.dataset.vector.geometry.VectorGeometry;
 import net.buildtheearth.terraplusplus.generator.CachedChunkData;
@@ -10,38 +14,162 @@ import net.buildtheearth.terraplusplus.projection.OutOfProjectionBoundsException
 import net.buildtheearth.terraplusplus.util.CornerBoundingBox2d;
 import net.buildtheearth.terraplusplus.util.bvh.BVH;
 import net.buildtheearth.terraplusplus.util.bvh.Bounds2d;
+import net.buildtheearth.terraplusplus.util.http.Http;
+import net.buildtheearth.terraplusplus.util.http.PriorityGroup;
 import net.minecraft.util.math.ChunkPos;
 
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static net.daporkchop.lib.common.util.PValidation.*;
+import static net.daporkchop.lib.common.util.PorkUtil.*;
 
 /**
+ * Bakes the OpenStreetMap elements which intersect each chunk.
+ * <p>
+ * Like {@link BatchedScalarBaker}, the tiles are requested for a whole square region of chunks at once. Once they're loaded, the elements of every
+ * chunk in the region are found using a single {@link BVH#forEachIntersecting(Bounds2d[], BVH.BatchCallback) batch query} per tile, rather than
+ * walking each tile's BVH again for every chunk.
+ *
  * @author DaPorkchop_
  */
-public class OSMBaker implements IEarthDataBaker<BVH<VectorGeometry>[]> {
+public class OSMBaker implements IEarthDataBaker<VectorGeometry[]> {
+    protected static final int REGION_SHIFT = Integer.parseUnsignedInt(System.getProperty("terraplusplus.osm_region_shift", "2"));
+    protected static final int REGION_SIZE = 1 << REGION_SHIFT;
+    protected static final int REGION_MASK = REGION_SIZE - 1;
+
+    static {
+        checkState(REGION_SHIFT < 8, "terraplusplus.osm_region_shift (%d) must be at most 7!", REGION_SHIFT);
+    }
+
+    /**
+     * Finds the elements which intersect each of the given chunks.
+     *
+     * @param tiles  the tiles containing the elements
+     * @param chunks the bounding boxes of the chunks
+     * @return the elements which intersect each chunk, sorted and without duplicates
+     */
+    protected static VectorGeometry[][] elementsByChunk(@NonNull BVH<VectorGeometry>[] tiles, @NonNull Bounds2d[] chunks) {
+        //elements may be contained in multiple tiles, so they need to be deduplicated
+        Set<VectorGeometry>[] elements = uncheckedCast(new Set[chunks.length]);
+        for (int i = 0; i < chunks.length; i++) {
+            elements[i] = new TreeSet<>();
+        }
+        for (BVH<VectorGeometry> tile : tiles) {
+            tile.forEachIntersecting(chunks, (chunk, element) -> elements[chunk].add(element));
+        }
+
+        VectorGeometry[][] out = new VectorGeometry[chunks.length][];
+        for (int i = 0; i < chunks.length; i++) {
+            out[i] = elements[i].toArray(new VectorGeometry[0]);
+        }
+        return out;
+    }
+
+    protected static Bounds2d chunkBounds(int chunkX, int chunkZ) {
+        int baseX = Coords.cubeToMinBlock(chunkX);
+        int baseZ = Coords.cubeToMinBlock(chunkZ);
+        return Bounds2d.of(baseX, baseX + 16, baseZ, baseZ + 16);
+    }
+
+    //the elements of each chunk only need to be kept until all of the region's chunks have been baked, which generally happens within a few seconds
+    protected final Cache<ChunkPos, CompletableFuture<VectorGeometry[][]>> regions = CacheBuilder.newBuilder()
+            .maximumSize(1024L)
+            .expireAfterAccess(1L, TimeUnit.MINUTES)
+            .build();
+    //the priority groups of the regions which are still being loaded (see BatchedScalarBaker#loadingRegions)
+    protected final Map<ChunkPos, PriorityGroup> loadingRegions = new ConcurrentHashMap<>();
+
     @Override
-    public CompletableFuture<BVH<VectorGeometry>[]> requestData(ChunkPos pos, GeneratorDatasets datasets, Bounds2d bounds, CornerBoundingBox2d boundsGeo) throws OutOfProjectionBoundsException {
+    @SneakyThrows(ExecutionException.class)
+    public CompletableFuture<VectorGeometry[]> requestData(ChunkPos pos, GeneratorDatasets datasets, Bounds2d bounds, CornerBoundingBox2d boundsGeo) throws OutOfProjectionBoundsException {
+        if (REGION_SHIFT == 0) { //batching is disabled
+            return this.requestTiles(datasets, bounds).thenApply(tiles -> elementsByChunk(tiles, new Bounds2d[]{ bounds })[0]);
+        }
+
+        ChunkPos regionPos = new ChunkPos(pos.x >> REGION_SHIFT, pos.z >> REGION_SHIFT);
+        PriorityGroup callerGroup = Http.currentGroup();
+        CompletableFuture<VectorGeometry[][]> region = this.regions.get(regionPos, () -> {
+            PriorityGroup group = new PriorityGroup(Http.currentPriority());
+            this.loadingRegions.put(regionPos, group);
+            CompletableFuture<VectorGeometry[][]> future = Http.withGroup(group, () -> {
+                try {
+                    return this.requestRegion(regionPos.x, regionPos.z, datasets);
+                } catch (OutOfProjectionBoundsException e) {
+                    CompletableFuture<VectorGeometry[][]> f = new CompletableFuture<>();
+                    f.completeExceptionally(e);
+                    return f;
+                }
+            });
+            future.whenComplete((v, t) -> this.loadingRegions.remove(regionPos, group));
+            return future;
+        });
+        Http.dependOn(this.loadingRegions.get(regionPos));
+
+        int index = (pos.x & REGION_MASK) << REGION_SHIFT | (pos.z & REGION_MASK);
+        return region.handle((elements, cause) -> {
+            if (cause == null) {
+                return CompletableFuture.completedFuture(elements[index]);
+            }
+
+            //don't keep failed regions around, the next attempt to generate them should try again
+            this.regions.asMap().remove(regionPos, region);
+
+            //the region's tiles may extend outside of the projection's bounds even though this chunk's don't, in which case we fall back to only
+            // requesting the tiles for this chunk
+            if ((cause instanceof CompletionException ? cause.getCause() : cause) instanceof OutOfProjectionBoundsException) {
+                return Http.withGroup(callerGroup, () -> {
+                    try {
+                        return this.requestTiles(datasets, bounds).thenApply(tiles -> elementsByChunk(tiles, new Bounds2d[]{ bounds })[0]);
+                    } catch (OutOfProjectionBoundsException e) {
+                        CompletableFuture<VectorGeometry[]> f = new CompletableFuture<>();
+                        f.completeExceptionally(e);
+                        return f;
+                    }
+                });
+            }
+
+            CompletableFuture<VectorGeometry[]> f = new CompletableFuture<>();
+            f.completeExceptionally(cause);
+            return f;
+        }).thenCompose(Function.identity());
+    }
+
+    protected CompletableFuture<VectorGeometry[][]> requestRegion(int regionX, int regionZ, @NonNull GeneratorDatasets datasets) throws OutOfProjectionBoundsException {
+        Bounds2d[] chunks = new Bounds2d[REGION_SIZE * REGION_SIZE];
+        for (int i = 0, dx = 0; dx < REGION_SIZE; dx++) {
+            for (int dz = 0; dz < REGION_SIZE; dz++, i++) {
+                chunks[i] = chunkBounds((regionX << REGION_SHIFT) + dx, (regionZ << REGION_SHIFT) + dz);
+            }
+        }
+
+        Bounds2d regionBounds = Arrays.stream(chunks).reduce(Bounds2d::union).get();
+        return this.requestTiles(datasets, regionBounds).thenApply(tiles -> elementsByChunk(tiles, chunks));
+    }
+
+    protected CompletableFuture<BVH<VectorGeometry>[]> requestTiles(@NonNull GeneratorDatasets datasets, @NonNull Bounds2d bounds) throws OutOfProjectionBoundsException {
         return datasets.<IElementDataset<BVH<VectorGeometry>>>getCustom(EarthGeneratorPipelines.KEY_DATASET_OSM_PARSED)
                 .getAsync(bounds.expand(16.0d).toCornerBB(datasets.projection(), false).toGeo());
     }
 
     @Override
-    public void bake(ChunkPos pos, CachedChunkData.Builder builder, BVH<VectorGeometry>[] regions) {
-        if (regions == null) { //there's no data in this chunk... we're going to assume it's completely out of bounds
+    public void bake(ChunkPos pos, CachedChunkData.Builder builder, VectorGeometry[] elements) {
+        if (elements == null) { //there's no data in this chunk... we're going to assume it's completely out of bounds
             Arrays.fill(builder.waterDepth(), (byte) (CachedChunkData.WATERDEPTH_TYPE_OCEAN | ~CachedChunkData.WATERDEPTH_TYPE_MASK));
             return;
         }
 
-        int baseX = Coords.cubeToMinBlock(pos.x);
-        int baseZ = Coords.cubeToMinBlock(pos.z);
-        Bounds2d chunkBounds = Bounds2d.of(baseX, baseX + 16, baseZ, baseZ + 16);
-
-        Set<VectorGeometry> elements = new TreeSet<>();
-        for (BVH<VectorGeometry> region : regions) {
-            region.forEachIntersecting(chunkBounds, elements::add);
+        Bounds2d chunkBounds = chunkBounds(pos.x, pos.z);
+        for (VectorGeometry element : elements) {
+            element.apply(builder, pos.x, pos.z, chunkBounds);
         }
-        elements.forEach(element -> element.apply(builder, pos.x, pos.z, chunkBounds));
     }
 }
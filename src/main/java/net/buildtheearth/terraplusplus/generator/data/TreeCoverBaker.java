@@ -1,23 +1,20 @@
 package net.buildtheearth.terraplusplus.generator.data;
 
+import lombok.NonNull;
 import net.buildtheearth.terraplusplus.dataset.IScalarDataset;
 import net.buildtheearth.terraplusplus.generator.CachedChunkData;
 import net.buildtheearth.terraplusplus.generator.EarthGeneratorPipelines;
 import net.buildtheearth.terraplusplus.generator.GeneratorDatasets;
-import net.buildtheearth.terraplusplus.projection.OutOfProjectionBoundsException;
-import net.buildtheearth.terraplusplus.util.CornerBoundingBox2d;
-import net.buildtheearth.terraplusplus.util.bvh.Bounds2d;
 import net.minecraft.util.math.ChunkPos;
 
 import java.util.Arrays;
-import java.util.concurrent.CompletableFuture;
 
 import static net.daporkchop.lib.common.math.PMath.*;
 
 /**
  * @author DaPorkchop_
  */
-public class TreeCoverBaker implements IEarthDataBaker<double[]> {
+public class TreeCoverBaker extends BatchedScalarBaker {
     public static final double TREE_AREA = 2.0d * 2.0d; //the surface area covered by an average tree
 
     public static final byte[] FALLBACK_TREE_DENSITY = new byte[16 * 16];
@@ -44,8 +41,8 @@ public class TreeCoverBaker implements IEarthDataBaker<double[]> {
     }
 
     @Override
-    public CompletableFuture<double[]> requestData(ChunkPos pos, GeneratorDatasets datasets, Bounds2d bounds, CornerBoundingBox2d boundsGeo) throws OutOfProjectionBoundsException {
-        return datasets.<IScalarDataset>getCustom(EarthGeneratorPipelines.KEY_DATASET_TREE_COVER).getAsync(boundsGeo, 16, 16);
+    protected IScalarDataset dataset(@NonNull GeneratorDatasets datasets) {
+        return datasets.getCustom(EarthGeneratorPipelines.KEY_DATASET_TREE_COVER);
     }
 
     @Override
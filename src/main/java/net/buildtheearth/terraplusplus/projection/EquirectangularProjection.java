@@ -1,6 +1,7 @@
 package net.buildtheearth.terraplusplus.projection;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import lombok.NonNull;
 
 /**
  * Implements the equirectangular map projection, which applies no transformation at all.
@@ -34,6 +35,13 @@ public class EquirectangularProjection implements GeographicProjection {
         return new double[]{ longitude, latitude };
     }
 
+    @Override
+    public void fromGeo(@NonNull double[] coords, int offset, int count) throws OutOfProjectionBoundsException {
+        for (int i = offset << 1, end = (offset + count) << 1; i < end; i += 2) {
+            OutOfProjectionBoundsException.checkLongitudeLatitudeInRange(coords[i], coords[i + 1]);
+        }
+    }
+
     /**
      * Gives an estimation of the scale of this projection.
      * This is just an estimation, as distortion is inevitable when projecting a sphere onto a flat surface,
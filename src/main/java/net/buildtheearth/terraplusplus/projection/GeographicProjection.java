@@ -53,6 +53,43 @@ public interface GeographicProjection {
      */
     double[] fromGeo(double longitude, double latitude) throws OutOfProjectionBoundsException;
 
+    /**
+     * Converts multiple points from geographic coordinates to map coordinates in-place.
+     * <p>
+     * The default implementation simply calls {@link #fromGeo(double, double)} for each point. Projections which can avoid allocating a new array
+     * for every point should override it.
+     *
+     * @param coords the points' coordinates, stored as interleaved longitude/latitude pairs. Will be overwritten with the corresponding x/y pairs. If
+     *               an exception is thrown, the contents of the array are undefined.
+     * @param offset the index of the first point in the array
+     * @param count  the number of points to convert
+     * @throws OutOfProjectionBoundsException if any of the points on the geographic space cannot be mapped to a point of the projected space
+     */
+    default void fromGeo(@NonNull double[] coords, int offset, int count) throws OutOfProjectionBoundsException {
+        for (int i = offset << 1, end = (offset + count) << 1; i < end; i += 2) {
+            double[] projected = this.fromGeo(coords[i], coords[i + 1]);
+            coords[i] = projected[0];
+            coords[i + 1] = projected[1];
+        }
+    }
+
+    /**
+     * @return a {@link ProjectionFunction} which converts geographic coordinates to map coordinates, using the bulk conversion path for multiple points
+     */
+    default ProjectionFunction fromGeoFunction() {
+        return new ProjectionFunction() {
+            @Override
+            public double[] project(double lon_x, double lat_y) throws OutOfProjectionBoundsException {
+                return GeographicProjection.this.fromGeo(lon_x, lat_y);
+            }
+
+            @Override
+            public void project(@NonNull double[] coords, int offset, int count) throws OutOfProjectionBoundsException {
+                GeographicProjection.this.fromGeo(coords, offset, count);
+            }
+        };
+    }
+
     /**
      * Gives an estimation of the scale of this projection.
      * This is just an estimation, as distortion is inevitable when projecting a sphere onto a flat surface,
@@ -1,5 +1,7 @@
 package net.buildtheearth.terraplusplus.projection;
 
+import lombok.NonNull;
+
 /**
  * A function that can apply a projection to a pair of lon/lat or x/y coordinates.
  *
@@ -8,4 +10,21 @@ package net.buildtheearth.terraplusplus.projection;
 @FunctionalInterface
 public interface ProjectionFunction {
     double[] project(double lon_x, double lat_y) throws OutOfProjectionBoundsException;
+
+    /**
+     * Projects multiple points in-place.
+     * <p>
+     * The default implementation simply calls {@link #project(double, double)} for each point.
+     *
+     * @param coords the points' coordinates, stored as interleaved lon/lat or x/y pairs
+     * @param offset the index of the first point in the array
+     * @param count  the number of points to project
+     */
+    default void project(@NonNull double[] coords, int offset, int count) throws OutOfProjectionBoundsException {
+        for (int i = offset << 1, end = (offset + count) << 1; i < end; i += 2) {
+            double[] projected = this.project(coords[i], coords[i + 1]);
+            coords[i] = projected[0];
+            coords[i + 1] = projected[1];
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package net.buildtheearth.terraplusplus.projection.dymaxion;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import lombok.NonNull;
 import net.buildtheearth.terraplusplus.projection.OutOfProjectionBoundsException;
 import net.buildtheearth.terraplusplus.util.MathUtils;
 
@@ -30,8 +31,27 @@ public class BTEDymaxionProjection extends ConformalDynmaxionProjection {
     @Override
     public double[] fromGeo(double longitude, double latitude) throws OutOfProjectionBoundsException {
         double[] c = super.fromGeo(longitude, latitude);
-        double x = c[0];
-        double y = c[1];
+        this.rearrange(c, 0);
+        return c;
+    }
+
+    @Override
+    public void fromGeo(@NonNull double[] coords, int offset, int count) throws OutOfProjectionBoundsException {
+        super.fromGeo(coords, offset, count);
+        for (int i = offset << 1, end = (offset + count) << 1; i < end; i += 2) {
+            this.rearrange(coords, i);
+        }
+    }
+
+    /**
+     * Moves a point from the regular dymaxion layout to the BTE layout in-place.
+     *
+     * @param c the array containing the point
+     * @param i the index of the point's x coordinate in the array
+     */
+    protected void rearrange(double[] c, int i) {
+        double x = c[i];
+        double y = c[i + 1];
 
         boolean easia = this.isEurasianPart(x, y);
 
@@ -48,9 +68,8 @@ public class BTEDymaxionProjection extends ConformalDynmaxionProjection {
             x -= ARC;
         }
 
-        c[0] = y;
-        c[1] = -x;
-        return c;
+        c[i] = y;
+        c[i + 1] = -x;
     }
 
     @Override
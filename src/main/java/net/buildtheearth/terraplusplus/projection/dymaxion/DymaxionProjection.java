@@ -1,6 +1,7 @@
 package net.buildtheearth.terraplusplus.projection.dymaxion;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import lombok.NonNull;
 import net.buildtheearth.terraplusplus.projection.GeographicProjection;
 import net.buildtheearth.terraplusplus.projection.OutOfProjectionBoundsException;
 import net.buildtheearth.terraplusplus.util.MathUtils;
@@ -345,15 +346,49 @@ public class DymaxionProjection implements GeographicProjection {
 
     @Override
     public double[] fromGeo(double longitude, double latitude) throws OutOfProjectionBoundsException {
-    	
-    	OutOfProjectionBoundsException.checkLongitudeLatitudeInRange(longitude, latitude);
+        return this.fromGeo(longitude, latitude, new double[3], new double[3]);
+    }
 
-        double[] vector = MathUtils.spherical2Cartesian(MathUtils.geo2Spherical(new double[]{ longitude, latitude }));
+    @Override
+    public void fromGeo(@NonNull double[] coords, int offset, int count) throws OutOfProjectionBoundsException {
+        //the intermediate vectors can be re-used for every point
+        double[] vector = new double[3];
+        double[] pvec = new double[3];
+        for (int i = offset << 1, end = (offset + count) << 1; i < end; i += 2) {
+            double[] projectedVec = this.fromGeo(coords[i], coords[i + 1], vector, pvec);
+            coords[i] = projectedVec[0];
+            coords[i + 1] = projectedVec[1];
+        }
+    }
+
+    /**
+     * Converts geographic coordinates to map coordinates, storing intermediate results in the given arrays.
+     *
+     * @param vector a scratch array of length 3
+     * @param pvec   a scratch array of length 3
+     * @see #fromGeo(double, double)
+     */
+    protected double[] fromGeo(double longitude, double latitude, @NonNull double[] vector, @NonNull double[] pvec) throws OutOfProjectionBoundsException {
+        OutOfProjectionBoundsException.checkLongitudeLatitudeInRange(longitude, latitude);
+
+        //same as MathUtils.spherical2Cartesian(MathUtils.geo2Spherical(new double[]{ longitude, latitude }))
+        double lambda = Math.toRadians(longitude);
+        double phi = Math.toRadians(90 - latitude);
+        double sinphi = Math.sin(phi);
+        vector[0] = sinphi * Math.cos(lambda);
+        vector[1] = sinphi * Math.sin(lambda);
+        vector[2] = Math.cos(phi);
 
         int face = this.findTriangle(vector);
 
-        //apply rotation matrix (move triangle onto template triangle)
-        double[] pvec = MathUtils.matVecProdD(ROTATION_MATRICES[face], vector);
+        //apply rotation matrix (move triangle onto template triangle), same as MathUtils.matVecProdD(ROTATION_MATRICES[face], vector)
+        double[][] matrix = ROTATION_MATRICES[face];
+        for (int i = 0; i < 3; i++) {
+            pvec[i] = 0.0d;
+            for (int j = 0; j < 3; j++) {
+                pvec[i] += matrix[i][j] * vector[j];
+            }
+        }
         double[] projectedVec = this.triangleTransform(pvec);
 
         //flip triangle to correct orientation
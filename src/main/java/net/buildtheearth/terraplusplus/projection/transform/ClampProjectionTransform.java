@@ -6,6 +6,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.google.common.base.Preconditions;
 import lombok.Getter;
+import lombok.NonNull;
 import net.buildtheearth.terraplusplus.projection.GeographicProjection;
 import net.buildtheearth.terraplusplus.projection.OutOfProjectionBoundsException;
 
@@ -62,6 +63,16 @@ public class ClampProjectionTransform extends ProjectionTransform {
         return pos;
     }
 
+    @Override
+    public void fromGeo(@NonNull double[] coords, int offset, int count) throws OutOfProjectionBoundsException {
+        super.delegate.fromGeo(coords, offset, count);
+        for (int i = offset << 1, end = (offset + count) << 1; i < end; i += 2) {
+            if (coords[i] < this.minX || coords[i] > this.maxX || coords[i + 1] < this.minY || coords[i + 1] > this.maxY) {
+                throw OutOfProjectionBoundsException.get();
+            }
+        }
+    }
+
     @Override
     public String toString() {
         return "Clamp (" + super.delegate + ") to " + Arrays.toString(this.bounds());
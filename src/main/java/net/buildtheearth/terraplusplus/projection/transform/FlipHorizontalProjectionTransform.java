@@ -3,6 +3,7 @@ package net.buildtheearth.terraplusplus.projection.transform;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import lombok.NonNull;
 import net.buildtheearth.terraplusplus.projection.GeographicProjection;
 import net.buildtheearth.terraplusplus.projection.OutOfProjectionBoundsException;
 
@@ -33,6 +34,14 @@ public class FlipHorizontalProjectionTransform extends ProjectionTransform {
         return p;
     }
 
+    @Override
+    public void fromGeo(@NonNull double[] coords, int offset, int count) throws OutOfProjectionBoundsException {
+        this.delegate.fromGeo(coords, offset, count);
+        for (int i = offset << 1, end = (offset + count) << 1; i < end; i += 2) {
+            coords[i] = -coords[i];
+        }
+    }
+
     @Override
     public boolean upright() {
         return !this.delegate.upright();
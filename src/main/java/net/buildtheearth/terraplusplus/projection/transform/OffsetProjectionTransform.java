@@ -6,6 +6,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.google.common.base.Preconditions;
 import lombok.Getter;
+import lombok.NonNull;
 import net.buildtheearth.terraplusplus.projection.GeographicProjection;
 import net.buildtheearth.terraplusplus.projection.OutOfProjectionBoundsException;
 
@@ -58,6 +59,15 @@ public class OffsetProjectionTransform extends ProjectionTransform {
         return pos;
     }
 
+    @Override
+    public void fromGeo(@NonNull double[] coords, int offset, int count) throws OutOfProjectionBoundsException {
+        this.delegate.fromGeo(coords, offset, count);
+        for (int i = offset << 1, end = (offset + count) << 1; i < end; i += 2) {
+            coords[i] += this.dx;
+            coords[i + 1] += this.dy;
+        }
+    }
+
     @Override
     public String toString() {
         return "Offset (" + super.delegate + ") by " + this.dx + ", " + this.dy;
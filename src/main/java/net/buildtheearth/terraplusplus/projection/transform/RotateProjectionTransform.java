@@ -6,6 +6,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.google.common.base.Preconditions;
 import lombok.Getter;
+import lombok.NonNull;
 import net.buildtheearth.terraplusplus.projection.GeographicProjection;
 import net.buildtheearth.terraplusplus.projection.OutOfProjectionBoundsException;
 
@@ -81,6 +82,17 @@ public class RotateProjectionTransform extends ProjectionTransform {
         };
     }
 
+    @Override
+    public void fromGeo(@NonNull double[] coords, int offset, int count) throws OutOfProjectionBoundsException {
+        super.delegate.fromGeo(coords, offset, count);
+        for (int i = offset << 1, end = (offset + count) << 1; i < end; i += 2) {
+            double x = coords[i];
+            double y = coords[i + 1];
+            coords[i] = x * this.cosBackwards - y * this.sinBackwards;
+            coords[i + 1] = x * this.sinBackwards + y * this.cosBackwards;
+        }
+    }
+
     @Override
     public String toString() {
         return "Rotate (" + super.delegate + ") by " + this.by + " degrees";
@@ -3,6 +3,7 @@ package net.buildtheearth.terraplusplus.projection.transform;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import lombok.NonNull;
 import net.buildtheearth.terraplusplus.projection.GeographicProjection;
 import net.buildtheearth.terraplusplus.projection.OutOfProjectionBoundsException;
 
@@ -35,6 +36,16 @@ public class SwapAxesProjectionTransform extends ProjectionTransform {
         return p;
     }
 
+    @Override
+    public void fromGeo(@NonNull double[] coords, int offset, int count) throws OutOfProjectionBoundsException {
+        this.delegate.fromGeo(coords, offset, count);
+        for (int i = offset << 1, end = (offset + count) << 1; i < end; i += 2) {
+            double t = coords[i];
+            coords[i] = coords[i + 1];
+            coords[i + 1] = t;
+        }
+    }
+
     @Override
     public double[] bounds() {
         double[] b = this.delegate.bounds();
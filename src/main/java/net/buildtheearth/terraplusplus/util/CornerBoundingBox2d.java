@@ -49,6 +49,15 @@ public class CornerBoundingBox2d implements Bounds2d {
     }
 
     public CornerBoundingBox2d(@NonNull double[] point00, @NonNull double[] point01, @NonNull double[] point10, @NonNull double[] point11, @NonNull GeographicProjection proj, boolean geo) throws OutOfProjectionBoundsException {
+        this(point00, point01, point10, point11, proj, geo, true);
+    }
+
+    /**
+     * @param validate whether or not to {@link #validate()} the corners. this may only be {@code false} if the caller has already checked that every
+     *                 corner is within valid projection bounds, e.g. because it projected a whole grid of corners at once, where each corner is shared
+     *                 by up to four bounding boxes and would otherwise be validated again for each of them
+     */
+    public CornerBoundingBox2d(@NonNull double[] point00, @NonNull double[] point01, @NonNull double[] point10, @NonNull double[] point11, @NonNull GeographicProjection proj, boolean geo, boolean validate) throws OutOfProjectionBoundsException {
         this.lon00 = point00[0];
         this.lat00 = point00[1];
         this.lon01 = point01[0];
@@ -60,7 +69,9 @@ public class CornerBoundingBox2d implements Bounds2d {
         this.proj = proj;
         this.geo = geo;
 
-        this.validate();
+        if (validate) {
+            this.validate();
+        }
     }
 
     /**
@@ -0,0 +1,69 @@
+package net.buildtheearth.terraplusplus.util;
+
+import io.netty.buffer.ByteBuf;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Helper methods for the variable-length integer encoding used by the binary cache formats.
+ * <p>
+ * Values are stored 7 bits at a time, least significant group first, with the high bit of each byte set if more bytes follow. Signed values should
+ * be {@link #zigzag(long) zigzag-encoded} first, so that small negative values are stored as compactly as small positive ones.
+ *
+ * @author DaPorkchop_
+ */
+@UtilityClass
+public class VarInts {
+    /**
+     * Writes a variable-length integer to the given {@link ByteBuf}.
+     *
+     * @param buf   the {@link ByteBuf} to write to
+     * @param value the value to write, treated as unsigned
+     */
+    public void writeVarLong(@NonNull ByteBuf buf, long value) {
+        while ((value & ~0x7FL) != 0L) {
+            buf.writeByte((int) (value & 0x7FL) | 0x80);
+            value >>>= 7L;
+        }
+        buf.writeByte((int) value);
+    }
+
+    /**
+     * Reads a variable-length integer from the given {@link ByteBuf}.
+     *
+     * @param buf the {@link ByteBuf} to read from
+     * @return the value
+     * @throws IllegalArgumentException if the value is longer than 64 bits
+     */
+    public long readVarLong(@NonNull ByteBuf buf) {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = buf.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("varint is too long");
+    }
+
+    /**
+     * Maps a signed value to an unsigned one, such that values close to zero are mapped to small values.
+     *
+     * @param value the signed value
+     * @return the zigzag-encoded value
+     */
+    public long zigzag(long value) {
+        return (value << 1L) ^ (value >> 63L);
+    }
+
+    /**
+     * Reverses {@link #zigzag(long)}.
+     *
+     * @param value the zigzag-encoded value
+     * @return the signed value
+     */
+    public long unzigzag(long value) {
+        return (value >>> 1L) ^ -(value & 1L);
+    }
+}
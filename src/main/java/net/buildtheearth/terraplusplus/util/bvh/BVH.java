@@ -8,18 +8,28 @@ import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
- * A simple, immutable, quadtree-based implementation of a BVH (Bounding Volume Hierarchy) on arbitrary values implementing {@link Bounds2d}.
+ * A simple, immutable BVH (Bounding Volume Hierarchy) on arbitrary values implementing {@link Bounds2d}.
+ * <p>
+ * By default, values are stored in an STR-packed R-tree. The older quadtree-based implementation may be used instead by setting the system
+ * property {@code terraplusplus.bvh} to {@code quadtree}.
  *
  * @author DaPorkchop_
  */
 public interface BVH<V extends Bounds2d> extends Bounds2d, Iterable<V> {
+    /**
+     * Whether or not {@link #of(Bounds2d[])} should build a quadtree rather than an STR-packed R-tree.
+     */
+    boolean USE_QUADTREE = "quadtree".equals(System.getProperty("terraplusplus.bvh", "rtree"));
+
     static <V extends Bounds2d> BVH<V> of(@NonNull V[] values) {
         if (values.length == 0) {
             return EmptyBVH.get();
         } else if (values.length == 1) {
             return new SingletonBVH<>(values[0]);
-        } else {
+        } else if (USE_QUADTREE) {
             return new QuadtreeBVH<>(values);
+        } else {
+            return new RTreeBVH<>(values);
         }
     }
 
@@ -44,8 +54,39 @@ public interface BVH<V extends Bounds2d> extends Bounds2d, Iterable<V> {
      */
     void forEachIntersecting(@NonNull Bounds2d bb, @NonNull Consumer<V> callback);
 
+    /**
+     * Runs the given function on every value that intersects with any of the given bounding boxes.
+     * <p>
+     * This is equivalent to calling {@link #forEachIntersecting(Bounds2d, Consumer)} once for each bounding box, but implementations may
+     * answer all of the queries in a single traversal, which is considerably faster when many nearby boxes (such as a grid of chunks) are queried at
+     * once. The callback may be invoked in any order.
+     *
+     * @param queries  the bounding boxes that values must intersect with
+     * @param callback the callback function to run, which is given the index of the bounding box and a value which intersects it
+     */
+    default void forEachIntersecting(@NonNull Bounds2d[] queries, @NonNull BatchCallback<V> callback) {
+        for (int i = 0; i < queries.length; i++) {
+            int queryIndex = i;
+            this.forEachIntersecting(queries[i], value -> callback.accept(queryIndex, value));
+        }
+    }
+
     /**
      * @see Collection#stream()
      */
     Stream<V> stream();
+
+    /**
+     * Callback function for {@link #forEachIntersecting(Bounds2d[], BatchCallback)}.
+     *
+     * @author DaPorkchop_
+     */
+    @FunctionalInterface
+    interface BatchCallback<V> {
+        /**
+         * @param queryIndex the index of the bounding box which the value intersects
+         * @param value      the value
+         */
+        void accept(int queryIndex, V value);
+    }
 }
@@ -42,6 +42,11 @@ final class EmptyBVH<V extends Bounds2d> implements BVH<V> {
         //no-op
     }
 
+    @Override
+    public void forEachIntersecting(@NonNull Bounds2d[] queries, @NonNull BatchCallback<V> callback) {
+        //no-op
+    }
+
     @Override
     public Stream<V> stream() {
         return Stream.empty();
@@ -0,0 +1,379 @@
+package net.buildtheearth.terraplusplus.util.bvh;
+
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static java.lang.Math.*;
+import static net.daporkchop.lib.common.util.PValidation.*;
+
+/**
+ * Implementation of {@link BVH} as an immutable R-tree, bulk-loaded using the Sort-Tile-Recursive (STR) algorithm.
+ * <p>
+ * Nodes are stored in flat arrays rather than as individual objects: each node's bounding box is stored in {@link #bounds}, and its children are
+ * a contiguous range of either nodes (for inner nodes) or values (for leaf nodes).
+ *
+ * @author DaPorkchop_
+ */
+final class RTreeBVH<V extends Bounds2d> implements BVH<V> {
+    /**
+     * The maximum number of children of a single node.
+     */
+    protected static final int NODE_CAPACITY;
+
+    static {
+        //with fewer than 2 children per node, packing a level would never reduce the number of nodes
+        int capacity = Integer.parseUnsignedInt(System.getProperty("terraplusplus.rtree_node_capacity", "16"));
+        checkArg(capacity >= 2, "terraplusplus.rtree_node_capacity must be at least 2 (given: %d)", capacity);
+        NODE_CAPACITY = capacity;
+    }
+
+    protected final V[] values;
+
+    protected final double[] bounds; //minX, maxX, minZ, maxZ for each node
+    protected final int[] children; //index of the first child, number of children for each node
+    protected final int leafCount; //nodes with an index less than this are leaves, whose children are values rather than nodes
+    protected final int root;
+    protected final int height; //the number of levels in the tree
+
+    public RTreeBVH(@NonNull V[] values) {
+        int count = values.length;
+        DoubleArrayList bounds = new DoubleArrayList();
+        IntArrayList children = new IntArrayList();
+
+        //build leaf level by packing the values themselves
+        double[] entryBounds = new double[count << 2];
+        for (int i = 0; i < count; i++) {
+            V value = values[i];
+            entryBounds[(i << 2) + 0] = value.minX();
+            entryBounds[(i << 2) + 1] = value.maxX();
+            entryBounds[(i << 2) + 2] = value.minZ();
+            entryBounds[(i << 2) + 3] = value.maxZ();
+        }
+
+        int[] order = sortTileRecursive(entryBounds, count);
+        this.values = Arrays.copyOf(values, count);
+        for (int i = 0; i < count; i++) {
+            this.values[i] = values[order[i]];
+        }
+        int levelStart = 0;
+        int levelEnd = pack(permute(entryBounds, order, count), count, 0, bounds, children);
+        this.leafCount = levelEnd;
+        int height = 1;
+
+        //build inner levels by packing the nodes of the level below until only a single node is left
+        while (levelEnd - levelStart > 1) {
+            count = levelEnd - levelStart;
+            entryBounds = Arrays.copyOfRange(bounds.elements(), levelStart << 2, levelEnd << 2);
+            order = sortTileRecursive(entryBounds, count);
+
+            //re-order the nodes in the level below to match the packed order, so that the children of each new node are contiguous
+            entryBounds = permute(entryBounds, order, count);
+            System.arraycopy(entryBounds, 0, bounds.elements(), levelStart << 2, count << 2);
+            int[] levelChildren = Arrays.copyOfRange(children.elements(), levelStart << 1, levelEnd << 1);
+            for (int i = 0; i < count; i++) {
+                children.set((levelStart + i) << 1, levelChildren[order[i] << 1]);
+                children.set(((levelStart + i) << 1) + 1, levelChildren[(order[i] << 1) + 1]);
+            }
+
+            int nextEnd = pack(entryBounds, count, levelStart, bounds, children);
+            levelStart = levelEnd;
+            levelEnd = nextEnd;
+            height++;
+        }
+
+        this.bounds = bounds.toDoubleArray();
+        this.children = children.toIntArray();
+        this.root = levelStart;
+        this.height = height;
+    }
+
+    /**
+     * Orders the given entries using the Sort-Tile-Recursive algorithm, such that every run of {@link #NODE_CAPACITY} consecutive entries (see
+     * {@link #pack(double[], int, int, DoubleArrayList, IntArrayList)}) is spatially close together.
+     *
+     * @param entryBounds the bounding boxes of the entries
+     * @param count       the number of entries
+     * @return the indices of the entries, in packed order
+     */
+    protected static int[] sortTileRecursive(double[] entryBounds, int count) {
+        long[] keys = new long[count];
+
+        //sort by center X coordinate, then split into vertical slices and sort each slice by center Z coordinate
+        for (int i = 0; i < count; i++) {
+            keys[i] = sortKey(entryBounds[(i << 2) + 0] + entryBounds[(i << 2) + 1], i);
+        }
+        Arrays.sort(keys);
+
+        int nodeCount = (count + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        int sliceSize = (int) ceil(sqrt(nodeCount)) * NODE_CAPACITY;
+        for (int i = 0; i < count; i++) {
+            int index = (int) keys[i];
+            keys[i] = sortKey(entryBounds[(index << 2) + 2] + entryBounds[(index << 2) + 3], index);
+        }
+        for (int sliceStart = 0; sliceStart < count; sliceStart += sliceSize) {
+            Arrays.sort(keys, sliceStart, min(sliceStart + sliceSize, count));
+        }
+
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    /**
+     * Packs a coordinate and an entry index into a single {@code long} which can be sorted by coordinate using a plain numeric sort.
+     * <p>
+     * The coordinate is truncated to single precision, which only affects the quality of the resulting tree, not its correctness.
+     */
+    protected static long sortKey(double coordinate, int index) {
+        int bits = Float.floatToIntBits((float) coordinate);
+        bits ^= (bits >> 31) & 0x7FFFFFFF; //flip the magnitude bits of negative values so that they're ordered correctly as signed integers
+        return ((long) bits << 32) | (index & 0xFFFFFFFFL);
+    }
+
+    protected static double[] permute(double[] entryBounds, int[] order, int count) {
+        double[] result = new double[count << 2];
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(entryBounds, order[i] << 2, result, i << 2, 4);
+        }
+        return result;
+    }
+
+    /**
+     * Groups runs of {@link #NODE_CAPACITY} consecutive entries into new nodes.
+     *
+     * @param entryBounds the bounding boxes of the entries, in packed order
+     * @param count       the number of entries
+     * @param firstEntry  the index of the first entry
+     * @param bounds      the node bounds to append to
+     * @param children    the node children to append to
+     * @return the index of the last new node, plus one
+     */
+    protected static int pack(double[] entryBounds, int count, int firstEntry, DoubleArrayList bounds, IntArrayList children) {
+        for (int start = 0; start < count; start += NODE_CAPACITY) {
+            int end = min(start + NODE_CAPACITY, count);
+
+            double minX = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double minZ = Double.POSITIVE_INFINITY;
+            double maxZ = Double.NEGATIVE_INFINITY;
+            for (int i = start; i < end; i++) {
+                minX = min(minX, entryBounds[(i << 2) + 0]);
+                maxX = max(maxX, entryBounds[(i << 2) + 1]);
+                minZ = min(minZ, entryBounds[(i << 2) + 2]);
+                maxZ = max(maxZ, entryBounds[(i << 2) + 3]);
+            }
+
+            bounds.add(minX);
+            bounds.add(maxX);
+            bounds.add(minZ);
+            bounds.add(maxZ);
+            children.add(firstEntry + start);
+            children.add(end - start);
+        }
+        return children.size() >> 1;
+    }
+
+    protected boolean intersects(int node, double minX, double maxX, double minZ, double maxZ) {
+        int i = node << 2;
+        return this.bounds[i + 0] <= maxX && this.bounds[i + 1] >= minX && this.bounds[i + 2] <= maxZ && this.bounds[i + 3] >= minZ;
+    }
+
+    protected boolean containedBy(int node, double minX, double maxX, double minZ, double maxZ) {
+        int i = node << 2;
+        return minX <= this.bounds[i + 0] && maxX >= this.bounds[i + 1] && minZ <= this.bounds[i + 2] && maxZ >= this.bounds[i + 3];
+    }
+
+    @Override
+    public int size() {
+        return this.values.length;
+    }
+
+    @Override
+    public List<V> getAllIntersecting(@NonNull Bounds2d bb) {
+        List<V> result = new ArrayList<>();
+        this.forEachIntersecting(bb, result::add);
+        return result;
+    }
+
+    @Override
+    public void forEachIntersecting(@NonNull Bounds2d bb, @NonNull Consumer<V> callback) {
+        double minX = bb.minX();
+        double maxX = bb.maxX();
+        double minZ = bb.minZ();
+        double maxZ = bb.maxZ();
+        if (this.intersects(this.root, minX, maxX, minZ, maxZ)) {
+            this.forEachIntersecting(this.root, minX, maxX, minZ, maxZ, callback);
+        }
+    }
+
+    protected void forEachIntersecting(int node, double minX, double maxX, double minZ, double maxZ, Consumer<V> callback) { //we assume that the node intersects the query box
+        int first = this.children[node << 1];
+        int last = first + this.children[(node << 1) + 1];
+
+        if (this.containedBy(node, minX, maxX, minZ, maxZ)) { //the query box contains this entire node, therefore all of its values intersect it
+            this.forEachValue(node, callback);
+        } else if (node < this.leafCount) {
+            for (int i = first; i < last; i++) {
+                V value = this.values[i];
+                if (value.minX() <= maxX && value.maxX() >= minX && value.minZ() <= maxZ && value.maxZ() >= minZ) {
+                    callback.accept(value);
+                }
+            }
+        } else {
+            for (int child = first; child < last; child++) {
+                if (this.intersects(child, minX, maxX, minZ, maxZ)) {
+                    this.forEachIntersecting(child, minX, maxX, minZ, maxZ, callback);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void forEachIntersecting(@NonNull Bounds2d[] queries, @NonNull BatchCallback<V> callback) {
+        int count = queries.length;
+        double[] queryBounds = new double[count << 2];
+        for (int i = 0; i < count; i++) {
+            Bounds2d query = queries[i];
+            queryBounds[(i << 2) + 0] = query.minX();
+            queryBounds[(i << 2) + 1] = query.maxX();
+            queryBounds[(i << 2) + 2] = query.minZ();
+            queryBounds[(i << 2) + 3] = query.maxZ();
+        }
+
+        //the indices of the queries which intersect the current node, stored as one slice of the array per tree level so that the traversal
+        //  doesn't need to allocate anything
+        int[] active = new int[count * this.height];
+        int activeCount = this.filterQueries(this.root, queryBounds, null, 0, count, active, 0);
+        if (activeCount > 0) {
+            this.forEachIntersecting(this.root, queryBounds, active, 0, activeCount, count, callback);
+        }
+    }
+
+    protected void forEachIntersecting(int node, double[] queryBounds, int[] active, int offset, int activeCount, int stride, BatchCallback<V> callback) {
+        int first = this.children[node << 1];
+        int last = first + this.children[(node << 1) + 1];
+
+        if (node < this.leafCount) {
+            for (int i = first; i < last; i++) {
+                V value = this.values[i];
+                double minX = value.minX();
+                double maxX = value.maxX();
+                double minZ = value.minZ();
+                double maxZ = value.maxZ();
+
+                for (int j = offset, end = offset + activeCount; j < end; j++) {
+                    int query = active[j];
+                    int q = query << 2;
+                    if (minX <= queryBounds[q + 1] && maxX >= queryBounds[q + 0] && minZ <= queryBounds[q + 3] && maxZ >= queryBounds[q + 2]) {
+                        callback.accept(query, value);
+                    }
+                }
+            }
+        } else {
+            for (int child = first; child < last; child++) {
+                int childActiveCount = this.filterQueries(child, queryBounds, active, offset, activeCount, active, offset + stride);
+                if (childActiveCount > 0) {
+                    this.forEachIntersecting(child, queryBounds, active, offset + stride, childActiveCount, stride, callback);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the indices of all the queries which intersect the given node.
+     *
+     * @param node        the node
+     * @param queryBounds the bounding boxes of all queries
+     * @param src         the array containing the indices of the queries to test. If {@code null}, all queries in the range [0, count) are tested
+     * @param srcOffset   the offset in {@code src} of the first query index
+     * @param count       the number of query indices in {@code src}
+     * @param dst         the array to copy the indices of the intersecting queries to
+     * @param dstOffset   the offset in {@code dst} to copy the indices to
+     * @return the number of intersecting queries
+     */
+    protected int filterQueries(int node, double[] queryBounds, int[] src, int srcOffset, int count, int[] dst, int dstOffset) {
+        int n = node << 2;
+        double minX = this.bounds[n + 0];
+        double maxX = this.bounds[n + 1];
+        double minZ = this.bounds[n + 2];
+        double maxZ = this.bounds[n + 3];
+
+        int result = 0;
+        for (int i = 0; i < count; i++) {
+            int query = src != null ? src[srcOffset + i] : i;
+            int q = query << 2;
+            if (minX <= queryBounds[q + 1] && maxX >= queryBounds[q + 0] && minZ <= queryBounds[q + 3] && maxZ >= queryBounds[q + 2]) {
+                dst[dstOffset + result++] = query;
+            }
+        }
+        return result;
+    }
+
+    protected void forEachValue(int node, Consumer<V> callback) {
+        int first = this.children[node << 1];
+        int last = first + this.children[(node << 1) + 1];
+
+        if (node < this.leafCount) {
+            for (int i = first; i < last; i++) {
+                callback.accept(this.values[i]);
+            }
+        } else {
+            for (int child = first; child < last; child++) {
+                this.forEachValue(child, callback);
+            }
+        }
+    }
+
+    @Override
+    public void forEach(@NonNull Consumer<? super V> callback) {
+        for (V value : this.values) {
+            callback.accept(value);
+        }
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return Arrays.asList(this.values).iterator();
+    }
+
+    @Override
+    public Spliterator<V> spliterator() {
+        return Arrays.spliterator(this.values);
+    }
+
+    @Override
+    public Stream<V> stream() {
+        return Arrays.stream(this.values);
+    }
+
+    @Override
+    public double minX() {
+        return this.bounds[(this.root << 2) + 0];
+    }
+
+    @Override
+    public double maxX() {
+        return this.bounds[(this.root << 2) + 1];
+    }
+
+    @Override
+    public double minZ() {
+        return this.bounds[(this.root << 2) + 2];
+    }
+
+    @Override
+    public double maxZ() {
+        return this.bounds[(this.root << 2) + 3];
+    }
+}
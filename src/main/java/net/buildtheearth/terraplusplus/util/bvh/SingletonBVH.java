@@ -39,6 +39,15 @@ final class SingletonBVH<V extends Bounds2d> implements BVH<V> {
         }
     }
 
+    @Override
+    public void forEachIntersecting(@NonNull Bounds2d[] queries, @NonNull BatchCallback<V> callback) {
+        for (int i = 0; i < queries.length; i++) {
+            if (queries[i].intersects(this.value)) {
+                callback.accept(i, this.value);
+            }
+        }
+    }
+
     @Override
     public Stream<V> stream() {
         return Stream.of(this.value);
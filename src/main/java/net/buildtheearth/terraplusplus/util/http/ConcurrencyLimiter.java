@@ -0,0 +1,85 @@
+package net.buildtheearth.terraplusplus.util.http;
+
+import static net.daporkchop.lib.common.util.PValidation.*;
+
+/**
+ * Adaptively limits the number of concurrent requests to a single host.
+ * <p>
+ * The limit is increased additively as long as the response latency remains close to the lowest latency observed so far, and decreased additively
+ * once it starts rising, which indicates that requests have begun queueing up on the server. Timeouts and responses indicating that the server is
+ * overloaded ({@code 429 Too Many Requests} and {@code 5xx}) cause the limit to be decreased multiplicatively.
+ * <p>
+ * Until the first sign of congestion, the limit grows by one for every successful request ("slow start"), so that fast hosts reach their full
+ * throughput quickly.
+ * <p>
+ * This class is not thread-safe, all access must be confined to the network thread.
+ *
+ * @author DaPorkchop_
+ */
+final class ConcurrencyLimiter {
+    private static final double INITIAL_LIMIT = 2.0d;
+    private static final double BACKOFF_RATIO = 0.5d;
+    private static final double LATENCY_TOLERANCE = 2.0d; //the latency may rise to this multiple of the minimum latency before the limit stops growing
+    private static final double LATENCY_SMOOTHING = 0.1d;
+    private static final double MIN_LATENCY_DRIFT = 1.001d; //allows the minimum latency to slowly recover if the route to the host changes
+
+    private double limit = INITIAL_LIMIT;
+    private int ceiling = 1;
+    private boolean slowStart = true;
+
+    private double smoothedLatency = Double.NaN;
+    private double minLatency = Double.POSITIVE_INFINITY;
+    private long lastBackoffTime;
+    private boolean backedOff;
+
+    /**
+     * @return the current maximum number of concurrent requests
+     */
+    public int limit() {
+        return Math.max(Math.min((int) this.limit, this.ceiling), 1);
+    }
+
+    /**
+     * Sets the maximum value that the limit may grow to.
+     *
+     * @param ceiling the new ceiling
+     */
+    public void ceiling(int ceiling) {
+        this.ceiling = positive(ceiling, "ceiling");
+        this.limit = Math.min(this.limit, ceiling);
+    }
+
+    /**
+     * Notifies this limiter that a request completed successfully.
+     *
+     * @param latency the time between the request being sent and the response being received, in nanoseconds
+     */
+    public void onSuccess(long latency) {
+        this.smoothedLatency = Double.isNaN(this.smoothedLatency) ? latency : this.smoothedLatency + (latency - this.smoothedLatency) * LATENCY_SMOOTHING;
+        this.minLatency = Math.min(latency, this.minLatency * MIN_LATENCY_DRIFT);
+
+        if (this.smoothedLatency <= this.minLatency * LATENCY_TOLERANCE) { //latency is stable, the host can probably handle more requests
+            this.limit = Math.min(this.limit + (this.slowStart ? 1.0d : 1.0d / this.limit), this.ceiling);
+        } else { //latency is rising, requests are probably being queued on the server
+            this.slowStart = false;
+            this.limit = Math.max(this.limit - 1.0d / this.limit, 1.0d);
+        }
+    }
+
+    /**
+     * Notifies this limiter that a request timed out, or that the host indicated that it's overloaded.
+     *
+     * @param now the current time (as given by {@link System#nanoTime()})
+     */
+    public void onDrop(long now) {
+        this.slowStart = false;
+
+        //only back off once per round trip, since all requests which were in flight at the time of the drop are likely to be dropped as well
+        if (this.backedOff && now - this.lastBackoffTime < this.smoothedLatency) {
+            return;
+        }
+        this.backedOff = true;
+        this.lastBackoffTime = now;
+        this.limit = Math.max(this.limit * BACKOFF_RATIO, 1.0d);
+    }
+}
@@ -2,38 +2,33 @@ package net.buildtheearth.terraplusplus.util.http;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
-import io.netty.channel.DefaultEventLoop;
-import io.netty.channel.EventLoop;
+import io.netty.buffer.Unpooled;
 import io.netty.util.ReferenceCountUtil;
 import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
 import lombok.experimental.UtilityClass;
 import net.buildtheearth.terraplusplus.TerraConfig;
 import net.buildtheearth.terraplusplus.TerraMod;
-import net.daporkchop.lib.binary.netty.PUnpooled;
 import net.daporkchop.lib.common.function.io.IOConsumer;
-import net.daporkchop.lib.common.function.io.IOPredicate;
-import net.daporkchop.lib.common.function.io.IORunnable;
 import net.daporkchop.lib.common.misc.file.PFiles;
 import net.daporkchop.lib.common.misc.threadfactory.PThreadFactories;
 import net.minecraft.client.Minecraft;
 import net.minecraftforge.fml.common.FMLCommonHandler;
-import org.apache.commons.codec.binary.Hex;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.FileTime;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Stream;
 
 import static net.daporkchop.lib.common.util.PValidation.*;
@@ -45,11 +40,19 @@ import static net.daporkchop.lib.common.util.PValidation.*;
  */
 @UtilityClass
 public class Disk {
-    private final EventLoop DISK_EXECUTOR = new DefaultEventLoop(PThreadFactories.builder().daemon().minPriority().name("terra++ disk I/O thread").build());
+    private final DiskScheduler DISK_SCHEDULER = new DiskScheduler(Math.max(TerraConfig.http.diskThreads, 1), "terra++ disk I/O thread");
+    private final ScheduledExecutorService CLEANUP_EXECUTOR = Executors.newSingleThreadScheduledExecutor(PThreadFactories.builder().daemon().minPriority().name("terra++ cache cleanup thread").build());
+
+    private final Object PRUNE_KEY = new Object();
+
+    private final int MMAP_THRESHOLD = 64 << 10; //files smaller than this are cheaper to copy than to map
 
     private final Path CACHE_ROOT;
     private final Path TMP_FILE;
 
+    private final PackStore PACK_STORE;
+    private final CompletableFuture<Void> PACK_STORE_OPENED;
+
     static {
         File mcRoot;
         try {
@@ -66,12 +69,25 @@ public class Disk {
         TMP_FILE = CACHE_ROOT.resolve("tmp");
         PFiles.rm(TMP_FILE.toFile()); //delete temp file if it exists
 
-        //periodically prune the cache
-        DISK_EXECUTOR.scheduleWithFixedDelay((IORunnable) Disk::pruneCache, 1L, 60L, TimeUnit.MINUTES);
+        //open the pack store on a disk thread, any cache operations will be deferred until it's done
+        PACK_STORE = new PackStore(CACHE_ROOT.resolve("pack"));
+        PACK_STORE_OPENED = CompletableFuture.runAsync(() -> {
+            try {
+                PACK_STORE.open();
+                deleteLegacyCacheFiles();
+            } catch (Throwable t) {
+                TerraMod.LOGGER.error("unable to open persistent cache", t);
+            }
+        }, DISK_SCHEDULER);
+
+        //periodically prune the cache. pruning is treated as a write, so it won't delay any reads
+        CLEANUP_EXECUTOR.scheduleWithFixedDelay(() -> DISK_SCHEDULER.submitWrite(PRUNE_KEY, Disk::pruneCache), 1L, 5L, TimeUnit.MINUTES);
     }
 
     /**
      * Asynchronously reads a file's contents into a {@link ByteBuf}.
+     * <p>
+     * Large files are memory-mapped rather than copied, in which case the returned buffer is read-only.
      *
      * @param file the file
      * @return a {@link CompletableFuture} which will be notified when the file has been read
@@ -86,6 +102,10 @@ public class Disk {
                 ByteBuf buf = null;
                 try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
                     int size = toInt(channel.size(), "file size");
+                    if (size >= MMAP_THRESHOLD) { //the mapping is unmapped by the garbage collector, so it stays valid even after the channel is closed
+                        return Unpooled.wrappedBuffer(channel.map(FileChannel.MapMode.READ_ONLY, 0L, size));
+                    }
+
                     buf = ByteBufAllocator.DEFAULT.ioBuffer(size, size);
                     for (int i = 0; i < size; i += buf.writeBytes(channel, i, size - i)) {
                     }
@@ -96,7 +116,7 @@ public class Disk {
             } catch (IOException e) {
                 throw new UncheckedIOException("unable to read file: " + file, e);
             }
-        }, DISK_EXECUTOR);
+        }, DISK_SCHEDULER);
     }
 
     /**
@@ -106,36 +126,92 @@ public class Disk {
      * @param data the data
      */
     public void write(@NonNull Path file, @NonNull ByteBuf data) {
-        DISK_EXECUTOR.submit(() -> {
-            try {
+        DISK_SCHEDULER.submitWrite(file, new DiskScheduler.Write() {
+            @Override
+            public void run() throws Exception {
+                //using a single temporary file is safe, as only one write is ever executed at a time
                 try (FileChannel channel = FileChannel.open(TMP_FILE, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
                     while (data.isReadable()) {
                         data.readBytes(channel, data.readableBytes());
                     }
+                } finally {
+                    data.release();
                 }
 
                 Files.move(TMP_FILE, file, StandardCopyOption.REPLACE_EXISTING);
                 Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
-            } catch (IOException e) {
-                throw new UncheckedIOException(e);
-            } finally {
-                ReferenceCountUtil.release(data);
+            }
+
+            @Override
+            public void discard() {
+                data.release();
+            }
+
+            @Override
+            public long size() {
+                return data.readableBytes();
             }
         });
     }
 
     /**
-     * Gets the file path which stores the cached data for the given url.
+     * Asynchronously reads a value from the persistent cache.
+     * <p>
+     * The returned buffer's memory is managed by the garbage collector, so NIO views of it remain valid even after the buffer is released.
      *
-     * @param url the url
-     * @return the cache file
+     * @param key the key which uniquely identifies the value
+     * @return a {@link CompletableFuture} which will be notified when the value has been read. If no value is cached for the key, it will be completed with {@code null}
      */
-    public Path cacheFileFor(@NonNull String url) {
-        try {
-            return CACHE_ROOT.resolve(Hex.encodeHexString(MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8))));
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 not supported", e);
+    public CompletableFuture<ByteBuf> readCache(@NonNull String key) {
+        if (!PACK_STORE_OPENED.isDone()) {
+            return PACK_STORE_OPENED.thenCompose(unused -> readCache(key));
+        }
+
+        //if a write to the same key is still queued, its data is more recent than whatever is on disk
+        ByteBuf pending = DISK_SCHEDULER.peekWrite(key, write -> write instanceof CacheWrite ? ((CacheWrite) write).copyData() : null);
+        if (pending != null) {
+            return CompletableFuture.completedFuture(pending);
         }
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return PACK_STORE.read(key);
+            } catch (IOException e) {
+                throw new UncheckedIOException("unable to read cache entry: " + key, e);
+            }
+        }, DISK_SCHEDULER);
+    }
+
+    /**
+     * Asynchronously writes a value to the persistent cache, replacing any existing value with the same key.
+     *
+     * @param key        the key which uniquely identifies the value
+     * @param data       the value
+     * @param expiryTime the time at which the value will expire
+     */
+    public void writeCache(@NonNull String key, @NonNull ByteBuf data, long expiryTime) {
+        PACK_STORE_OPENED.thenRun(() -> {
+            DISK_SCHEDULER.submitWrite(key, new CacheWrite(key, data, expiryTime));
+
+            long maxSize = maxCacheSize();
+            if (maxSize > 0L && PACK_STORE.size() > maxSize) { //the cache is too big, prune it as soon as possible
+                DISK_SCHEDULER.submitWrite(PRUNE_KEY, Disk::pruneCache);
+            }
+        });
+    }
+
+    /**
+     * @return the number of disk reads which are currently queued
+     */
+    public int readQueueDepth() {
+        return DISK_SCHEDULER.readQueueDepth();
+    }
+
+    /**
+     * @return the number of disk writes which are currently queued
+     */
+    public int writeQueueDepth() {
+        return DISK_SCHEDULER.writeQueueDepth();
     }
 
     /**
@@ -148,52 +224,77 @@ public class Disk {
         return CACHE_ROOT.resolveSibling("config").resolve(name);
     }
 
-    private void pruneCache() throws IOException {
-        if (!TerraConfig.reducedConsoleMessages) {
-            TerraMod.LOGGER.info("running cache cleanup...");
-        }
-
-        LongAdder count = new LongAdder();
-        LongAdder size = new LongAdder();
+    private long maxCacheSize() {
+        return Math.max(TerraConfig.http.cacheMaxSize, 0L) << 20L;
+    }
 
-        long now = System.currentTimeMillis();
+    private void pruneCache() {
+        long size = 0L;
+        try {
+            size = PACK_STORE.prune(System.currentTimeMillis(), maxCacheSize());
+        } catch (Throwable e) {
+            TerraMod.LOGGER.error("exception occurred during cache cleanup!", e);
+        } finally {
+            if (!TerraConfig.reducedConsoleMessages && size != 0L) { //pruning runs frequently, so only log if something actually happened
+                double mib = Math.round(size / (1024.0d * 1024.0d) * 10.0d) / 10.0d;
+                TerraMod.LOGGER.info("cache cleanup complete. freed {} bytes ({} MiB)", size, mib);
+            }
+        }
+    }
 
+    /**
+     * Deletes the individual cache files from before the cache was moved into a {@link PackStore}.
+     */
+    private void deleteLegacyCacheFiles() throws IOException {
         try (Stream<Path> stream = Files.list(CACHE_ROOT)) {
             stream.filter(Files::isRegularFile)
-                    .filter((IOPredicate<Path>) p -> {
-                        try (FileChannel channel = FileChannel.open(p, StandardOpenOption.READ)) {
-                            long chSize = channel.size();
-                            try {
-                                ByteBuf buf = PUnpooled.wrap(channel.map(FileChannel.MapMode.READ_ONLY, 0L, chSize), toInt(chSize), true);
-                                try {
-                                    if (buf.readByte() == CacheEntry.CACHE_VERSION && !new CacheEntry(buf).isExpired(now)) { //file isn't expired, skip it
-                                        return false;
-                                    }
-                                } finally {
-                                    buf.release();
-                                }
-                            } catch (Throwable ignored) {
-                                //no-op
-                            }
-
-                            //delete file
-                            count.increment();
-                            size.add(chSize);
-                            return true;
-                        }
-                    })
-                    .peek((IOConsumer<Path>) path -> {
-                        count.increment();
-                        size.add(Files.size(path));
-                    })
+                    .filter(p -> p.getFileName().toString().matches("^[0-9a-f]{64}$"))
                     .forEach((IOConsumer<Path>) Files::delete);
-        } catch (Throwable e) {
-            TerraMod.LOGGER.error("exception occurred during cache cleanup!", e);
-        } finally {
-            if (!TerraConfig.reducedConsoleMessages) {
-                double mib = Math.round(size.sum() / (1024.0d * 1024.0d) * 10.0d) / 10.0d;
-                TerraMod.LOGGER.info("cache cleanup complete. deleted {} old files, totalling {} bytes ({} MiB)", count.sum(), size.sum(), mib);
+        }
+    }
+
+    /**
+     * A queued write to the persistent cache.
+     *
+     * @author DaPorkchop_
+     */
+    @RequiredArgsConstructor
+    private final class CacheWrite implements DiskScheduler.Write {
+        @NonNull
+        private final String key;
+        @NonNull
+        private final ByteBuf data;
+        private final long expiryTime;
+
+        @Override
+        public void run() throws Exception {
+            PACK_STORE.write(this.key, this.data, this.expiryTime);
+        }
+
+        @Override
+        public void discard() {
+            this.data.release();
+        }
+
+        @Override
+        public long size() {
+            return this.data.readableBytes();
+        }
+
+        /**
+         * @return a copy of the data to be written, or {@code null} if it has already expired
+         */
+        public ByteBuf copyData() {
+            if (this.expiryTime <= System.currentTimeMillis()) {
+                return null;
             }
+
+            //copy into a wrapped NIO buffer to satisfy the contract of readCache: unlike an unpooled direct buffer, a wrapped buffer's memory
+            // isn't freed when it's released, only once the ByteBuffer itself is garbage collected
+            int size = this.data.readableBytes();
+            ByteBuf copy = Unpooled.wrappedBuffer(ByteBuffer.allocateDirect(size));
+            copy.setBytes(0, this.data, this.data.readerIndex(), size);
+            return copy;
         }
     }
 }
@@ -0,0 +1,191 @@
+package net.buildtheearth.terraplusplus.util.http;
+
+import lombok.NonNull;
+import net.buildtheearth.terraplusplus.TerraMod;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import static net.daporkchop.lib.common.util.PValidation.*;
+
+/**
+ * Schedules disk I/O operations on a pool of worker threads.
+ * <p>
+ * Reads are generally executed before writes, as something (usually chunk generation) is generally waiting on them, whereas writes can be
+ * deferred. To ensure that writes still make progress under a sustained stream of reads, a write is executed after every {@link #READS_PER_WRITE}
+ * reads if any are queued. At most one worker will be executing writes at any given time, so the remaining workers are always available for reads.
+ * <p>
+ * The total size of the queued writes is limited to {@link #MAX_QUEUED_WRITE_BYTES}. Any writes submitted beyond that are discarded, which is
+ * acceptable as writes are only used for caching.
+ * <p>
+ * Writes are identified by a key. If a write is submitted while another write with the same key is still queued, the queued write is discarded and
+ * replaced.
+ *
+ * @author DaPorkchop_
+ */
+final class DiskScheduler implements Executor {
+    private static final int READS_PER_WRITE = 8;
+    private static final long MAX_QUEUED_WRITE_BYTES = 64L << 20L;
+
+    private final Deque<Runnable> reads = new ArrayDeque<>();
+    private final Map<Object, Write> writes = new LinkedHashMap<>();
+    private long queuedWriteBytes;
+    private int readsSinceWrite;
+    private boolean writing;
+
+    public DiskScheduler(int threads, @NonNull String name) {
+        positive(threads, "threads");
+
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(this::run, name + " #" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Submits a read operation.
+     *
+     * @param task the operation
+     */
+    @Override
+    public synchronized void execute(@NonNull Runnable task) {
+        this.reads.add(task);
+        this.notify();
+    }
+
+    /**
+     * Submits a write operation, replacing any queued write with the same key.
+     * <p>
+     * If the queued writes are already too large, the write will be discarded.
+     *
+     * @param key   the key which identifies the write
+     * @param write the operation
+     */
+    public synchronized void submitWrite(@NonNull Object key, @NonNull Write write) {
+        Write previous = this.writes.get(key);
+        long size = write.size() - (previous != null ? previous.size() : 0L);
+        if (size > 0L && this.queuedWriteBytes + size > MAX_QUEUED_WRITE_BYTES) { //too much data is already waiting to be written, drop this write
+            write.discard();
+            return;
+        }
+
+        this.writes.put(key, write); //replacing an existing key keeps its original position in the queue
+        this.queuedWriteBytes += size;
+        if (previous != null) {
+            previous.discard();
+        } else {
+            this.notify();
+        }
+    }
+
+    /**
+     * Inspects the queued write with the given key, if any.
+     * <p>
+     * The write is guaranteed not to be executed or discarded while the given function is running.
+     *
+     * @param key      the key which identifies the write
+     * @param function the function to apply to the write
+     * @return the function's return value, or {@code null} if no write with the given key is queued
+     */
+    public synchronized <R> R peekWrite(@NonNull Object key, @NonNull Function<Write, R> function) {
+        Write write = this.writes.get(key);
+        return write != null ? function.apply(write) : null;
+    }
+
+    /**
+     * @return the number of queued reads
+     */
+    public synchronized int readQueueDepth() {
+        return this.reads.size();
+    }
+
+    /**
+     * @return the number of queued writes
+     */
+    public synchronized int writeQueueDepth() {
+        return this.writes.size();
+    }
+
+    private void run() {
+        while (true) {
+            Runnable read = null;
+            Write write = null;
+
+            synchronized (this) {
+                while (true) {
+                    if (!this.writing && !this.writes.isEmpty() && (this.reads.isEmpty() || this.readsSinceWrite >= READS_PER_WRITE)) {
+                        //take the oldest queued write, either because there's nothing else to do or because writes would otherwise be starved
+                        Iterator<Write> itr = this.writes.values().iterator();
+                        write = itr.next();
+                        itr.remove();
+                        this.queuedWriteBytes -= write.size();
+                        this.readsSinceWrite = 0;
+                        this.writing = true;
+                        break;
+                    } else if ((read = this.reads.poll()) != null) {
+                        if (!this.writes.isEmpty()) {
+                            this.readsSinceWrite++;
+                        }
+                        break;
+                    }
+
+                    try {
+                        this.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+
+            try {
+                if (read != null) {
+                    read.run();
+                } else {
+                    write.run();
+                }
+            } catch (Throwable t) {
+                TerraMod.LOGGER.error("exception in disk I/O thread", t);
+            } finally {
+                if (write != null) {
+                    synchronized (this) {
+                        this.writing = false;
+                        if (!this.writes.isEmpty()) { //let another thread pick up the next write if this one is busy with a read
+                            this.notify();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A queued write operation.
+     *
+     * @author DaPorkchop_
+     */
+    public interface Write {
+        /**
+         * Executes this write.
+         */
+        void run() throws Exception;
+
+        /**
+         * Releases any resources held by this write without executing it.
+         */
+        default void discard() {
+        }
+
+        /**
+         * @return the amount of data this write will write, in bytes
+         */
+        default long size() {
+            return 0L;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package net.buildtheearth.terraplusplus.util.http;
 
 import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
@@ -20,21 +21,42 @@ import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpStatusClass;
 import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http2.DefaultHttp2Connection;
+import io.netty.handler.codec.http2.DelegatingDecompressorFrameListener;
+import io.netty.handler.codec.http2.Http2Connection;
+import io.netty.handler.codec.http2.Http2Error;
+import io.netty.handler.codec.http2.Http2Exception;
+import io.netty.handler.codec.http2.Http2FrameListener;
+import io.netty.handler.codec.http2.Http2FrameListenerDecorator;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.handler.codec.http2.HttpConversionUtil;
+import io.netty.handler.codec.http2.HttpToHttp2ConnectionHandler;
+import io.netty.handler.codec.http2.HttpToHttp2ConnectionHandlerBuilder;
+import io.netty.handler.codec.http2.InboundHttp2ToHttpAdapterBuilder;
+import io.netty.handler.ssl.ApplicationProtocolNames;
+import io.netty.handler.ssl.ApplicationProtocolNegotiationHandler;
+import io.netty.handler.timeout.ReadTimeoutException;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
 import io.netty.util.AttributeKey;
 import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
+import net.buildtheearth.terraplusplus.TerraConfig;
 import net.buildtheearth.terraplusplus.TerraConstants;
 import net.daporkchop.lib.common.misc.string.PStrings;
 import net.daporkchop.lib.common.util.PorkUtil;
 
+import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -42,21 +64,35 @@ import static net.buildtheearth.terraplusplus.util.http.Http.*;
 import static net.daporkchop.lib.common.util.PValidation.*;
 
 /**
- * Manages request queueing, connection keepalives and potential HTTP/2 upgrades for a single remote host.
+ * Manages request queueing, connection keepalives and HTTP/2 multiplexing for a single remote host.
+ * <p>
+ * If the host supports HTTP/2 (negotiated using ALPN), all requests are multiplexed over a single connection. Otherwise, one HTTP/1.1 connection is
+ * opened for each concurrent request.
+ * <p>
+ * The number of concurrent requests is controlled by a {@link ConcurrencyLimiter}, which adapts to the host's response latency and error rate. The
+ * limit may never exceed the configured maximum for HTTP/1.1 hosts, or {@link #HTTP2_MAX_CONCURRENT_REQUESTS} (and the number of concurrent streams
+ * permitted by the server) for HTTP/2 hosts.
  *
  * @author DaPorkchop_
  */
 final class HostManager extends Host {
     private static final AttributeKey<Request> ATTR_REQUEST = AttributeKey.valueOf(Request.class, "terra++");
+    private static final AttributeKey<Int2ObjectMap<Request>> ATTR_STREAMS = AttributeKey.valueOf(Request.class, "terra++_http2_streams");
 
-    private final Deque<Request> pendingRequests = new ArrayDeque<>();
+    private static final int HTTP2_MAX_CONCURRENT_REQUESTS = 256; //multiplexed requests don't cost the server an additional connection each
+
+    //one queue for each priority, requests are always taken from the highest priority queue which isn't empty
+    private final Deque<Request>[] pendingRequests = PorkUtil.uncheckedCast(new Deque[RequestPriority.values().length]);
     private final Bootstrap bootstrap;
 
-    private int maxConcurrentRequests = 1;
+    private final ConcurrencyLimiter limiter = new ConcurrencyLimiter();
+    private int maxConcurrentRequests;
     private int activeRequests;
+    private boolean http2;
 
     private final Set<Channel> channels = Collections.newSetFromMap(new IdentityHashMap<>());
-    private ChannelFuture channelFuture;
+    private boolean connecting;
+    private Channel negotiatingChannel;
 
     public HostManager(@NonNull Host host) {
         super(host);
@@ -65,6 +101,13 @@ final class HostManager extends Host {
                 .handler(new Initializer(new Handler()))
                 .remoteAddress(this.host, this.port)
                 .attr(ATTR_REQUEST, null);
+
+        for (int i = 0; i < this.pendingRequests.length; i++) {
+            this.pendingRequests[i] = new ArrayDeque<>();
+        }
+
+        this.maxConcurrentRequests = Math.max(TerraConfig.http.defaultMaxConcurrentRequests, 1);
+        this.limiter.ceiling(this.maxConcurrentRequests);
     }
 
     /**
@@ -75,24 +118,79 @@ final class HostManager extends Host {
      */
     public void submit(@NonNull String path, @NonNull Callback callback, @NonNull HttpHeaders headers) {
         NETWORK_EVENT_LOOP.submit(() -> { //force execution on network thread
-            this.pendingRequests.add(new Request(path, callback, headers)); //add to request queue
+            Request request = new Request(path, callback, headers);
+            this.pendingRequests[request.priority.ordinal()].add(request); //add to request queue
 
             this.tryWorkOffQueue();
         });
     }
 
+    /**
+     * Moves a queued request to the queue for its callback's current {@link Callback#priority() priority}.
+     * <p>
+     * If the request isn't currently queued, this method does nothing.
+     *
+     * @param callback the request's {@link Callback}
+     */
+    public void reprioritize(@NonNull Callback callback) {
+        NETWORK_EVENT_LOOP.submit(() -> { //force execution on network thread
+            RequestPriority priority = callback.priority();
+
+            //only requests with a lower priority need to be moved
+            for (int i = priority.ordinal() + 1; i < this.pendingRequests.length; i++) {
+                for (Iterator<Request> itr = this.pendingRequests[i].iterator(); itr.hasNext(); ) {
+                    Request request = itr.next();
+                    if (request.callback == callback) {
+                        itr.remove();
+                        request.priority = priority;
+                        this.pendingRequests[priority.ordinal()].add(request);
+                        this.tryWorkOffQueue();
+                        return;
+                    }
+                }
+            }
+        });
+    }
+
     /**
      * Updates the maximum number of concurrent requests to this host.
+     * <p>
+     * This limit only applies to HTTP/1.1 connections.
      *
      * @param maxConcurrentRequests the new maximum number of concurrent requests
      */
     public void setMaxConcurrentRequests(int maxConcurrentRequests) {
-        this.maxConcurrentRequests = positive(maxConcurrentRequests, "maxConcurrentRequests");
+        positive(maxConcurrentRequests, "maxConcurrentRequests");
+
+        NETWORK_EVENT_LOOP.execute(() -> { //force execution on network thread
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            this.updateCeiling();
+            this.tryWorkOffQueue(); //the limit may have been raised
+        });
+    }
+
+    private void updateCeiling() {
+        this.limiter.ceiling(this.http2 ? HTTP2_MAX_CONCURRENT_REQUESTS : this.maxConcurrentRequests);
+    }
+
+    private void handleCompletion(@NonNull Request request, FullHttpResponse response, Throwable cause) {
+        long now = System.nanoTime();
+        if (cause instanceof ReadTimeoutException
+            || (response != null && (response.status().code() == 429 || response.status().codeClass() == HttpStatusClass.SERVER_ERROR))) {
+            this.limiter.onDrop(now);
+        } else if (response != null) {
+            this.limiter.onSuccess(now - request.sendTime);
+        }
     }
 
     private void tryWorkOffQueue() {
-        for (Request request; this.activeRequests < this.maxConcurrentRequests && (request = this.pendingRequests.peek()) != null && this.trySendRequest0(request); ) {
-            checkState(this.pendingRequests.poll() == request, "unable to remove request from queue!");
+        for (Deque<Request> queue : this.pendingRequests) {
+            for (Request request; (request = queue.peek()) != null; ) {
+                if (!this.trySendRequest0(request)) { //no more requests can be sent right now
+                    return;
+                }
+                checkState(queue.poll() == request, "unable to remove request from queue!");
+            }
         }
     }
 
@@ -101,10 +199,22 @@ final class HostManager extends Host {
             return true;
         }
 
+        if (this.activeRequests >= this.limiter.limit()) {
+            return false;
+        }
+
         for (Channel channel : this.channels) {
-            if (channel.attr(ATTR_REQUEST).compareAndSet(null, request)) { //the channel is currently inactive
+            Int2ObjectMap<Request> streams = channel.attr(ATTR_STREAMS).get();
+            if (streams != null) { //HTTP/2 connection
+                Http2Connection connection = channel.pipeline().get(HttpToHttp2ConnectionHandler.class).connection();
+                if (!connection.goAwayReceived() && connection.local().canOpenStream()) {
+                    this.sendHttp2Request(channel, streams, connection.local().incrementAndGetNextStreamId(), request);
+                    return true;
+                }
+            } else if (channel.attr(ATTR_REQUEST).compareAndSet(null, request)) { //the channel is currently inactive
                 channel.pipeline().addFirst("read_timeout", new ReadTimeoutHandler(TIMEOUT, TimeUnit.SECONDS));
-                channel.writeAndFlush(request.toNetty()); //send request
+                request.sendTime = System.nanoTime();
+                channel.writeAndFlush(request.toNetty(false)); //send request
                 this.activeRequests++;
                 return true;
             }
@@ -114,27 +224,98 @@ final class HostManager extends Host {
         return false;
     }
 
+    private void sendHttp2Request(@NonNull Channel channel, @NonNull Int2ObjectMap<Request> streams, int streamId, @NonNull Request request) {
+        streams.put(streamId, request);
+        this.activeRequests++;
+        request.sendTime = System.nanoTime();
+
+        HttpRequest nettyRequest = request.toNetty(true);
+        nettyRequest.headers().setInt(HttpConversionUtil.ExtensionHeaderNames.STREAM_ID.text(), streamId);
+        channel.writeAndFlush(nettyRequest);
+
+        //there's no single read timeout for a multiplexed connection, so each stream needs its own timeout
+        request.lastReadTime = request.sendTime;
+        this.scheduleHttp2Timeout(channel, streams, streamId, request, TimeUnit.SECONDS.toNanos(TIMEOUT));
+    }
+
+    private void scheduleHttp2Timeout(@NonNull Channel channel, @NonNull Int2ObjectMap<Request> streams, int streamId, @NonNull Request request, long delay) {
+        request.timeout = channel.eventLoop().schedule(() -> {
+            if (streams.get(streamId) != request) { //the request has already been completed
+                return;
+            }
+
+            //like ReadTimeoutHandler, this is an idle timeout: the request only times out if nothing has been received on the stream for a while.
+            // rather than rescheduling the timer for every frame, we check whether anything has been received since it was scheduled.
+            long remaining = TimeUnit.SECONDS.toNanos(TIMEOUT) - (System.nanoTime() - request.lastReadTime);
+            if (remaining > 0L) {
+                this.scheduleHttp2Timeout(channel, streams, streamId, request, remaining);
+                return;
+            }
+
+            streams.remove(streamId);
+
+            //tell the server to stop sending data for the stream
+            HttpToHttp2ConnectionHandler handler = channel.pipeline().get(HttpToHttp2ConnectionHandler.class);
+            if (handler != null) {
+                ChannelHandlerContext ctx = channel.pipeline().context(handler);
+                handler.resetStream(ctx, streamId, Http2Error.CANCEL.code(), ctx.newPromise());
+                ctx.flush();
+            }
+
+            this.activeRequests--;
+            this.handleCompletion(request, null, ReadTimeoutException.INSTANCE);
+            request.callback.handle(null, ReadTimeoutException.INSTANCE);
+            this.tryWorkOffQueue();
+        }, delay, TimeUnit.NANOSECONDS);
+    }
+
+    private void handleHttp2Read(@NonNull Channel channel, int streamId) {
+        Int2ObjectMap<Request> streams = channel.attr(ATTR_STREAMS).get();
+        if (streams != null) {
+            Request request = streams.get(streamId);
+            if (request != null) { //reset the stream's idle timeout
+                request.lastReadTime = System.nanoTime();
+            }
+        }
+    }
+
     private void considerOpeningAnotherConnection() {
-        if (this.channelFuture == null) { //channelFuture is null, so there is no currently opening channel
-            (this.channelFuture = this.bootstrap.connect()).addListener((ChannelFutureListener) this::handleChannelOpened);
+        if (!this.connecting) { //there is no currently opening channel
+            this.connecting = true;
+            this.bootstrap.connect().addListener((ChannelFutureListener) this::handleChannelOpened);
         }
     }
 
     private void handleChannelOpened(@NonNull ChannelFuture channelFuture) {
-        checkState(channelFuture == this.channelFuture, "unknown channel future?!?");
-        this.channelFuture = null;
-
         if (!channelFuture.isSuccess()) {
-            //TODO: fail pending requests only if no other connections are open
-            this.pendingRequests.forEach(r -> r.callback.handle(null, channelFuture.cause()));
-            this.pendingRequests.clear();
+            this.connecting = false;
+            this.failPendingRequests(channelFuture.cause());
             return;
         }
 
         Channel channel = channelFuture.channel();
-        this.channels.add(channel);
         channel.closeFuture().addListener((ChannelFutureListener) this::handleChannelClosed);
 
+        if (this.ssl) { //the channel will be ready once the TLS handshake has been completed and a protocol has been negotiated
+            this.negotiatingChannel = channel;
+        } else { //plaintext connections are always HTTP/1.1, so the channel is ready for use immediately
+            this.handleChannelReady(channel, false);
+        }
+    }
+
+    private void handleChannelReady(@NonNull Channel channel, boolean http2) {
+        this.connecting = false;
+        this.negotiatingChannel = null;
+
+        if (http2) {
+            channel.attr(ATTR_STREAMS).set(new Int2ObjectOpenHashMap<>());
+        }
+        if (this.http2 != http2) { //the host's protocol has changed, so the ceiling might have as well
+            this.http2 = http2;
+            this.updateCeiling();
+        }
+        this.channels.add(channel);
+
         this.tryWorkOffQueue();
     }
 
@@ -149,11 +330,33 @@ final class HostManager extends Host {
                 // and the server closed it at the same time as we sent the request. let's re-submit the request
                 // so that it can be issued again on a new channel
 
-                this.pendingRequests.addFirst(request); //add to front of queue so that it doesn't have to wait through the entire queue again
+                this.activeRequests--;
+                this.pendingRequests[request.priority.ordinal()].addFirst(request); //add to front of queue so that it doesn't have to wait through the entire queue again
+            }
+
+            Int2ObjectMap<Request> streams = channel.attr(ATTR_STREAMS).getAndSet(null);
+            if (streams != null) { //re-submit all requests which were still in progress on the HTTP/2 connection
+                for (Request streamRequest : streams.values()) {
+                    streamRequest.timeout.cancel(false);
+                    this.activeRequests--;
+                    this.pendingRequests[streamRequest.priority.ordinal()].addFirst(streamRequest);
+                }
             }
 
             //working off the queue may open a new channel to replace this one if there are more pending requests
             this.tryWorkOffQueue();
+        } else if (channel == this.negotiatingChannel) { //the channel was closed before it became ready (e.g. the TLS handshake failed)
+            this.connecting = false;
+            this.negotiatingChannel = null;
+            this.failPendingRequests(new IOException("connection to " + this.authority + " was closed during protocol negotiation"));
+        }
+    }
+
+    private void failPendingRequests(@NonNull Throwable cause) {
+        //TODO: fail pending requests only if no other connections are open
+        for (Deque<Request> queue : this.pendingRequests) {
+            queue.forEach(r -> r.callback.handle(null, cause));
+            queue.clear();
         }
     }
 
@@ -172,6 +375,7 @@ final class HostManager extends Host {
             checkState(request != null, "received response on inactive channel?!?");
 
             this.activeRequests--; //decrement active requests counter to enable another request to be made
+            this.handleCompletion(request, response, null);
 
             if (!HttpUtil.isKeepAlive(response)) { //response isn't keep-alive, close connection
                 //remove connection from active connections now to prevent it from
@@ -192,6 +396,53 @@ final class HostManager extends Host {
         }
     }
 
+    private void handleHttp2Response(@NonNull Channel channel, @NonNull Int2ObjectMap<Request> streams, Object msg) {
+        Request request = null;
+        try {
+            if (!(msg instanceof FullHttpResponse)) {
+                throw new IllegalArgumentException(PorkUtil.className(msg));
+            }
+            FullHttpResponse response = (FullHttpResponse) msg;
+
+            request = streams.remove(response.headers().getInt(HttpConversionUtil.ExtensionHeaderNames.STREAM_ID.text(), -1));
+            if (request == null) { //the request has already timed out
+                return;
+            }
+
+            request.timeout.cancel(false);
+            this.activeRequests--;
+            this.handleCompletion(request, response, null);
+
+            request.callback.handle(response, null);
+        } catch (Exception e) {
+            if (request != null) {
+                request.callback.handle(null, e);
+            }
+        } finally {
+            ReferenceCountUtil.release(msg);
+
+            this.tryWorkOffQueue(); //if this request is completed, another stream must have been freed up
+        }
+    }
+
+    private void handleHttp2StreamError(@NonNull Int2ObjectMap<Request> streams, @NonNull Http2Exception.StreamException cause) {
+        //a stream error only affects a single request, the rest of the connection remains usable
+        Request request = streams.remove(cause.streamId());
+        if (request != null) {
+            request.timeout.cancel(false);
+            this.activeRequests--;
+
+            if (cause.error() == Http2Error.REFUSED_STREAM) { //the server didn't process the request at all, so it's safe to simply try again
+                this.pendingRequests[request.priority.ordinal()].addFirst(request);
+            } else {
+                this.handleCompletion(request, null, cause);
+                request.callback.handle(null, cause);
+            }
+        }
+
+        this.tryWorkOffQueue(); //a stream has been freed up
+    }
+
     /**
      * A callback function that is executed when the request is completed.
      *
@@ -203,6 +454,11 @@ final class HostManager extends Host {
          */
         boolean isCancelled();
 
+        /**
+         * @return the priority of the request
+         */
+        RequestPriority priority();
+
         /**
          * Handles the response body.
          *
@@ -217,7 +473,6 @@ final class HostManager extends Host {
      *
      * @author DaPorkchop_
      */
-    @RequiredArgsConstructor
     @ToString
     private final class Request {
         @NonNull
@@ -227,13 +482,34 @@ final class HostManager extends Host {
         @NonNull
         protected final HttpHeaders headers;
 
-        public HttpRequest toNetty() {
-            DefaultFullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, this.path);
+        protected RequestPriority priority; //the priority of the queue which this request is in
+
+        @ToString.Exclude
+        protected ScheduledFuture<?> timeout; //only set while the request is in progress on an HTTP/2 connection
+        @ToString.Exclude
+        protected long sendTime;
+        @ToString.Exclude
+        protected long lastReadTime; //the last time that anything was received for the request's HTTP/2 stream
+
+        public Request(@NonNull String path, @NonNull Callback callback, @NonNull HttpHeaders headers) {
+            this.path = path;
+            this.callback = callback;
+            this.headers = headers;
+            this.priority = callback.priority();
+        }
+
+        public HttpRequest toNetty(boolean http2) {
+            //HTTP/2 requests use the absolute URI, as that's where the :scheme and :authority pseudo-headers are derived from
+            String uri = http2 ? (HostManager.this.ssl ? "https://" : "http://") + HostManager.this.authority + this.path : this.path;
+
+            DefaultFullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, uri);
             request.headers()
                     .set(this.headers)
                     .set(HttpHeaderNames.HOST, HostManager.this.authority)
                     .set(HttpHeaderNames.USER_AGENT, PStrings.fastFormat("%s/%s CubicChunks/%s", TerraConstants.MODID, TerraConstants.VERSION, TerraConstants.CC_VERSION));
-            HttpUtil.setKeepAlive(request, true);
+            if (!http2) { //connection-specific headers are forbidden in HTTP/2
+                HttpUtil.setKeepAlive(request, true);
+            }
             return request;
         }
     }
@@ -252,16 +528,87 @@ final class HostManager extends Host {
         protected void initChannel(Channel ch) throws Exception {
             ch.pipeline().addLast(new WriteTimeoutHandler(TIMEOUT, TimeUnit.SECONDS));
 
-            if (HostManager.this.ssl) {
-                ch.pipeline().addLast(Http.SSL_CONTEXT.newHandler(ch.alloc(), HostManager.this.host, HostManager.this.port));
+            if (HostManager.this.ssl) { //the rest of the pipeline is configured once the protocol has been negotiated
+                ch.pipeline().addLast(
+                        Http.SSL_CONTEXT.newHandler(ch.alloc(), HostManager.this.host, HostManager.this.port),
+                        new Negotiator());
+            } else {
+                this.configureHttp1(ch);
             }
+        }
 
+        void configureHttp1(@NonNull Channel ch) {
             ch.pipeline().addLast(
                     new HttpClientCodec(),
                     new HttpContentDecompressor(),
                     new HttpObjectAggregator(Http.MAX_CONTENT_LENGTH),
                     this.httpHandler);
         }
+
+        void configureHttp2(@NonNull Channel ch) {
+            Http2Connection connection = new DefaultHttp2Connection(false);
+            Http2FrameListener listener = new DelegatingDecompressorFrameListener(connection, new InboundHttp2ToHttpAdapterBuilder(connection)
+                    .maxContentLength(Http.MAX_CONTENT_LENGTH)
+                    .propagateSettings(false)
+                    .build());
+            ch.pipeline().addLast(
+                    new HttpToHttp2ConnectionHandlerBuilder()
+                            .connection(connection)
+                            .frameListener(new ActivityListener(listener))
+                    .build(),
+                    this.httpHandler);
+        }
+
+        /**
+         * Notifies the host manager whenever a frame is received for an HTTP/2 stream, in order to reset the stream's idle timeout.
+         *
+         * @author DaPorkchop_
+         */
+        private final class ActivityListener extends Http2FrameListenerDecorator {
+            ActivityListener(Http2FrameListener listener) {
+                super(listener);
+            }
+
+            @Override
+            public int onDataRead(ChannelHandlerContext ctx, int streamId, ByteBuf data, int padding, boolean endOfStream) throws Http2Exception {
+                HostManager.this.handleHttp2Read(ctx.channel(), streamId);
+                return super.onDataRead(ctx, streamId, data, padding, endOfStream);
+            }
+
+            @Override
+            public void onHeadersRead(ChannelHandlerContext ctx, int streamId, Http2Headers headers, int padding, boolean endStream) throws Http2Exception {
+                HostManager.this.handleHttp2Read(ctx.channel(), streamId);
+                super.onHeadersRead(ctx, streamId, headers, padding, endStream);
+            }
+
+            @Override
+            public void onHeadersRead(ChannelHandlerContext ctx, int streamId, Http2Headers headers, int streamDependency, short weight, boolean exclusive, int padding, boolean endStream) throws Http2Exception {
+                HostManager.this.handleHttp2Read(ctx.channel(), streamId);
+                super.onHeadersRead(ctx, streamId, headers, streamDependency, weight, exclusive, padding, endStream);
+            }
+        }
+
+        /**
+         * Configures the rest of the pipeline once a protocol has been negotiated using ALPN.
+         *
+         * @author DaPorkchop_
+         */
+        private final class Negotiator extends ApplicationProtocolNegotiationHandler {
+            Negotiator() {
+                super(ApplicationProtocolNames.HTTP_1_1); //servers which don't support ALPN are assumed to only support HTTP/1.1
+            }
+
+            @Override
+            protected void configurePipeline(ChannelHandlerContext ctx, String protocol) throws Exception {
+                boolean http2 = ApplicationProtocolNames.HTTP_2.equals(protocol);
+                if (http2) {
+                    Initializer.this.configureHttp2(ctx.channel());
+                } else {
+                    Initializer.this.configureHttp1(ctx.channel());
+                }
+                HostManager.this.handleChannelReady(ctx.channel(), http2);
+            }
+        }
     }
 
     /**
@@ -273,19 +620,47 @@ final class HostManager extends Host {
     private final class Handler extends ChannelInboundHandlerAdapter {
         @Override
         public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-            ctx.pipeline().remove("read_timeout"); //remove read timeout listener to prevent a fake timeout if the connection is idle
-            HostManager.this.handleResponse(ctx.channel(), msg);
+            Int2ObjectMap<Request> streams = ctx.channel().attr(ATTR_STREAMS).get();
+            if (streams != null) {
+                HostManager.this.handleHttp2Response(ctx.channel(), streams, msg);
+            } else {
+                ctx.pipeline().remove("read_timeout"); //remove read timeout listener to prevent a fake timeout if the connection is idle
+                HostManager.this.handleResponse(ctx.channel(), msg);
+            }
         }
 
         @Override
         public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+            Int2ObjectMap<Request> activeStreams = ctx.channel().attr(ATTR_STREAMS).get();
+            if (activeStreams != null && cause instanceof Http2Exception.StreamException) { //only a single stream failed, the connection is fine
+                HostManager.this.handleHttp2StreamError(activeStreams, (Http2Exception.StreamException) cause);
+                return;
+            }
+
+            //anything else is a connection error, so the channel can't be used any more
+            HostManager.this.channels.remove(ctx.channel());
+
             Request request = ctx.channel().attr(ATTR_REQUEST).getAndSet(null);
             if (request != null) { //inform request that it failed
-                request.callback.handle(null, cause);
                 HostManager.this.activeRequests--;
+                HostManager.this.handleCompletion(request, null, cause);
+                request.callback.handle(null, cause);
+            }
+
+            Int2ObjectMap<Request> streams = ctx.channel().attr(ATTR_STREAMS).getAndSet(null);
+            if (streams != null) { //inform all requests on the HTTP/2 connection that they failed
+                for (Request streamRequest : streams.values()) {
+                    streamRequest.timeout.cancel(false);
+                    streamRequest.callback.handle(null, cause);
+                    HostManager.this.activeRequests--;
+                }
             }
 
             ctx.close();
+
+            //the channel has already been removed, so handleChannelClosed won't do this. working off the queue will open a new connection to
+            // replace this one if there are more pending requests.
+            HostManager.this.tryWorkOffQueue();
         }
     }
 }
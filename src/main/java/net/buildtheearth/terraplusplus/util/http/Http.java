@@ -17,6 +17,8 @@ import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpStatusClass;
 import io.netty.handler.codec.http2.Http2SecurityUtil;
+import io.netty.handler.ssl.ApplicationProtocolConfig;
+import io.netty.handler.ssl.ApplicationProtocolNames;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.SupportedCipherSuiteFilter;
@@ -36,13 +38,17 @@ import java.net.URL;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -73,41 +79,187 @@ public class Http {
 
     protected final Map<Host, HostManager> MANAGERS = new ConcurrentHashMap<>();
 
+    protected final Map<String, InFlightRequest> IN_FLIGHT = new ConcurrentHashMap<>();
+    protected final Map<String, MirrorHealth> MIRRORS = new ConcurrentHashMap<>();
+    protected final Set<String> REVALIDATING = ConcurrentHashMap.newKeySet();
+
+    private volatile Map<String, Path> LOCAL_MIRRORS = parseLocalMirrors();
+
+    protected static final double HEDGE_PERCENTILE = 0.9d; //mirrors are hedged if they take longer to respond than 90% of their previous responses
+
+    private final ThreadLocal<PriorityGroup> GROUP = new ThreadLocal<>();
+
     protected final int MAX_CONTENT_LENGTH = Integer.MAX_VALUE; //impossibly large, no requests will actually be this big but whatever
 
     protected static final Cached<Matcher> URL_FORMATTING_MATCHER_CACHE = Cached.regex(Pattern.compile("\\$\\{([a-z0-9.]+)}"));
 
     static {
-        try {
-            SSL_CONTEXT = SslContextBuilder.forClient()
+        SslContext sslContext;
+        try { //try to create an ssl context which can negotiate HTTP/2 using ALPN
+            sslContext = SslContextBuilder.forClient()
                     .ciphers(Http2SecurityUtil.CIPHERS, SupportedCipherSuiteFilter.INSTANCE)
                     .trustManager(InsecureTrustManagerFactory.INSTANCE)
+                    .applicationProtocolConfig(new ApplicationProtocolConfig(
+                            ApplicationProtocolConfig.Protocol.ALPN,
+                            ApplicationProtocolConfig.SelectorFailureBehavior.NO_ADVERTISE,
+                            ApplicationProtocolConfig.SelectedListenerFailureBehavior.ACCEPT,
+                            ApplicationProtocolNames.HTTP_2, ApplicationProtocolNames.HTTP_1_1))
                     .build();
-        } catch (SSLException e) {
-            throw new RuntimeException("unable to create ssl context", e);
+        } catch (Exception e) { //ALPN isn't supported by the current JVM, fall back to HTTP/1.1 only
+            TerraMod.LOGGER.warn("ALPN is not supported, HTTP/2 will be unavailable. Falling back to HTTP/1.1", e);
+            try {
+                sslContext = SslContextBuilder.forClient()
+                        .ciphers(Http2SecurityUtil.CIPHERS, SupportedCipherSuiteFilter.INSTANCE)
+                        .trustManager(InsecureTrustManagerFactory.INSTANCE)
+                        .build();
+            } catch (SSLException e1) {
+                throw new RuntimeException("unable to create ssl context", e1);
+            }
         }
+        SSL_CONTEXT = sslContext;
     }
 
     private HostManager managerFor(@NonNull URL url) {
         return MANAGERS.computeIfAbsent(new Host(url), HostManager::new);
     }
 
+    private MirrorHealth mirrorHealth(@NonNull String url) {
+        String mirror;
+        try { //requests to the same host are assumed to be served by the same mirror
+            URL parsed = new URL(url);
+            mirror = parsed.getProtocol() + "://" + parsed.getAuthority();
+        } catch (MalformedURLException e) {
+            mirror = url;
+        }
+        return MIRRORS.computeIfAbsent(mirror, m -> new MirrorHealth());
+    }
+
     /**
-     * Asynchronously gets the contents of the given resource.
+     * @return the priority with which requests made by the current thread will be sent by default
+     */
+    public RequestPriority currentPriority() {
+        PriorityGroup group = GROUP.get();
+        return group != null ? group.priority() : RequestPriority.NEAR_PLAYER;
+    }
+
+    /**
+     * @return the {@link PriorityGroup} which requests made by the current thread will join, or {@code null} if there is none
+     */
+    public PriorityGroup currentGroup() {
+        return GROUP.get();
+    }
+
+    /**
+     * Runs the given action, using the given priority as the default priority for all requests made by the current thread while it's running.
+     *
+     * @param priority the priority
+     * @param action   the action to run
+     * @return the action's return value
+     */
+    public <T> T withPriority(@NonNull RequestPriority priority, @NonNull Supplier<T> action) {
+        return withGroup(new PriorityGroup(priority), action);
+    }
+
+    /**
+     * Runs the given action, adding all requests made by the current thread while it's running to the given {@link PriorityGroup}.
+     *
+     * @param group  the group. If {@code null}, requests won't be added to any group and will be sent with the default priority
+     * @param action the action to run
+     * @return the action's return value
+     */
+    public <T> T withGroup(PriorityGroup group, @NonNull Supplier<T> action) {
+        PriorityGroup prev = GROUP.get();
+        GROUP.set(group);
+        try {
+            return action.get();
+        } finally {
+            GROUP.set(prev);
+        }
+    }
+
+    /**
+     * Makes the current thread's {@link PriorityGroup} depend on the given group, as the current thread is waiting for something which is being
+     * loaded by it.
+     *
+     * @param dependency the group to depend on. If {@code null}, this method does nothing
+     */
+    public void dependOn(PriorityGroup dependency) {
+        PriorityGroup group = GROUP.get();
+        if (group != null && dependency != null) {
+            group.dependOn(dependency);
+        }
+    }
+
+    /**
+     * Asynchronously gets the contents of the given resource, using the {@link #currentPriority() current priority}.
      *
      * @param url the url of the resource to get
      * @return a {@link CompletableFuture} which will be completed with the resource data, or {@code null} if the resource isn't found
      */
     public CompletableFuture<ByteBuf> get(@NonNull String url) {
+        return get(url, currentPriority());
+    }
+
+    /**
+     * Asynchronously gets the contents of the given resource.
+     * <p>
+     * If the returned {@link CompletableFuture} is cancelled before the request is sent, the request will not be sent at all (unless the same
+     * resource was also requested by someone else).
+     *
+     * @param url      the url of the resource to get
+     * @param priority the priority of the request
+     * @return a {@link CompletableFuture} which will be completed with the resource data, or {@code null} if the resource isn't found
+     */
+    public CompletableFuture<ByteBuf> get(@NonNull String url, @NonNull RequestPriority priority) {
         CompletableFuture<ByteBuf> future = new CompletableFuture<>();
-        get(url, future);
+        get(url, priority, future);
         return future;
     }
 
-    public void get(@NonNull String _url, @NonNull CompletableFuture<ByteBuf> future) {
+    public void get(@NonNull String url, @NonNull CompletableFuture<ByteBuf> future) {
+        get(url, currentPriority(), future);
+    }
+
+    public void get(@NonNull String url, @NonNull RequestPriority priority, @NonNull CompletableFuture<ByteBuf> future) {
+        get(url, priority, GROUP.get(), true, future);
+    }
+
+    private void get(@NonNull String url, @NonNull RequestPriority priority, PriorityGroup group, boolean storeResponse, @NonNull CompletableFuture<ByteBuf> future) {
+        //if the same URL is already being requested, simply wait for that request to complete rather than sending another one
+        while (true) {
+            InFlightRequest request = IN_FLIGHT.get(url);
+            if (request == null) {
+                InFlightRequest existing = IN_FLIGHT.putIfAbsent(url, request = new InFlightRequest(IN_FLIGHT, url, priority, storeResponse));
+                if (existing == null) { //we're the first one requesting this URL, actually send the request
+                    request.addWaiter(future, priority);
+                    if (group != null) {
+                        group.add(request);
+                    }
+                    get0(url, request);
+                    return;
+                }
+                request = existing;
+            }
+
+            if (request.addWaiter(future, priority)) { //this will raise the request's priority if necessary
+                if (group != null) { //if the group's priority is raised later on, the request's priority will be raised with it
+                    group.add(request);
+                }
+                return;
+            }
+
+            //the request completed in the meantime, make sure it's removed before trying again
+            IN_FLIGHT.remove(url, request);
+        }
+    }
+
+    private void get0(@NonNull String _url, @NonNull InFlightRequest request) {
+        CompletableFuture<ByteBuf> future = request.future;
+
         class State implements BiConsumer<ByteBuf, Throwable>, HostManager.Callback {
             URL parsed;
-            Path cacheFile;
+            String cacheKey;
+            HostManager manager;
 
             CacheEntry cacheEntry;
             ByteBuf cachedData;
@@ -118,6 +270,29 @@ public class Http {
                 return future.isDone();
             }
 
+            @Override
+            public RequestPriority priority() {
+                return request.priority();
+            }
+
+            synchronized void priorityRaised() {
+                if (this.manager != null) { //the request is currently queued, move it to the correct position in the queue
+                    this.manager.reprioritize(this);
+                }
+            }
+
+            void submit() {
+                if (TerraConfig.http.offline) { //pretend that the data doesn't exist
+                    if (!TerraConfig.reducedConsoleMessages) {
+                        TerraMod.LOGGER.info("Offline, not sending request: {}", this.parsed);
+                    }
+                    future.complete(null);
+                    return;
+                }
+
+                (this.manager = managerFor(this.parsed)).submit(this.parsed.getFile(), this, this.nextHeaders);
+            }
+
             @Override
             public synchronized void accept(ByteBuf cachedData, Throwable throwable) { //stage 1: handle value from cache
                 if (throwable != null) {
@@ -130,7 +305,23 @@ public class Http {
                         CacheEntry cacheEntry = new CacheEntry(cachedData);
 
                         long now = System.currentTimeMillis();
-                        if (cacheEntry.isStale(now)) { //attempt to revalidate response data
+                        if ((cacheEntry.isStale(now) || cacheEntry.isExpired(now)) && TerraConfig.http.offline) {
+                            //the data can't be refreshed, so the cached copy is the best we've got
+                            if (!TerraConfig.reducedConsoleMessages) {
+                                TerraMod.LOGGER.info("Offline, using outdated data from cache: {}", this.parsed);
+                            }
+                            this.handleCacheEntry(cacheEntry, cachedData);
+                            return;
+                        } else if (cacheEntry.isStale(now) && !cacheEntry.isExpired(now) && TerraConfig.http.staleWhileRevalidate) {
+                            //return the stale data immediately and refresh it in the background
+                            if (!TerraConfig.reducedConsoleMessages) {
+                                TerraMod.LOGGER.info("Cache stale, refreshing in background: {}", this.parsed);
+                            }
+
+                            this.revalidateInBackground(cacheEntry, cachedData);
+                            this.handleCacheEntry(cacheEntry, cachedData);
+                            return;
+                        } else if (cacheEntry.isStale(now)) { //attempt to revalidate response data
                             if (!TerraConfig.reducedConsoleMessages) {
                                 TerraMod.LOGGER.info("Cache stale: {}", this.parsed);
                             }
@@ -161,10 +352,18 @@ public class Http {
                 }
 
                 //cache miss, send the actual request
-                managerFor(this.parsed).submit(this.parsed.getFile(), this, this.nextHeaders);
+                this.submit();
                 this.nextHeaders = EmptyHttpHeaders.INSTANCE;
             }
 
+            void revalidateInBackground(@NonNull CacheEntry cacheEntry, @NonNull ByteBuf cachedData) {
+                if (REVALIDATING.add(this.cacheKey)) { //don't send multiple refresh requests for the same entry at once
+                    HttpHeaders headers = new DefaultHttpHeaders();
+                    cacheEntry.touch(headers);
+                    managerFor(this.parsed).submit(this.parsed.getFile(), new Revalidation(this.parsed, this.cacheKey, cacheEntry, cachedData.retain()), headers);
+                }
+            }
+
             void handleCacheEntry(@NonNull CacheEntry cacheEntry, @NonNull ByteBuf cachedData) {
                 switch (cacheEntry.status) {
                     case CacheEntry.STATUS_NOT_FOUND: //404 Not Found
@@ -228,19 +427,9 @@ public class Http {
                         copiedBuffer = response.content().copy();
                     }
                     try {
-                        ByteBuf cacheEntryBuffer = UnpooledByteBufAllocator.DEFAULT.ioBuffer();
-                        cacheEntryBuffer.writeByte(CacheEntry.CACHE_VERSION);
-                        cacheEntry.write(cacheEntryBuffer);
-
-                        ByteBuf toCacheData = UnpooledByteBufAllocator.DEFAULT.compositeBuffer(2)
-                                .addComponent(true, cacheEntryBuffer)
-                                .addComponent(true, copiedBuffer.retainedSlice());
-                        if (!cacheEntry.noCache && this.cacheFile != null) { //store in cache
-                            Disk.write(this.cacheFile, toCacheData);
-                        } else { //manually release the data that would have been written to cache
-                            toCacheData.release();
-                        }
-
+                        //responses without a body (404s and redirects) are tiny, so they're always cached
+                        boolean store = request.storeResponse || cacheEntry.status != CacheEntry.STATUS_SUCCESS;
+                        storeInCache(store ? this.cacheKey : null, cacheEntry, copiedBuffer);
                         this.handleCacheEntry(cacheEntry, copiedBuffer);
                     } finally {
                         copiedBuffer.release();
@@ -276,16 +465,105 @@ public class Http {
                     return;
                 }
 
+                Path mirroredPath = localMirrorPath(url);
+                if (mirroredPath != null) { //the URL is mirrored in a local directory, try reading it from there first
+                    Disk.read(mirroredPath).whenComplete((data, t) -> {
+                        if (t == null && data != null) {
+                            if (!TerraConfig.reducedConsoleMessages) {
+                                TerraMod.LOGGER.info("Read from local mirror: {}", mirroredPath);
+                            }
+                            if (!future.complete(data)) {
+                                data.release();
+                            }
+                        } else { //fall back to the persistent cache and the network. in offline mode, fetch() won't actually send a request
+                            if (t != null) {
+                                TerraMod.LOGGER.error("Failed to read from local mirror: " + mirroredPath, t);
+                            } else if (!TerraConfig.reducedConsoleMessages) {
+                                TerraMod.LOGGER.info("Not found in local mirror: {}", mirroredPath);
+                            }
+                            this.fetch();
+                        }
+                    });
+                    return;
+                }
+
+                this.fetch();
+            }
+
+            synchronized void fetch() {
                 if (TerraConfig.http.cache) { //attempt to read from cache
-                    this.cacheFile = Disk.cacheFileFor(this.parsed.toString());
-                    Disk.read(this.cacheFile).whenComplete(this);
+                    this.cacheKey = this.parsed.toString();
+                    Disk.readCache(this.cacheKey).whenComplete(this);
                 } else { //send the actual request
-                    managerFor(this.parsed).submit(this.parsed.getFile(), this, this.nextHeaders);
+                    this.submit();
+                }
+            }
+        }
+
+        State state = new State();
+        request.priorityListener(state::priorityRaised);
+        state.step(_url);
+    }
+
+    /**
+     * Gets the local file which the given URL is mirrored to, as configured by {@link TerraConfig.HttpOpts#localMirrors}.
+     *
+     * @param url the URL
+     * @return the local file, or {@code null} if the URL isn't mirrored locally
+     */
+    private Path localMirrorPath(@NonNull String url) {
+        for (Map.Entry<String, Path> mirror : LOCAL_MIRRORS.entrySet()) {
+            if (url.startsWith(mirror.getKey())) {
+                String relative = url.substring(mirror.getKey().length());
+                int queryIndex = relative.indexOf('?');
+                if (queryIndex >= 0) { //query parameters can't be represented in a file name
+                    relative = relative.substring(0, queryIndex);
+                }
+
+                Path root = mirror.getValue();
+                Path path = root.resolve(relative).normalize();
+                return path.startsWith(root) ? path : null; //don't allow escaping the mirror directory using ".."
+            }
+        }
+        return null;
+    }
+
+    private Map<String, Path> parseLocalMirrors() {
+        Map<String, Path> mirrors = new LinkedHashMap<>();
+        Matcher matcher = Pattern.compile("^(.+?) = (.+)$").matcher("");
+        for (String entry : TerraConfig.http.localMirrors) {
+            if (matcher.reset(entry).matches()) {
+                try {
+                    mirrors.put(matcher.group(1), Paths.get(matcher.group(2)).toAbsolutePath().normalize());
+                } catch (Exception e) {
+                    TerraMod.LOGGER.error("Invalid entry: \"" + entry + '"', e);
                 }
+            } else {
+                TerraMod.LOGGER.warn("Invalid entry: \"{}\"", entry);
             }
         }
+        return mirrors;
+    }
+
+    /**
+     * Stores a response in the persistent cache.
+     *
+     * @param cacheKey   the key to store the response at. If {@code null}, the response will not be stored
+     * @param cacheEntry the response's {@link CacheEntry}
+     * @param data       the response body
+     */
+    void storeInCache(String cacheKey, @NonNull CacheEntry cacheEntry, @NonNull ByteBuf data) {
+        if (cacheEntry.noCache || cacheKey == null) {
+            return;
+        }
+
+        ByteBuf cacheEntryBuffer = UnpooledByteBufAllocator.DEFAULT.ioBuffer();
+        cacheEntryBuffer.writeByte(CacheEntry.CACHE_VERSION);
+        cacheEntry.write(cacheEntryBuffer);
 
-        new State().step(_url);
+        Disk.writeCache(cacheKey, UnpooledByteBufAllocator.DEFAULT.compositeBuffer(2)
+                .addComponent(true, cacheEntryBuffer)
+                .addComponent(true, data.retainedSlice()), cacheEntry.expireTime);
     }
 
     /**
@@ -310,57 +588,145 @@ public class Http {
      * @return the parsed response body
      */
     public static <T> CompletableFuture<T> getFirst(@NonNull String[] urls, @NonNull EFunction<ByteBuf, T> parseFunction) {
+        return getFirst(urls, parseFunction, currentPriority());
+    }
+
+    /**
+     * Attempts to GET an array of URLs in order, returning the parsed response body of the first successful one.
+     * <p>
+     * Mirrors which have been failing recently are tried last. If {@link TerraConfig.HttpOpts#hedgedRequests} is enabled, the next URL is
+     * requested as well if a mirror takes longer than usual to respond, and whichever response arrives first is used.
+     *
+     * @param urls          the URLs
+     * @param parseFunction a function to use to parse the response body
+     * @param priority      the priority of the requests
+     * @return the parsed response body
+     */
+    public static <T> CompletableFuture<T> getFirst(@NonNull String[] urls, @NonNull EFunction<ByteBuf, T> parseFunction, @NonNull RequestPriority priority) {
+        return getFirst(urls, parseFunction, priority, true);
+    }
+
+    /**
+     * Attempts to GET an array of URLs in order, returning the parsed response body of the first successful one.
+     * <p>
+     * Mirrors which have been failing recently are tried last. If {@link TerraConfig.HttpOpts#hedgedRequests} is enabled, the next URL is
+     * requested as well if a mirror takes longer than usual to respond, and whichever response arrives first is used.
+     *
+     * @param urls           the URLs
+     * @param parseFunction  a function to use to parse the response body
+     * @param priority       the priority of the requests
+     * @param storeResponses whether or not to store the responses in the persistent cache. Callers which cache the parsed response body
+     *                       themselves may set this to {@code false} to avoid storing the same data twice. Responses which are already in the
+     *                       cache will be used either way
+     * @return the parsed response body
+     */
+    public static <T> CompletableFuture<T> getFirst(@NonNull String[] urls, @NonNull EFunction<ByteBuf, T> parseFunction, @NonNull RequestPriority priority, boolean storeResponses) {
         checkArg(urls.length > 0, "must provide at least one url");
 
+        PriorityGroup group = GROUP.get(); //subsequent URLs are requested from other threads, so they have to be added to the caller's group explicitly
+
         if (urls.length == 1) {
-            return getSingle(urls[0], parseFunction);
+            CompletableFuture<ByteBuf> request = new CompletableFuture<>();
+            get(urls[0], priority, group, storeResponses, request);
+            return parse(request, parseFunction);
+        }
+
+        //mirrors which have been failing recently are only tried once all the others have failed as well
+        long now = System.nanoTime();
+        List<String> orderedUrls = new ArrayList<>(urls.length);
+        List<String> unavailableUrls = new ArrayList<>();
+        for (String url : urls) {
+            (mirrorHealth(url).available(now) ? orderedUrls : unavailableUrls).add(url);
         }
+        orderedUrls.addAll(unavailableUrls);
 
-        class State implements BiConsumer<T, Throwable> {
+        boolean hedged = TerraConfig.http.hedgedRequests;
+
+        class State {
             final CompletableFuture<T> future = new CompletableFuture<>();
+            final List<CompletableFuture<ByteBuf>> requests = new ArrayList<>();
             List<Throwable> suppressed;
 
             /**
-             * The current iteration index.
+             * The index of the next URL to try.
              */
-            int i = -1;
+            int next;
+
+            /**
+             * The number of requests which have been sent, but haven't completed yet.
+             */
+            int pending;
 
             /**
              * Whether or not any of the URLs completed successfully, but returned {@code 404 Not Found}.
              */
             boolean foundMissing;
 
-            @Override
-            public void accept(T value, Throwable cause) {
+            synchronized void handle(@NonNull String url, T value, Throwable cause) {
+                this.pending--;
+                if (this.future.isDone()) { //another mirror already won the race
+                    return;
+                }
+
                 if (cause != null) {
                     if (this.suppressed == null) {
                         this.suppressed = new ArrayList<>();
                     }
-                    this.suppressed.add(new RuntimeException(urls[this.i], cause));
+                    this.suppressed.add(new RuntimeException(url, cause));
                 } else if (value == null) { //remember that one of the URLs 404'd
                     this.foundMissing = true;
-                } else { //complete the future successfully with the retrieved value
+                } else { //complete the future successfully with the retrieved value, and cancel any other requests which are still in progress
                     this.future.complete(value);
+                    this.requests.forEach(request -> request.cancel(false));
                     return;
                 }
 
                 this.advance();
             }
 
-            protected void advance() {
-                if (++this.i < urls.length) {
-                    getSingle(urls[this.i], parseFunction).whenComplete(this);
-                } else if (this.foundMissing) { //the best result from any of the URLs was a 404
-                    if (this.suppressed != null) {
-                        RuntimeException e = new RuntimeException();
+            synchronized void advance() {
+                if (this.future.isDone()) {
+                    return;
+                }
+
+                if (this.next < orderedUrls.size()) {
+                    String url = orderedUrls.get(this.next++);
+                    MirrorHealth health = mirrorHealth(url);
+                    long startTime = System.nanoTime();
+
+                    this.pending++;
+                    CompletableFuture<ByteBuf> request = new CompletableFuture<>();
+                    get(url, group != null && group.priority().isHigherThan(priority) ? group.priority() : priority, group, storeResponses, request);
+                    this.requests.add(request);
+                    request.whenComplete((buf, cause) -> {
+                        if (cause == null) { //a 404 still means that the mirror is working
+                            health.success(System.nanoTime() - startTime);
+                        } else if (!(cause instanceof CancellationException)) {
+                            health.failure(System.nanoTime());
+                        }
+                    });
+                    parse(request, parseFunction).whenComplete((value, cause) -> this.handle(url, value, cause));
+
+                    if (hedged && this.next < orderedUrls.size()) { //if the mirror takes unusually long to respond, try the next one in parallel
+                        NETWORK_EVENT_LOOP.schedule(() -> {
+                            if (!request.isDone()) {
+                                this.advance();
+                            }
+                        }, health.hedgeDelay(HEDGE_PERCENTILE), TimeUnit.NANOSECONDS);
+                    }
+                } else if (this.pending == 0) { //all URLs have been tried
+                    if (this.foundMissing) { //the best result from any of the URLs was a 404
+                        if (this.suppressed != null) {
+                            RuntimeException e = new RuntimeException();
+                            this.suppressed.forEach(e::addSuppressed);
+                            TerraMod.LOGGER.error("Some URLs completed exceptionally", e);
+                        }
+                        this.future.complete(null);
+                    } else {
+                        RuntimeException e = new RuntimeException("All URLs completed exceptionally!");
                         this.suppressed.forEach(e::addSuppressed);
-                        TerraMod.LOGGER.error("Some URLs completed exceptionally", e);
+                        this.future.completeExceptionally(e);
                     }
-                    this.future.complete(null);
-                } else {
-                    RuntimeException e = new RuntimeException("All URLs completed exceptionally!");
-                    this.suppressed.forEach(e::addSuppressed);
-                    this.future.completeExceptionally(e);
                 }
             }
         }
@@ -378,7 +744,23 @@ public class Http {
      * @return the parsed response body
      */
     public static <T> CompletableFuture<T> getSingle(@NonNull String url, @NonNull EFunction<ByteBuf, T> parseFunction) {
-        return get(url)
+        return getSingle(url, parseFunction, currentPriority());
+    }
+
+    /**
+     * Attempts to GET a single URL.
+     *
+     * @param url           the URL
+     * @param parseFunction a function to use to parse the response body
+     * @param priority      the priority of the request
+     * @return the parsed response body
+     */
+    public static <T> CompletableFuture<T> getSingle(@NonNull String url, @NonNull EFunction<ByteBuf, T> parseFunction, @NonNull RequestPriority priority) {
+        return parse(get(url, priority), parseFunction);
+    }
+
+    private <T> CompletableFuture<T> parse(@NonNull CompletableFuture<ByteBuf> request, @NonNull EFunction<ByteBuf, T> parseFunction) {
+        return request
                 .thenCompose(buf -> buf == null
                         ? CompletableFuture.completedFuture(null)
                         : CompletableFuture.supplyAsync(() -> {
@@ -408,6 +790,12 @@ public class Http {
     }
 
     public void configChanged() {
+        //reset all hosts to the default limit first, in case they were removed from the list
+        int defaultMaxConcurrentRequests = Math.max(TerraConfig.http.defaultMaxConcurrentRequests, 1);
+        MANAGERS.values().forEach(manager -> manager.setMaxConcurrentRequests(defaultMaxConcurrentRequests));
+
+        LOCAL_MIRRORS = parseLocalMirrors();
+
         Matcher matcher = Pattern.compile("^(\\d+): (.+)$").matcher("");
         for (String entry : TerraConfig.http.maxConcurrentRequests) {
             if (matcher.reset(entry).matches()) {
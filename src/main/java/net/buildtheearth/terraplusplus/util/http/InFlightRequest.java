@@ -0,0 +1,151 @@
+package net.buildtheearth.terraplusplus.util.http;
+
+import io.netty.buffer.ByteBuf;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+/**
+ * A request which is currently being processed by {@link Http}, and whose result is shared between everyone who requested the same URL while
+ * it was in flight.
+ *
+ * @author DaPorkchop_
+ */
+final class InFlightRequest implements BiConsumer<ByteBuf, Throwable> {
+    private final Map<String, InFlightRequest> inFlight;
+    private final String url;
+
+    /**
+     * The future which will be completed with the actual result of the request.
+     */
+    final CompletableFuture<ByteBuf> future = new CompletableFuture<>();
+
+    /**
+     * Whether or not the response should be stored in the persistent cache. If multiple callers request the same URL at once, the first one decides.
+     */
+    final boolean storeResponse;
+
+    private List<CompletableFuture<ByteBuf>> waiters = new ArrayList<>();
+
+    private volatile RequestPriority priority;
+    private Runnable priorityListener;
+
+    public InFlightRequest(@NonNull Map<String, InFlightRequest> inFlight, @NonNull String url, @NonNull RequestPriority priority, boolean storeResponse) {
+        this.inFlight = inFlight;
+        this.url = url;
+        this.priority = priority;
+        this.storeResponse = storeResponse;
+        this.future.whenComplete(this);
+    }
+
+    /**
+     * @return the highest priority of anyone waiting for this request
+     */
+    public RequestPriority priority() {
+        return this.priority;
+    }
+
+    /**
+     * Sets the function to run whenever this request's priority is raised.
+     *
+     * @param priorityListener the function
+     */
+    public synchronized void priorityListener(Runnable priorityListener) {
+        this.priorityListener = priorityListener;
+    }
+
+    /**
+     * Adds a future to be completed with the result of this request.
+     *
+     * @param waiter   the future
+     * @param priority the priority with which the waiter needs the result
+     * @return whether or not the future could be added. If {@code false}, the request has already completed.
+     */
+    public boolean addWaiter(@NonNull CompletableFuture<ByteBuf> waiter, @NonNull RequestPriority priority) {
+        synchronized (this) {
+            if (this.waiters == null) {
+                return false;
+            }
+            this.waiters.add(waiter);
+        }
+
+        this.raisePriority(priority); //the new waiter might need the result more urgently than everyone else
+
+        waiter.whenComplete((v, t) -> this.waiterCompleted());
+        return true;
+    }
+
+    /**
+     * Raises this request's priority to the given priority, if it isn't already at least as high.
+     *
+     * @param priority the new priority
+     */
+    public void raisePriority(@NonNull RequestPriority priority) {
+        Runnable priorityListener = null;
+        synchronized (this) {
+            if (this.waiters != null && priority.isHigherThan(this.priority)) {
+                this.priority = priority;
+                priorityListener = this.priorityListener;
+            }
+        }
+
+        if (priorityListener != null) { //run the listener outside of the lock
+            priorityListener.run();
+        }
+    }
+
+    /**
+     * @return whether or not this request has completed
+     */
+    public boolean isDone() {
+        return this.future.isDone();
+    }
+
+    private synchronized void waiterCompleted() {
+        if (this.waiters == null) {
+            return;
+        }
+
+        for (CompletableFuture<ByteBuf> waiter : this.waiters) {
+            if (!waiter.isDone()) {
+                return;
+            }
+        }
+
+        //everyone who was waiting for the result has given up on it, so there's no point in continuing the request
+        this.future.cancel(false);
+    }
+
+    @Override
+    public void accept(ByteBuf buf, Throwable cause) {
+        List<CompletableFuture<ByteBuf>> waiters;
+        synchronized (this) {
+            waiters = this.waiters;
+            this.waiters = null;
+        }
+        this.inFlight.remove(this.url, this);
+
+        try {
+            for (CompletableFuture<ByteBuf> waiter : waiters) {
+                if (cause != null) {
+                    waiter.completeExceptionally(cause);
+                } else if (buf == null) {
+                    waiter.complete(null);
+                } else { //each waiter gets its own view of the data
+                    ByteBuf duplicate = buf.retainedDuplicate();
+                    if (!waiter.complete(duplicate)) { //waiter was already completed
+                        duplicate.release();
+                    }
+                }
+            }
+        } finally {
+            if (buf != null) {
+                buf.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package net.buildtheearth.terraplusplus.util.http;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of the health of a single mirror (i.e. a single remote host which is used as one of multiple alternative sources for the same data).
+ * <p>
+ * A mirror which fails repeatedly is considered to be unavailable for an exponentially increasing amount of time, during which it will only be
+ * used as a last resort.
+ *
+ * @author DaPorkchop_
+ */
+final class MirrorHealth {
+    private static final int LATENCY_SAMPLES = 64;
+    private static final int MIN_LATENCY_SAMPLES = 8; //the number of samples required before the latency percentile is considered meaningful
+
+    private static final long DEFAULT_HEDGE_DELAY = TimeUnit.SECONDS.toNanos(2L);
+    private static final long MIN_HEDGE_DELAY = TimeUnit.MILLISECONDS.toNanos(50L);
+
+    private static final long MIN_BACKOFF = TimeUnit.SECONDS.toNanos(1L);
+    private static final long MAX_BACKOFF = TimeUnit.MINUTES.toNanos(5L);
+
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private int latencyCount;
+    private int latencyIndex;
+
+    private int consecutiveFailures;
+    private long unavailableUntil;
+
+    /**
+     * Notifies this mirror that a request completed successfully.
+     *
+     * @param latency the time it took for the request to complete, in nanoseconds
+     */
+    public synchronized void success(long latency) {
+        this.latencies[this.latencyIndex] = latency;
+        this.latencyIndex = (this.latencyIndex + 1) % LATENCY_SAMPLES;
+        this.latencyCount = Math.min(this.latencyCount + 1, LATENCY_SAMPLES);
+
+        this.consecutiveFailures = 0;
+    }
+
+    /**
+     * Notifies this mirror that a request failed.
+     *
+     * @param now the current time (as given by {@link System#nanoTime()})
+     */
+    public synchronized void failure(long now) {
+        long backoff = MIN_BACKOFF << Math.min(this.consecutiveFailures++, 30);
+        this.unavailableUntil = now + Math.min(backoff, MAX_BACKOFF);
+    }
+
+    /**
+     * @param now the current time (as given by {@link System#nanoTime()})
+     * @return whether or not this mirror should currently be used
+     */
+    public synchronized boolean available(long now) {
+        return this.consecutiveFailures == 0 || now - this.unavailableUntil >= 0L;
+    }
+
+    /**
+     * Gets the amount of time to wait for a response from this mirror before sending the same request to another mirror.
+     *
+     * @param percentile the latency percentile to use, in the range [0, 1]
+     * @return the delay, in nanoseconds
+     */
+    public synchronized long hedgeDelay(double percentile) {
+        if (this.latencyCount < MIN_LATENCY_SAMPLES) { //not enough samples
+            return DEFAULT_HEDGE_DELAY;
+        }
+
+        long[] sorted = Arrays.copyOf(this.latencies, this.latencyCount);
+        Arrays.sort(sorted);
+        return Math.max(sorted[Math.min((int) (percentile * this.latencyCount), this.latencyCount - 1)], MIN_HEDGE_DELAY);
+    }
+}
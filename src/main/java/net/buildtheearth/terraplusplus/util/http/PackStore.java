@@ -0,0 +1,565 @@
+package net.buildtheearth.terraplusplus.util.http;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.ints.Int2ObjectAVLTreeMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectSortedMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntLists;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import lombok.NonNull;
+import net.buildtheearth.terraplusplus.TerraMod;
+import net.daporkchop.lib.common.misc.file.PFiles;
+import net.daporkchop.lib.common.misc.string.PStrings;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+
+import static net.daporkchop.lib.common.util.PValidation.*;
+
+/**
+ * A persistent key-value store consisting of append-only data segments ("packfiles").
+ * <p>
+ * Each value is appended to the currently active segment, and its location is recorded in an in-memory index which maps the first 64 bits of the
+ * key's SHA-256 hash to the record's location. Every segment has a companion index file listing the records it contains, which allows the in-memory
+ * index to be rebuilt on startup without reading the data segments. Overwritten and expired records are only reclaimed once their segment is compacted.
+ * If the store grows too large, whole segments are evicted, starting with the oldest one.
+ * <p>
+ * Segments which are no longer being written to are memory-mapped for reading, so reads from them don't need to copy any data.
+ * <p>
+ * Any number of reads may be performed concurrently, while writes and maintenance operations require exclusive access to the store.
+ *
+ * @author DaPorkchop_
+ */
+final class PackStore {
+    private static final String DATA_EXTENSION = ".pack";
+    private static final String INDEX_EXTENSION = ".idx";
+
+    private static final int HASH_SIZE = 32;
+    private static final int RECORD_HEADER_SIZE = HASH_SIZE + 8 + 4; //hash, expiry time, length
+    private static final int INDEX_ENTRY_SIZE = 8 + 8 + 4 + 4; //key, expiry time, offset, length
+
+    private static final long MAX_SEGMENT_SIZE = 64L << 20L; //segments are also the unit of eviction, so they shouldn't be too big
+    private static final double COMPACTION_THRESHOLD = 0.5d; //segments with less than this fraction of live data will be compacted
+    private static final long COMPACTION_BATCH_SIZE = 1L << 20L; //the number of bytes to copy at once while compacting a segment
+    private static final int REMOVAL_BATCH_SIZE = 4096; //the number of expired entries to remove at once while pruning
+
+    private static byte[] hash(@NonNull String key) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 not supported", e);
+        }
+    }
+
+    private static long indexKey(@NonNull byte[] hash) {
+        long key = 0L;
+        for (int i = 0; i < 8; i++) {
+            key = (key << 8L) | (hash[i] & 0xFFL);
+        }
+        return key;
+    }
+
+    private final Path root;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Int2ObjectSortedMap<Segment> segments = new Int2ObjectAVLTreeMap<>();
+    private Segment active;
+    private volatile long totalSize;
+
+    //the index is stored as a struct of arrays, in order to keep it compact even when it contains millions of entries
+    private final Long2IntMap index = new Long2IntOpenHashMap();
+    private final IntList freeSlots = new IntArrayList();
+    private int slotCount;
+    private long[] slotKeys = new long[1024];
+    private long[] slotExpiryTimes = new long[1024];
+    private int[] slotSegments = new int[1024];
+    private int[] slotOffsets = new int[1024];
+    private int[] slotLengths = new int[1024];
+
+    public PackStore(@NonNull Path root) {
+        this.root = PFiles.ensureDirectoryExists(root.toFile()).toPath();
+        this.index.defaultReturnValue(-1);
+    }
+
+    /**
+     * Loads the index from disk and opens a new active segment.
+     * <p>
+     * Until this method has completed successfully, the store will behave as if it were empty and silently discard all writes.
+     */
+    public void open() throws IOException {
+        this.lock.writeLock().lock();
+        try {
+            this.open0();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private void open0() throws IOException {
+        long now = System.currentTimeMillis();
+
+        try (Stream<Path> stream = Files.list(this.root)) {
+            stream.map(p -> p.getFileName().toString())
+                    .filter(name -> name.matches("^[0-9a-f]{8}\\" + DATA_EXTENSION + '$'))
+                    .mapToInt(name -> Integer.parseUnsignedInt(name.substring(0, 8), 16))
+                    .sorted()
+                    .forEach(id -> this.segments.put(id, new Segment(id)));
+        }
+
+        for (Segment segment : this.segments.values()) {
+            segment.size = Files.size(segment.dataFile());
+            this.totalSize += segment.size;
+
+            Path indexFile = segment.indexFile();
+            if (!Files.exists(indexFile)) {
+                continue;
+            }
+
+            //load all entries from the segment's index, later segments override earlier ones
+            ByteBuffer entries = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+            while (entries.remaining() >= INDEX_ENTRY_SIZE) {
+                long key = entries.getLong();
+                long expiryTime = entries.getLong();
+                int offset = entries.getInt();
+                int length = entries.getInt();
+
+                if (offset + RECORD_HEADER_SIZE + (long) length > segment.size) { //record was never completely written
+                    continue;
+                }
+
+                this.remove(key);
+                if (expiryTime > now) {
+                    this.put(key, expiryTime, segment, offset, length);
+                }
+            }
+        }
+
+        //always start a new segment rather than appending to an existing one, as the last segment may have been left in an inconsistent state
+        this.rollSegment();
+    }
+
+    /**
+     * Reads the value with the given key.
+     * <p>
+     * The returned buffer's memory is managed by the garbage collector, so NIO views of it remain valid even after the buffer is released.
+     *
+     * @param key the key
+     * @return the value, or {@code null} if no value exists for the given key
+     */
+    public ByteBuf read(@NonNull String key) throws IOException {
+        byte[] hash = hash(key);
+
+        this.lock.readLock().lock();
+        try {
+            return this.read0(hash);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private ByteBuf read0(@NonNull byte[] hash) throws IOException {
+        int slot = this.index.get(indexKey(hash));
+        if (slot < 0 || this.slotExpiryTimes[slot] <= System.currentTimeMillis()) {
+            return null;
+        }
+
+        Segment segment = this.segments.get(this.slotSegments[slot]);
+        ByteBuffer record = segment.read(this.slotOffsets[slot], RECORD_HEADER_SIZE + this.slotLengths[slot]);
+
+        //make sure the record's full hash matches, in case there's a collision in the index
+        for (int i = 0; i < HASH_SIZE; i++) {
+            if (record.get(i) != hash[i]) {
+                return null;
+            }
+        }
+
+        record.position(RECORD_HEADER_SIZE);
+        return Unpooled.wrappedBuffer(record.slice());
+    }
+
+    /**
+     * Writes a value with the given key, replacing any existing value.
+     *
+     * @param key        the key
+     * @param data       the value. Will be released once it has been written.
+     * @param expiryTime the time at which the value should expire
+     */
+    public void write(@NonNull String key, @NonNull ByteBuf data, long expiryTime) throws IOException {
+        try {
+            byte[] hash = hash(key);
+
+            this.lock.writeLock().lock();
+            try {
+                if (this.active != null) { //the store has been opened successfully
+                    this.append(indexKey(hash), hash, data.nioBuffer(), expiryTime);
+                }
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        } finally {
+            data.release();
+        }
+    }
+
+    private void append(long key, @NonNull byte[] hash, @NonNull ByteBuffer data, long expiryTime) throws IOException {
+        int length = data.remaining();
+        if (this.active.size != 0L && this.active.size + RECORD_HEADER_SIZE + length > MAX_SEGMENT_SIZE) { //active segment is full
+            this.rollSegment();
+        }
+
+        Segment segment = this.active;
+        int offset = toInt(segment.size, "segment size");
+
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        header.put(hash).putLong(expiryTime).putInt(length).flip();
+        segment.write(offset, header, data);
+        this.totalSize += RECORD_HEADER_SIZE + length;
+
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+        entry.putLong(key).putLong(expiryTime).putInt(offset).putInt(length).flip();
+        while (entry.hasRemaining()) {
+            segment.indexChannel.write(entry);
+        }
+
+        this.remove(key);
+        this.put(key, expiryTime, segment, offset, length);
+    }
+
+    /**
+     * @return the total size of all segments, in bytes
+     */
+    public long size() {
+        return this.totalSize;
+    }
+
+    /**
+     * Removes all expired entries from the index, deletes the oldest segments until the store's total size no longer exceeds the given limit, and
+     * compacts segments which are mostly empty.
+     * <p>
+     * Expiry is determined entirely from the in-memory index, so segments which don't need to be modified are never touched. Scanning the index is
+     * done while holding only shared access to the store, and exclusive access is only held for short periods at a time while actually modifying
+     * it, so concurrent reads aren't stalled even when the index is huge or large amounts of data need to be compacted.
+     *
+     * @param now     the current time
+     * @param maxSize the maximum total size of the store, in bytes. If not positive, the store's size is unlimited.
+     * @return the number of bytes freed on disk
+     */
+    public long prune(long now, long maxSize) throws IOException {
+        long freed = 0L;
+
+        //remove expired entries. this doesn't touch the disk at all, so it's fast even for huge caches
+        IntList expiredSlots = this.findSlots(slot -> this.slotSegments[slot] >= 0 && this.slotExpiryTimes[slot] <= now);
+        for (int i = 0; i < expiredSlots.size(); ) {
+            this.lock.writeLock().lock();
+            try {
+                for (int batchEnd = i + REMOVAL_BATCH_SIZE; i < expiredSlots.size() && i < batchEnd; i++) {
+                    int slot = expiredSlots.getInt(i);
+                    if (this.slotSegments[slot] >= 0 && this.slotExpiryTimes[slot] <= now) { //the slot may have been re-used in the meantime
+                        this.remove(this.slotKeys[slot]);
+                    }
+                }
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+
+        this.lock.writeLock().lock();
+        try {
+            //segments which no longer contain any live records can simply be deleted
+            for (Segment segment : new ArrayList<>(this.segments.values())) {
+                if (segment != this.active && segment.liveBytes == 0L) {
+                    freed += this.drop(segment, IntLists.EMPTY_LIST);
+                }
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+
+        //evict the oldest segments one at a time until the store is small enough
+        while (maxSize > 0L) {
+            Segment oldest;
+            this.lock.readLock().lock();
+            try {
+                if (this.totalSize <= maxSize || this.segments.isEmpty()) {
+                    break;
+                }
+
+                oldest = this.segments.get(this.segments.firstIntKey());
+                if (oldest == this.active) { //the active segment can't be evicted
+                    break;
+                }
+            } finally {
+                this.lock.readLock().unlock();
+            }
+
+            IntList slots = this.findSlots(oldest);
+
+            this.lock.writeLock().lock();
+            try {
+                if (this.segments.get(oldest.id) == oldest) {
+                    freed += this.drop(oldest, slots);
+                }
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+
+        List<Segment> sparseSegments = new ArrayList<>();
+        this.lock.readLock().lock();
+        try {
+            for (Segment segment : this.segments.values()) {
+                if (segment != this.active && segment.liveBytes < segment.size * COMPACTION_THRESHOLD) {
+                    sparseSegments.add(segment);
+                }
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        for (Segment segment : sparseSegments) {
+            freed += this.compact(segment);
+        }
+        return freed;
+    }
+
+    private long compact(@NonNull Segment segment) throws IOException {
+        IntList slots = this.findSlots(segment);
+
+        //copy the remaining live records to the active segment in small batches, releasing the lock in between
+        long copied = 0L;
+        for (int i = 0; i < slots.size(); ) {
+            this.lock.writeLock().lock();
+            try {
+                if (this.segments.get(segment.id) != segment) { //segment was already deleted
+                    return 0L;
+                }
+
+                for (long batchEnd = copied + COMPACTION_BATCH_SIZE; i < slots.size() && copied < batchEnd; i++) {
+                    int slot = slots.getInt(i);
+                    if (this.slotSegments[slot] != segment.id) { //record was overwritten, removed or already moved in the meantime
+                        continue;
+                    }
+
+                    ByteBuffer record = segment.read(this.slotOffsets[slot], RECORD_HEADER_SIZE + this.slotLengths[slot]);
+                    byte[] hash = new byte[HASH_SIZE];
+                    record.get(hash);
+                    record.position(RECORD_HEADER_SIZE);
+                    this.append(this.slotKeys[slot], hash, record.slice(), this.slotExpiryTimes[slot]);
+                    copied += RECORD_HEADER_SIZE + this.slotLengths[slot];
+                }
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+
+        this.lock.writeLock().lock();
+        try {
+            return this.segments.get(segment.id) == segment ? this.drop(segment, slots) - copied : 0L;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds all the slots in the index which match the given condition.
+     * <p>
+     * This only requires shared access to the store, so the slots may have been modified by the time the caller acquires exclusive access. The
+     * caller must therefore check each slot again before using it.
+     *
+     * @param condition the condition
+     * @return the indices of the matching slots
+     */
+    private IntList findSlots(@NonNull IntPredicate condition) {
+        IntList slots = new IntArrayList();
+        this.lock.readLock().lock();
+        try {
+            for (int slot = 0; slot < this.slotCount; slot++) {
+                if (condition.test(slot)) {
+                    slots.add(slot);
+                }
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        return slots;
+    }
+
+    /**
+     * Finds all the slots in the index which point to records in the given segment.
+     * <p>
+     * No new records are ever added to segments other than the active one, so the returned list is guaranteed to contain every slot in the segment
+     * (and possibly some slots which have since been removed or re-used) as long as the segment isn't the active one.
+     *
+     * @param segment the segment
+     * @return the indices of the slots in the segment
+     */
+    private IntList findSlots(@NonNull Segment segment) {
+        return this.findSlots(slot -> this.slotSegments[slot] == segment.id);
+    }
+
+    private long drop(@NonNull Segment segment, @NonNull IntList slots) {
+        //remove all records in the segment from the index
+        for (int i = 0; i < slots.size() && segment.liveBytes > 0L; i++) {
+            int slot = slots.getInt(i);
+            if (this.slotSegments[slot] == segment.id) {
+                this.remove(this.slotKeys[slot]);
+            }
+        }
+        checkState(segment.liveBytes == 0L, "segment %08x still contains %d live bytes!", segment.id, segment.liveBytes);
+
+        this.segments.remove(segment.id);
+        this.totalSize -= segment.size;
+        segment.delete();
+        return segment.size;
+    }
+
+    private void rollSegment() throws IOException {
+        if (this.active != null) {
+            this.active.seal();
+        }
+
+        int id = this.segments.isEmpty() ? 0 : this.segments.lastIntKey() + 1;
+        this.segments.put(id, this.active = new Segment(id));
+        this.active.openForWriting();
+    }
+
+    private void put(long key, long expiryTime, @NonNull Segment segment, int offset, int length) {
+        int slot;
+        if (!this.freeSlots.isEmpty()) {
+            slot = this.freeSlots.removeInt(this.freeSlots.size() - 1);
+        } else {
+            if ((slot = this.slotCount++) == this.slotKeys.length) { //grow arrays
+                int newLength = this.slotKeys.length << 1;
+                this.slotKeys = Arrays.copyOf(this.slotKeys, newLength);
+                this.slotExpiryTimes = Arrays.copyOf(this.slotExpiryTimes, newLength);
+                this.slotSegments = Arrays.copyOf(this.slotSegments, newLength);
+                this.slotOffsets = Arrays.copyOf(this.slotOffsets, newLength);
+                this.slotLengths = Arrays.copyOf(this.slotLengths, newLength);
+            }
+        }
+
+        this.slotKeys[slot] = key;
+        this.slotExpiryTimes[slot] = expiryTime;
+        this.slotSegments[slot] = segment.id;
+        this.slotOffsets[slot] = offset;
+        this.slotLengths[slot] = length;
+        this.index.put(key, slot);
+
+        segment.liveBytes += RECORD_HEADER_SIZE + length;
+    }
+
+    private void remove(long key) {
+        int slot = this.index.remove(key);
+        if (slot >= 0) {
+            this.segments.get(this.slotSegments[slot]).liveBytes -= RECORD_HEADER_SIZE + this.slotLengths[slot];
+            this.slotSegments[slot] = -1;
+            this.freeSlots.add(slot);
+        }
+    }
+
+    /**
+     * A single segment, consisting of a data file and an index file.
+     *
+     * @author DaPorkchop_
+     */
+    private final class Segment {
+        final int id;
+        long size;
+        long liveBytes;
+
+        //only set while this segment is active
+        FileChannel dataChannel;
+        FileChannel indexChannel;
+
+        //only set once this segment is sealed and has been read from
+        ByteBuffer mapping;
+
+        Segment(int id) {
+            this.id = id;
+        }
+
+        Path dataFile() {
+            return PackStore.this.root.resolve(PStrings.fastFormat("%08x", this.id) + DATA_EXTENSION);
+        }
+
+        Path indexFile() {
+            return PackStore.this.root.resolve(PStrings.fastFormat("%08x", this.id) + INDEX_EXTENSION);
+        }
+
+        void openForWriting() throws IOException {
+            this.dataChannel = FileChannel.open(this.dataFile(), StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.indexChannel = FileChannel.open(this.indexFile(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void seal() throws IOException {
+            this.dataChannel.close();
+            this.dataChannel = null;
+            this.indexChannel.close();
+            this.indexChannel = null;
+        }
+
+        ByteBuffer read(int offset, int length) throws IOException {
+            if (this.dataChannel != null) { //segment is still being written to, read the data into a new buffer
+                ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+                while (buffer.hasRemaining()) {
+                    if (this.dataChannel.read(buffer, offset + buffer.position()) < 0) {
+                        throw new IOException("unexpected end of segment " + this.dataFile());
+                    }
+                }
+                buffer.flip();
+                return buffer;
+            }
+
+            ByteBuffer mapping;
+            synchronized (this) { //multiple readers might try to map the segment at the same time
+                if ((mapping = this.mapping) == null) { //map the entire segment into memory
+                    try (FileChannel channel = FileChannel.open(this.dataFile(), StandardOpenOption.READ)) {
+                        this.mapping = mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0L, this.size);
+                    }
+                }
+            }
+
+            ByteBuffer buffer = mapping.duplicate();
+            buffer.position(offset).limit(offset + length);
+            return buffer.slice();
+        }
+
+        void write(int offset, @NonNull ByteBuffer header, @NonNull ByteBuffer data) throws IOException {
+            long position = offset;
+            while (header.hasRemaining()) {
+                position += this.dataChannel.write(header, position);
+            }
+            while (data.hasRemaining()) {
+                position += this.dataChannel.write(data, position);
+            }
+            this.size = position;
+        }
+
+        void delete() {
+            this.mapping = null;
+            try {
+                Files.deleteIfExists(this.indexFile());
+                Files.deleteIfExists(this.dataFile());
+            } catch (IOException e) { //this can happen on windows if the segment is still mapped somewhere. the segment will be deleted again next time
+                TerraMod.LOGGER.warn("unable to delete cache segment " + this.dataFile(), e);
+            }
+        }
+    }
+}
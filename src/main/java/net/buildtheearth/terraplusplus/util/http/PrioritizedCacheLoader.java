@@ -0,0 +1,64 @@
+package net.buildtheearth.terraplusplus.util.http;
+
+import com.google.common.cache.CacheLoader;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link CacheLoader} for asynchronously loaded values which loads each value in its own {@link PriorityGroup}.
+ * <p>
+ * Since cached values are shared, the thread which started loading a value is not necessarily the one which ends up needing it most urgently.
+ * Anyone who gets a value which is still being loaded should call {@link #awaiting(Object)}, so that raising their own priority will raise
+ * the priority of the requests needed to load the value as well.
+ *
+ * @author DaPorkchop_
+ */
+@RequiredArgsConstructor
+public final class PrioritizedCacheLoader<K, V> extends CacheLoader<K, CompletableFuture<V>> {
+    @NonNull
+    private final CacheLoader<K, CompletableFuture<V>> delegate;
+
+    private final Map<K, PriorityGroup> loading = new ConcurrentHashMap<>();
+
+    @Override
+    public CompletableFuture<V> load(@NonNull K key) {
+        PriorityGroup group = new PriorityGroup(Http.currentPriority());
+        this.loading.put(key, group);
+
+        CompletableFuture<V> future = Http.withGroup(group, () -> {
+            try {
+                return this.delegate.load(key);
+            } catch (Exception e) {
+                CompletableFuture<V> f = new CompletableFuture<>();
+                f.completeExceptionally(e);
+                return f;
+            }
+        });
+        future.whenComplete((v, t) -> this.loading.remove(key, group));
+        return future;
+    }
+
+    /**
+     * Gets the {@link PriorityGroup} of the value with the given key.
+     *
+     * @param key the key
+     * @return the {@link PriorityGroup} of the value with the given key, or {@code null} if it isn't currently being loaded
+     */
+    public PriorityGroup group(@NonNull K key) {
+        return this.loading.get(key);
+    }
+
+    /**
+     * Indicates that the current thread is waiting for the value with the given key.
+     *
+     * @param key the key
+     * @see Http#dependOn(PriorityGroup)
+     */
+    public void awaiting(@NonNull K key) {
+        Http.dependOn(this.loading.get(key));
+    }
+}
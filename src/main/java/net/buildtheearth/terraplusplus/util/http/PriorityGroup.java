@@ -0,0 +1,91 @@
+package net.buildtheearth.terraplusplus.util.http;
+
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A group of requests which are all needed for the same piece of work, and whose priority can be raised together if that work becomes more urgent.
+ * <p>
+ * While a group is {@link Http#withGroup(PriorityGroup, java.util.function.Supplier) active} on a thread, every request made by that thread joins
+ * it. A group may also depend on other groups whose results it's waiting for (e.g. a tile which is already being loaded on behalf of another chunk),
+ * in which case raising the group's priority raises the priority of its dependencies as well.
+ *
+ * @author DaPorkchop_
+ */
+public final class PriorityGroup {
+    private volatile RequestPriority priority;
+
+    private final List<InFlightRequest> requests = new ArrayList<>();
+    private final List<PriorityGroup> dependencies = new ArrayList<>();
+
+    public PriorityGroup(@NonNull RequestPriority priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * @return the priority of the requests in this group
+     */
+    public RequestPriority priority() {
+        return this.priority;
+    }
+
+    /**
+     * Raises the priority of this group, and of every request and group which it depends on.
+     * <p>
+     * If the group's priority is already at least as high as the given priority, this method does nothing.
+     *
+     * @param priority the new priority
+     */
+    public void raise(@NonNull RequestPriority priority) {
+        InFlightRequest[] requests;
+        PriorityGroup[] dependencies;
+        synchronized (this) {
+            if (!priority.isHigherThan(this.priority)) {
+                return;
+            }
+            this.priority = priority;
+
+            //remove requests which have already completed while we're at it
+            this.requests.removeIf(InFlightRequest::isDone);
+            requests = this.requests.toArray(new InFlightRequest[0]);
+            dependencies = this.dependencies.toArray(new PriorityGroup[0]);
+        }
+
+        //notify everything outside of the lock, as raising a request's priority will move it in the request queue
+        for (InFlightRequest request : requests) {
+            request.raisePriority(priority);
+        }
+        for (PriorityGroup dependency : dependencies) {
+            dependency.raise(priority);
+        }
+    }
+
+    /**
+     * Makes this group depend on the given group, so that raising this group's priority will also raise the priority of the given group.
+     *
+     * @param dependency the group to depend on
+     */
+    public void dependOn(@NonNull PriorityGroup dependency) {
+        if (dependency == this) {
+            return;
+        }
+
+        RequestPriority priority;
+        synchronized (this) {
+            priority = this.priority;
+            this.dependencies.add(dependency);
+        }
+        dependency.raise(priority);
+    }
+
+    void add(@NonNull InFlightRequest request) {
+        RequestPriority priority;
+        synchronized (this) {
+            priority = this.priority;
+            this.requests.add(request);
+        }
+        request.raisePriority(priority);
+    }
+}
@@ -0,0 +1,31 @@
+package net.buildtheearth.terraplusplus.util.http;
+
+/**
+ * The priority of an HTTP request. Requests with a higher priority are always sent before requests with a lower priority to the same host.
+ * <p>
+ * Constants are declared in descending order of priority.
+ *
+ * @author DaPorkchop_
+ */
+public enum RequestPriority {
+    /**
+     * The request is needed for terrain which is being generated synchronously, so the server thread is blocked until it completes.
+     */
+    BLOCKING,
+    /**
+     * The request is needed for terrain near a player which is being generated asynchronously.
+     */
+    NEAR_PLAYER,
+    /**
+     * The request is speculative, and its result may never actually be needed.
+     */
+    PREFETCH;
+
+    /**
+     * @param other another priority
+     * @return whether or not this priority is higher than the given priority
+     */
+    public boolean isHigherThan(RequestPriority other) {
+        return this.ordinal() < other.ordinal();
+    }
+}
@@ -0,0 +1,78 @@
+package net.buildtheearth.terraplusplus.util.http;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.FullHttpResponse;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import net.buildtheearth.terraplusplus.TerraConfig;
+import net.buildtheearth.terraplusplus.TerraMod;
+
+import java.net.URL;
+
+/**
+ * A request which refreshes a stale entry in the persistent cache in the background, after the stale data has already been returned to whoever
+ * requested it.
+ *
+ * @author DaPorkchop_
+ */
+@RequiredArgsConstructor
+final class Revalidation implements HostManager.Callback {
+    @NonNull
+    private final URL url;
+    @NonNull
+    private final String cacheKey;
+    @NonNull
+    private final CacheEntry cacheEntry;
+    @NonNull
+    private final ByteBuf cachedData;
+
+    @Override
+    public boolean isCancelled() {
+        return false;
+    }
+
+    @Override
+    public RequestPriority priority() {
+        return RequestPriority.PREFETCH; //nobody is waiting for the result
+    }
+
+    @Override
+    public void handle(FullHttpResponse response, Throwable throwable) {
+        try {
+            if (throwable != null) { //the stale data will simply be used again next time
+                if (!TerraConfig.reducedConsoleMessages) {
+                    TerraMod.LOGGER.warn("Background refresh failed: {}", this.url);
+                }
+                return;
+            }
+
+            CacheEntry cacheEntry = new CacheEntry(response, this.url);
+
+            boolean notModified = cacheEntry.status == CacheEntry.STATUS_NOT_MODIFIED;
+            ByteBuf data;
+            if (notModified) {
+                cacheEntry = cacheEntry.withStatus(this.cacheEntry.status);
+                data = this.cachedData.retain();
+            } else {
+                data = response.content().copy();
+            }
+
+            try {
+                Http.storeInCache(this.cacheKey, cacheEntry, data);
+            } finally {
+                data.release();
+            }
+
+            if (!TerraConfig.reducedConsoleMessages) {
+                TerraMod.LOGGER.info(notModified
+                        ? "Background refresh succeeded, data in cache not modified: {}"
+                        : "Background refresh succeeded, updating data in cache: {}", this.url);
+            }
+        } catch (Exception e) {
+            TerraMod.LOGGER.error("Background refresh failed: " + this.url, e);
+        } finally {
+            this.cachedData.release();
+            Http.REVALIDATING.remove(this.cacheKey);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package net.buildtheearth.terraplusplus.dataset.geojson;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.LineString;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiLineString;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiPoint;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.Point;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.Polygon;
+import net.buildtheearth.terraplusplus.dataset.geojson.object.Feature;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that GeoJSON objects survive a round-trip through {@link GeoJsonBinary} unchanged.
+ *
+ * @author DaPorkchop_
+ */
+public class GeoJsonBinaryTest {
+    private static final String TEXT = String.join("\n",
+            "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[13.4050000,52.5200000]},\"properties\":{\"name\":\"Berlin\",\"place\":\"city\"},\"id\":\"node/240109189\"}",
+            "{\"type\":\"Feature\",\"geometry\":{\"type\":\"LineString\",\"coordinates\":[[-0.1275862,51.5072178],[-0.1276,51.50725],[-0.12801,51.5069]]},\"properties\":{\"highway\":\"primary\",\"name\":\"Whitehall\"},\"id\":\"way/4244999\"}",
+            "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[1,0],[1,1],[0,1],[0,0]],[[0.25,0.25],[0.75,0.25],[0.75,0.75],[0.25,0.25]]]},\"properties\":{\"natural\":\"water\",\"name\":\"city\"}}",
+            "{\"type\":\"FeatureCollection\",\"features\":[{\"type\":\"Feature\",\"geometry\":{\"type\":\"MultiPoint\",\"coordinates\":[[179.9999999,-89.9999999],[-179.9999999,89.9999999]]},\"properties\":null}]}",
+            "{\"type\":\"MultiLineString\",\"coordinates\":[[[1,2],[3,4]],[[5,6],[7,8],[9,10]]]}",
+            "{\"type\":\"MultiPolygon\",\"coordinates\":[[[[0,0],[2,0],[2,2],[0,0]]],[[[10,10],[12,10],[12,12],[10,10]]]]}",
+            "{\"type\":\"GeometryCollection\",\"geometries\":[{\"type\":\"Point\",\"coordinates\":[1.5,-2.5]},{\"type\":\"LineString\",\"coordinates\":[[1,2],[3,4]]}]}",
+            "{\"type\":\"Reference\",\"location\":\"tile/12/34.json\"}");
+
+    @Test
+    public void testText() {
+        GeoJsonObject[] objects = GeoJson.parseAll(Unpooled.wrappedBuffer(TEXT.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(8, objects.length);
+        assertArrayEquals(objects, roundTrip(objects));
+    }
+
+    @Test
+    public void testRandom() {
+        Random r = new Random(12345L);
+
+        GeoJsonObject[] objects = new GeoJsonObject[1000];
+        for (int i = 0; i < objects.length; i++) {
+            Map<String, String> properties = new HashMap<>();
+            for (int j = r.nextInt(4); j > 0; j--) { //re-use a few keys and values, so that the string table is exercised
+                properties.put("key" + r.nextInt(8), "value" + r.nextInt(8));
+            }
+
+            Geometry geometry;
+            switch (r.nextInt(4)) {
+                case 0:
+                    geometry = new Point(randomCoord(r, 180.0d), randomCoord(r, 90.0d));
+                    break;
+                case 1:
+                    geometry = new MultiPoint(randomCoords(r, 1 + r.nextInt(10), false));
+                    break;
+                case 2:
+                    geometry = new MultiLineString(new LineString[]{ new LineString(randomCoords(r, 2 + r.nextInt(20), false)) });
+                    break;
+                default:
+                    geometry = new Polygon(new LineString(randomCoords(r, 4 + r.nextInt(20), true)), new LineString[]{
+                            new LineString(randomCoords(r, 4, true))
+                    });
+            }
+            objects[i] = new Feature(geometry, r.nextBoolean() ? properties : null, r.nextBoolean() ? "way/" + r.nextInt() : null);
+        }
+
+        assertArrayEquals(objects, roundTrip(objects));
+    }
+
+    private static GeoJsonObject[] roundTrip(GeoJsonObject[] objects) {
+        ByteBuf buf = Unpooled.buffer();
+        try {
+            GeoJson.toBinary(objects, buf);
+            assertTrue(GeoJsonBinary.isBinary(buf));
+
+            GeoJsonObject[] decoded = GeoJson.parseAll(buf);
+            assertFalse("trailing data", buf.isReadable());
+            return decoded;
+        } finally {
+            buf.release();
+        }
+    }
+
+    /**
+     * @return a random coordinate at the precision which {@link GeoJsonBinary} preserves exactly
+     */
+    private static double randomCoord(Random r, double range) {
+        return Math.round((r.nextDouble() * 2.0d - 1.0d) * range * 1e7d) / 1e7d;
+    }
+
+    private static double[] randomCoords(Random r, int count, boolean closed) {
+        double[] coords = new double[count << 1];
+        for (int i = 0; i < coords.length; i += 2) {
+            coords[i] = randomCoord(r, 180.0d);
+            coords[i + 1] = randomCoord(r, 90.0d);
+        }
+        if (closed) {
+            coords[coords.length - 2] = coords[0];
+            coords[coords.length - 1] = coords[1];
+        }
+        return coords;
+    }
+}
@@ -0,0 +1,148 @@
+package net.buildtheearth.terraplusplus.dataset.geojson;
+
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that {@link GeoJsonReader} parses GeoJSON text exactly the same way as {@link GeoJson#parse(String)}.
+ *
+ * @author DaPorkchop_
+ */
+public class GeoJsonReaderTest {
+    private static final String[] OBJECTS = {
+            "{\"type\":\"Point\",\"coordinates\":[13.405,52.52]}",
+            "{\"type\":\"Point\",\"coordinates\":[13.405,52.52,34.5]}",
+            "{ \"type\" : \"LineString\" , \"coordinates\" : [ [ -0.1275862 , 51.5072178 ] ,\n\t[-0.1276,51.50725,10] ]\r\n}",
+            "{\"type\":\"MultiPoint\",\"coordinates\":[[179.9999999,-89.9999999],[-179.9999999,89.9999999]]}",
+            "{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[1,0],[1,1],[0,1],[0,0]],[[0.25,0.25],[0.75,0.25],[0.75,0.75],[0.25,0.25]]]}",
+            "{\"type\":\"MultiLineString\",\"coordinates\":[[[1,2],[3,4]],[[5,6],[7,8],[9,10]]]}",
+            "{\"type\":\"MultiPolygon\",\"coordinates\":[[[[0,0],[2,0],[2,2],[0,0]]],[[[10,10],[12,10],[12,12],[10,10]]]]}",
+            "{\"type\":\"GeometryCollection\",\"geometries\":[{\"type\":\"Point\",\"coordinates\":[1.5,-2.5]},{\"type\":\"LineString\",\"coordinates\":[[1,2],[3,4]]}]}",
+            "{\"type\":\"GeometryCollection\",\"geometries\":[]}",
+            "{\"type\":\"Reference\",\"location\":\"tile/12/34.json\"}",
+            "{\"type\":\"FeatureCollection\",\"features\":[]}",
+            "{\"type\":\"FeatureCollection\",\"features\":[{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[1,2]},\"properties\":null}]}",
+            //escapes
+            "{\"type\":\"Feature\",\"properties\":{\"name\":\"a \\\"quoted\\\" \\\\ back\\/slash\",\"note\":\"\\b\\f\\n\\r\\t\"}}",
+            "{\"type\":\"Feature\",\"properties\":{\"name:de\":\"K\\u00f6ln \\u00C4\",\"emoji\":\"\\ud83d\\ude00\",\"\\u006bey\":\"\\u0000\"}}",
+            "{\"type\":\"Feature\",\"properties\":{\"name\":\"K\u00f6ln\",\"name:zh\":\"\u79d1\u9686\",\"mixed\":\"\u79d1\\n\u9686\"}}",
+            "{\"type\":\"Reference\",\"location\":\"tile\\/12\\/34.json\"}",
+            //ids
+            "{\"type\":\"Feature\",\"properties\":{},\"id\":\"way/4244999\"}",
+            "{\"type\":\"Feature\",\"properties\":{},\"id\":4244999}",
+            "{\"type\":\"Feature\",\"properties\":{},\"id\":-42}",
+            "{\"type\":\"Feature\",\"properties\":{},\"id\":12345678901234567890123}",
+            "{\"type\":\"Feature\",\"properties\":{},\"id\":1.50}",
+            "{\"type\":\"Feature\",\"properties\":{},\"id\":1e5}",
+            "{\"type\":\"Feature\",\"properties\":{},\"id\":-0}",
+            "{\"type\":\"Feature\",\"properties\":{},\"id\":null}",
+            "{\"type\":\"Feature\",\"id\":7,\"properties\":{\"a\":\"b\"},\"geometry\":{\"type\":\"Point\",\"coordinates\":[0,0]}}",
+            //property values
+            "{\"type\":\"Feature\",\"properties\":{\"name\":null,\"highway\":\"primary\"}}",
+            "{\"type\":\"Feature\",\"properties\":{\"name\":null}}",
+            "{\"type\":\"Feature\",\"properties\":{\"lanes\":2,\"width\":-3.5e0,\"layer\":-0}}",
+            "{\"type\":\"Feature\",\"properties\":{\"highway\":\"primary\",\"highway\":\"secondary\"}}",
+            "{\"type\":\"Feature\",\"properties\":{ }}",
+            "{\"type\":\"Feature\"}",
+    };
+
+    private static final String[] NUMBERS = {
+            "0", "-0", "0.0", "-0.0", "0e10", "-0e-10", "1", "-1", "0.1", "-0.1", "1.5", "1E+2", "1e-2", "1.25e1",
+            //the fast path can only be used for exponents between -22 and 22
+            "1e22", "1e23", "1e-22", "1e-23", "9e22", "9e-22", "123.456e20", "123.456e-20", "0.000000000000000000000001", "1000000000000000000000000",
+            //the fast path can only be used for mantissas below 2^53
+            "9007199254740991", "9007199254740992", "9007199254740993", "900719925474099.1", "900719925474099.7", "9007199254740993e-5",
+            //more than 17 significant digits
+            "1.2345678901234567890123", "123456789012345678901234567890", "0.30000000000000000000000000000001",
+            "179.99999999999999999999", "-89.999999999999999999999", "3.14159265358979323846264338327950288",
+            "1.00000000000000000000000000000000000000000000000000000000000000001",
+            //extreme values
+            "4.9e-324", "2.2250738585072014E-308", "2.2250738585072011e-308", "1.7976931348623157e308", "1e-400",
+    };
+
+    @Test
+    public void testObjects() {
+        for (String json : OBJECTS) {
+            check(json);
+        }
+
+        //objects may be separated by any amount of whitespace
+        String all = String.join("\n", OBJECTS);
+        GeoJsonObject[] actual = GeoJson.parseAll(Unpooled.wrappedBuffer(all.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(OBJECTS.length, actual.length);
+        for (int i = 0; i < OBJECTS.length; i++) {
+            assertEquals(OBJECTS[i], GeoJson.parse(OBJECTS[i]), actual[i]);
+        }
+    }
+
+    @Test
+    public void testNumbers() {
+        List<String> numbers = new ArrayList<>();
+        for (String number : NUMBERS) {
+            numbers.add(number);
+            if (number.charAt(0) != '-') {
+                numbers.add('-' + number);
+            }
+        }
+
+        Random r = new Random(12345L);
+        for (int i = 0; i < 100000; i++) {
+            numbers.add(randomNumber(r));
+        }
+        for (int i = 0; i < 10000; i++) { //shortest representations of arbitrary doubles
+            double d = Double.longBitsToDouble(r.nextLong());
+            if (Double.isFinite(d)) {
+                numbers.add(Double.toString(d));
+            }
+        }
+
+        for (String number : numbers) {
+            check("{\"type\":\"Point\",\"coordinates\":[" + number + ',' + number + "]}");
+        }
+    }
+
+    private static void check(String json) {
+        GeoJsonObject expected = GeoJson.parse(json);
+        GeoJsonObject[] actual = GeoJson.parseAll(Unpooled.wrappedBuffer(json.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(json, 1, actual.length);
+        assertEquals(json, expected, actual[0]);
+    }
+
+    private static String randomNumber(Random r) {
+        StringBuilder builder = new StringBuilder();
+        if (r.nextBoolean()) {
+            builder.append('-');
+        }
+
+        //integer part, without leading zeroes
+        int integerDigits = r.nextInt(4) == 0 ? 1 + r.nextInt(25) : 1 + r.nextInt(4);
+        builder.append(integerDigits == 1 ? r.nextInt(10) : 1 + r.nextInt(9));
+        for (int i = 1; i < integerDigits; i++) {
+            builder.append(r.nextInt(10));
+        }
+
+        if (r.nextInt(4) != 0) { //fractional part
+            builder.append('.');
+            for (int i = 1 + r.nextInt(r.nextBoolean() ? 8 : 25); i > 0; i--) {
+                builder.append(r.nextInt(10));
+            }
+        }
+
+        if (r.nextInt(3) == 0) { //exponent
+            builder.append(r.nextBoolean() ? 'e' : 'E');
+            int exponent = r.nextInt(4) == 0 ? r.nextInt(600) - 300 : r.nextInt(60) - 30;
+            if (exponent >= 0 && r.nextBoolean()) {
+                builder.append('+');
+            }
+            builder.append(exponent);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,202 @@
+package net.buildtheearth.terraplusplus.dataset.vector;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import lombok.NonNull;
+import net.buildtheearth.terraplusplus.dataset.geojson.Geometry;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.LineString;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiLineString;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.MultiPolygon;
+import net.buildtheearth.terraplusplus.dataset.geojson.geometry.Polygon;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMMapper;
+import net.buildtheearth.terraplusplus.dataset.osm.OSMTags;
+import net.buildtheearth.terraplusplus.dataset.vector.draw.DrawFunction;
+import net.buildtheearth.terraplusplus.dataset.vector.geometry.AbstractVectorGeometry;
+import net.buildtheearth.terraplusplus.dataset.vector.geometry.Segment;
+import net.buildtheearth.terraplusplus.dataset.vector.geometry.VectorGeometry;
+import net.buildtheearth.terraplusplus.dataset.vector.geometry.line.AbstractLine;
+import net.buildtheearth.terraplusplus.dataset.vector.geometry.line.NarrowLine;
+import net.buildtheearth.terraplusplus.dataset.vector.geometry.line.SharpLine;
+import net.buildtheearth.terraplusplus.dataset.vector.geometry.line.WideLine;
+import net.buildtheearth.terraplusplus.dataset.vector.geometry.polygon.AbstractPolygon;
+import net.buildtheearth.terraplusplus.dataset.vector.geometry.polygon.DistancePolygon;
+import net.buildtheearth.terraplusplus.dataset.vector.geometry.polygon.FillPolygon;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that {@link VectorGeometry} elements survive a round-trip through {@link VectorGeometrySerializer} unchanged.
+ *
+ * @author DaPorkchop_
+ */
+public class VectorGeometrySerializerTest {
+    private static final Comparator<Segment> SEGMENT_ORDER = Comparator.comparingDouble(Segment::x0).thenComparingDouble(Segment::z0)
+            .thenComparingDouble(Segment::x1).thenComparingDouble(Segment::z1);
+
+    private static final DrawFunction[] DRAWS = {
+            (data, x, z, weight) -> {
+            },
+            (data, x, z, weight) -> {
+            },
+            (data, x, z, weight) -> {
+            }
+    };
+
+    private static final OSMMapper<Geometry> MAPPER = new OSMMapper<Geometry>() {
+        @Override
+        public Collection<VectorGeometry> apply(String id, @NonNull OSMTags tags, @NonNull Geometry originalGeometry, @NonNull Geometry projectedGeometry) {
+            return null;
+        }
+
+        @Override
+        public void forEachDrawFunction(@NonNull Consumer<DrawFunction> action) {
+            for (DrawFunction draw : DRAWS) {
+                action.accept(draw);
+            }
+        }
+    };
+
+    @Test
+    public void test() throws ReflectiveOperationException {
+        Random r = new Random(12345L);
+        VectorGeometrySerializer serializer = new VectorGeometrySerializer(MAPPER);
+
+        for (int iteration = 0; iteration < 200; iteration++) {
+            VectorGeometry[] elements = new VectorGeometry[1 + r.nextInt(20)];
+            for (int i = 0; i < elements.length; i++) {
+                String id = r.nextBoolean() ? "way/" + r.nextInt() : "relation/\u00fc\u4e16" + r.nextInt(100);
+                double layer = r.nextBoolean() ? r.nextInt(5) - 2 : (r.nextDouble() - 0.5d) * 100.0d;
+                DrawFunction draw = DRAWS[r.nextInt(DRAWS.length)];
+
+                switch (r.nextInt(5)) {
+                    case 0:
+                        elements[i] = new NarrowLine(id, layer, draw, randomLines(r));
+                        break;
+                    case 1:
+                        elements[i] = new SharpLine(id, layer, draw, randomLines(r));
+                        break;
+                    case 2:
+                        elements[i] = new WideLine(id, layer, draw, randomLines(r), r.nextDouble() * 8.0d);
+                        break;
+                    case 3:
+                        elements[i] = new FillPolygon(id, layer, draw, randomPolygons(r));
+                        break;
+                    default:
+                        elements[i] = new DistancePolygon(id, layer, draw, randomPolygons(r), 1 + r.nextInt(16));
+                }
+            }
+
+            ByteBuf buf = Unpooled.buffer();
+            try {
+                serializer.write(elements, buf);
+                VectorGeometry[] decoded = serializer.read(buf);
+
+                assertEquals(elements.length, decoded.length);
+                for (int i = 0; i < elements.length; i++) {
+                    check((AbstractVectorGeometry) elements[i], (AbstractVectorGeometry) decoded[i]);
+                }
+            } finally {
+                buf.release();
+            }
+        }
+    }
+
+    private static void check(AbstractVectorGeometry expected, AbstractVectorGeometry actual) throws ReflectiveOperationException {
+        assertSame(expected.getClass(), actual.getClass());
+        assertEquals(expected.id(), actual.id());
+        assertEquals(Double.doubleToRawLongBits(expected.layer()), Double.doubleToRawLongBits(actual.layer()));
+        assertSame(expected.draw(), actual.draw());
+
+        assertEquals(expected.minX(), actual.minX(), 0.0d);
+        assertEquals(expected.maxX(), actual.maxX(), 0.0d);
+        assertEquals(expected.minZ(), actual.minZ(), 0.0d);
+        assertEquals(expected.maxZ(), actual.maxZ(), 0.0d);
+
+        if (expected instanceof AbstractLine) { //the order of the segments isn't preserved
+            assertEquals(sorted(((AbstractLine) expected).segments()), sorted(((AbstractLine) actual).segments()));
+        } else { //edges with the same minimum X coordinate may be stored in any order
+            assertEquals(sorted(edges((AbstractPolygon) expected)), sorted(edges((AbstractPolygon) actual)));
+        }
+
+        if (expected instanceof WideLine) {
+            assertEquals(field(WideLine.class, "radius", expected), field(WideLine.class, "radius", actual));
+        } else if (expected instanceof DistancePolygon) {
+            assertEquals(field(DistancePolygon.class, "maxDist", expected), field(DistancePolygon.class, "maxDist", actual));
+        }
+    }
+
+    private static Object field(Class<?> clazz, String name, Object instance) throws ReflectiveOperationException {
+        Field field = clazz.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(instance);
+    }
+
+    private static List<Segment> sorted(Iterable<Segment> segments) {
+        List<Segment> list = new ArrayList<>();
+        segments.forEach(list::add);
+        list.sort(SEGMENT_ORDER);
+        return list;
+    }
+
+    private static List<Segment> edges(AbstractPolygon polygon) throws ReflectiveOperationException {
+        double[] edges = (double[]) field(AbstractPolygon.class, "edges", polygon);
+
+        List<Segment> segments = new ArrayList<>();
+        for (int i = 0; i < edges.length; i += 4) {
+            segments.add(new Segment(edges[i], edges[i + 1], edges[i + 2], edges[i + 3]));
+        }
+        return segments;
+    }
+
+    private static MultiLineString randomLines(Random r) {
+        LineString[] lines = new LineString[1 + r.nextInt(5)];
+        for (int i = 0; i < lines.length; i++) {
+            double[] coords = randomCoords(r, 2 + r.nextInt(20));
+            if (i > 0 && r.nextBoolean()) { //continue from the end of the previous line
+                double[] previous = lines[i - 1].coords();
+                coords[0] = previous[previous.length - 2];
+                coords[1] = previous[previous.length - 1];
+            }
+            lines[i] = new LineString(coords);
+        }
+        return new MultiLineString(lines);
+    }
+
+    private static MultiPolygon randomPolygons(Random r) {
+        Polygon[] polygons = new Polygon[1 + r.nextInt(3)];
+        for (int i = 0; i < polygons.length; i++) {
+            LineString[] innerRings = new LineString[r.nextInt(3)];
+            for (int j = 0; j < innerRings.length; j++) {
+                innerRings[j] = randomRing(r, 3 + r.nextInt(5));
+            }
+            polygons[i] = new Polygon(randomRing(r, 3 + r.nextInt(20)), innerRings);
+        }
+        return new MultiPolygon(polygons);
+    }
+
+    private static LineString randomRing(Random r, int count) {
+        double[] coords = randomCoords(r, count + 1);
+        coords[count << 1] = coords[0];
+        coords[(count << 1) + 1] = coords[1];
+        return new LineString(coords);
+    }
+
+    private static double[] randomCoords(Random r, int count) {
+        double[] coords = new double[count << 1];
+        for (int i = 0; i < coords.length; i++) {
+            coords[i] = r.nextBoolean()
+                    ? r.nextInt(16) - 8 //a coarse grid around the origin, so that vertices are frequently shared between segments and elements
+                    : (r.nextDouble() - 0.5d) * 2.0e7d; //arbitrary values, which must not be quantized
+        }
+        return coords;
+    }
+}
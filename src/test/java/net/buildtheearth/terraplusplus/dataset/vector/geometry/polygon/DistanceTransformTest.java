@@ -0,0 +1,65 @@
+package net.buildtheearth.terraplusplus.dataset.vector.geometry.polygon;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks {@link DistanceTransform} against a brute-force search for the nearest block.
+ *
+ * @author DaPorkchop_
+ */
+public class DistanceTransformTest {
+    @Test
+    public void test() {
+        Random r = new Random(12345L);
+
+        for (int margin : new int[]{ 0, 1, 5, 16 }) {
+            for (int iteration = 0; iteration < 50; iteration++) {
+                DistanceTransform transform = DistanceTransform.get(margin);
+                int size = transform.size();
+                assertEquals(16 + (margin << 1), size);
+
+                //vary the density, so that there are both grids where the nearest block is far away and grids which are empty or full
+                double density = r.nextInt(8) == 0 ? r.nextInt(2) : r.nextDouble() * r.nextDouble();
+                boolean[][] grid = new boolean[size][size];
+                for (int x = 0; x < size; x++) {
+                    boolean[] column = transform.beginColumn();
+                    for (int z = 0; z < size; z++) {
+                        column[z] = grid[x][z] = r.nextDouble() < density;
+                    }
+                    transform.endColumn(x);
+                }
+                transform.finish();
+
+                for (int x = 0; x < 16; x++) {
+                    for (int z = 0; z < 16; z++) {
+                        check(grid, margin, x, z, true, transform.nearestInside()[x * 16 + z]);
+                        check(grid, margin, x, z, false, transform.nearestOutside()[x * 16 + z]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void check(boolean[][] grid, int margin, int x, int z, boolean inside, int actual) {
+        int expected = Integer.MAX_VALUE;
+        for (int gx = 0; gx < grid.length; gx++) {
+            for (int gz = 0; gz < grid.length; gz++) {
+                if (grid[gx][gz] == inside) {
+                    int dx = gx - (x + margin);
+                    int dz = gz - (z + margin);
+                    expected = Math.min(expected, dx * dx + dz * dz);
+                }
+            }
+        }
+
+        if (expected == Integer.MAX_VALUE) { //there is no such block in the grid, so the result only has to be further away than any block could be
+            assertTrue("distance to missing block must be out of range", actual >= grid.length * grid.length);
+        } else {
+            assertEquals("squared distance at " + x + ',' + z + " (inside=" + inside + ')', expected, actual);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package net.buildtheearth.terraplusplus.dataset.vector.geometry.polygon;
+
+import net.buildtheearth.terraplusplus.dataset.vector.geometry.Segment;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks {@link Scanline} against a brute-force search over all of a polygon's edges.
+ *
+ * @author DaPorkchop_
+ */
+public class ScanlineTest {
+    @Test
+    public void test() {
+        Random r = new Random(12345L);
+
+        for (int iteration = 0; iteration < 500; iteration++) {
+            //build a polygon out of a few random closed rings. coordinates are snapped to a coarse grid, so that the line frequently passes exactly
+            // through vertices and along horizontal or vertical segments
+            List<Segment> segments = new ArrayList<>();
+            for (int ring = 1 + r.nextInt(3); ring > 0; ring--) {
+                int count = 3 + r.nextInt(50);
+                double[] xs = new double[count];
+                double[] zs = new double[count];
+                for (int i = 0; i < count; i++) {
+                    xs[i] = r.nextInt(64) * 0.5d;
+                    zs[i] = r.nextInt(64) * 0.5d;
+                }
+                for (int i = 0; i < count; i++) {
+                    int next = (i + 1) % count;
+                    segments.add(new Segment(xs[i], zs[i], xs[next], zs[next]));
+                }
+            }
+
+            double[] edges = AbstractPolygon.toEdges(segments);
+            Scanline scanline = Scanline.get(edges, Scanline.runningMaxX(edges));
+
+            //sweep forwards first, then jump around randomly to exercise re-seeding the active edge table
+            for (double x = -1.0d; x <= 33.0d; x += 0.25d) {
+                check(segments, scanline, x);
+            }
+            for (int i = 0; i < 100; i++) {
+                check(segments, scanline, r.nextInt(140) * 0.25d - 1.0d);
+            }
+        }
+    }
+
+    private static void check(List<Segment> segments, Scanline scanline, double x) {
+        int count = scanline.advance(x);
+        double[] actual = Arrays.copyOf(scanline.points(), count);
+
+        //every closed ring crosses the line an even number of times, so the polygon's spans must be properly paired
+        assertEquals("odd number of crossings at x=" + x, 0, count & 1);
+
+        List<Double> expected = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (segment.minX() <= x && x < segment.maxX()) {
+                double t = (segment.x0() - x) / (segment.x0() - segment.x1());
+                expected.add(segment.z0() + (segment.z1() - segment.z0()) * t);
+            }
+        }
+        assertEquals("wrong number of crossings at x=" + x, expected.size(), count);
+
+        double[] expectedPoints = expected.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+        assertArrayEquals("wrong crossings at x=" + x, expectedPoints, actual, 1e-9d);
+    }
+}
@@ -0,0 +1,56 @@
+package net.buildtheearth.terraplusplus.projection;
+
+import net.buildtheearth.terraplusplus.projection.dymaxion.BTEDymaxionProjection;
+import net.buildtheearth.terraplusplus.projection.mercator.WebMercatorProjection;
+import net.buildtheearth.terraplusplus.projection.transform.FlipVerticalProjectionTransform;
+import net.buildtheearth.terraplusplus.projection.transform.OffsetProjectionTransform;
+import net.buildtheearth.terraplusplus.projection.transform.RotateProjectionTransform;
+import net.buildtheearth.terraplusplus.projection.transform.ScaleProjectionTransform;
+import net.buildtheearth.terraplusplus.projection.transform.SwapAxesProjectionTransform;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that {@link GeographicProjection#fromGeo(double[], int, int)} gives exactly the same results as projecting each point individually.
+ *
+ * @author DaPorkchop_
+ */
+public class BulkProjectionTest {
+    @Test
+    public void test() throws OutOfProjectionBoundsException {
+        check(new EquirectangularProjection());
+        check(new BTEDymaxionProjection());
+        check(new ScaleProjectionTransform(new FlipVerticalProjectionTransform(new BTEDymaxionProjection()), 7318261.522857145d, 7318261.522857145d));
+        check(new OffsetProjectionTransform(new SwapAxesProjectionTransform(new EquirectangularProjection()), 12.5d, -3.0d));
+        check(new RotateProjectionTransform(new WebMercatorProjection(0), 30.0d)); //uses the default implementation
+    }
+
+    private static void check(GeographicProjection projection) throws OutOfProjectionBoundsException {
+        Random r = new Random(12345L);
+
+        int count = 10000;
+        double[] coords = new double[(count + 2) << 1];
+        for (int i = 0; i < coords.length; i += 2) {
+            coords[i] = r.nextDouble() * 360.0d - 180.0d;
+            coords[i + 1] = r.nextDouble() * 170.0d - 85.0d; //web mercator doesn't extend all the way to the poles
+        }
+
+        double[] projected = coords.clone();
+        projection.fromGeo(projected, 1, count);
+
+        //points outside of the given range must be left alone
+        assertEquals(coords[0], projected[0], 0.0d);
+        assertEquals(coords[1], projected[1], 0.0d);
+        assertEquals(coords[coords.length - 2], projected[coords.length - 2], 0.0d);
+        assertEquals(coords[coords.length - 1], projected[coords.length - 1], 0.0d);
+
+        for (int i = 2; i < coords.length - 2; i += 2) {
+            double[] expected = projection.fromGeo(coords[i], coords[i + 1]);
+            assertEquals(projection + " x", expected[0], projected[i], 0.0d);
+            assertEquals(projection + " y", expected[1], projected[i + 1], 0.0d);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package net.buildtheearth.terraplusplus.util.bvh;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks {@link RTreeBVH} against a brute-force search over all of its values, and batch queries against individual ones.
+ *
+ * @author DaPorkchop_
+ */
+public class RTreeBVHTest {
+    @Test
+    public void testForEachIntersecting() {
+        Random r = new Random(12345L);
+
+        //cover single-node trees, exactly full nodes and multiple levels (smaller trees are never built as R-trees, see BVH#of)
+        int[] sizes = { 2, RTreeBVH.NODE_CAPACITY - 1, RTreeBVH.NODE_CAPACITY, RTreeBVH.NODE_CAPACITY + 1, 100, 1000, 10000 };
+        for (int size : sizes) {
+            Bounds2d[] values = new Bounds2d[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = randomBounds(r, 1000.0d, r.nextInt(4) == 0 ? 0.0d : 50.0d);
+            }
+            RTreeBVH<Bounds2d> bvh = new RTreeBVH<>(values);
+            assertEquals(size, bvh.size());
+
+            for (int query = 0; query < 200; query++) {
+                Bounds2d bb = randomBounds(r, 1200.0d, r.nextInt(10) == 0 ? 2000.0d : 100.0d);
+
+                Set<Bounds2d> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (Bounds2d value : values) {
+                    if (value.intersects(bb)) {
+                        expected.add(value);
+                    }
+                }
+
+                List<Bounds2d> actual = new ArrayList<>();
+                bvh.forEachIntersecting(bb, actual::add);
+                assertEquals("values must only be visited once", expected.size(), actual.size());
+                for (Bounds2d value : actual) {
+                    assertTrue("value doesn't intersect the query", expected.contains(value));
+                }
+
+                assertEquals(expected.size(), bvh.getAllIntersecting(bb).size());
+            }
+        }
+    }
+
+    @Test
+    public void testEdgeContact() {
+        //boxes which only touch each other's edges or corners still intersect
+        Bounds2d[] values = new Bounds2d[16 * 16];
+        for (int i = 0; i < values.length; i++) {
+            int x = i & 15;
+            int z = i >> 4;
+            values[i] = Bounds2d.of(x, x + 1, z, z + 1);
+        }
+        RTreeBVH<Bounds2d> bvh = new RTreeBVH<>(values);
+
+        assertEquals(4, bvh.getAllIntersecting(Bounds2d.of(2.0d, 2.0d, 3.0d, 3.0d)).size());
+        assertEquals(2, bvh.getAllIntersecting(Bounds2d.of(1.5d, 1.5d, 3.0d, 3.0d)).size());
+        assertEquals(1, bvh.getAllIntersecting(Bounds2d.of(-1.0d, 0.0d, -1.0d, 0.0d)).size());
+        assertEquals(0, bvh.getAllIntersecting(Bounds2d.of(-1.0d, -0.5d, -1.0d, 0.0d)).size());
+        assertEquals(values.length, bvh.getAllIntersecting(bvh).size());
+    }
+
+    @Test
+    public void testBatchForEachIntersecting() {
+        Random r = new Random(54321L);
+
+        //include the sizes which BVH#of builds as an EmptyBVH or SingletonBVH, which have their own implementations
+        for (int size : new int[]{ 0, 1, 2, RTreeBVH.NODE_CAPACITY + 1, 1000, 10000 }) {
+            Bounds2d[] values = new Bounds2d[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = randomBounds(r, 1000.0d, r.nextInt(4) == 0 ? 0.0d : 50.0d);
+            }
+            BVH<Bounds2d> bvh = size >= 2 ? new RTreeBVH<>(values) : BVH.of(values);
+
+            for (int iteration = 0; iteration < 20; iteration++) {
+                Bounds2d[] queries;
+                if ((iteration & 1) == 0) { //a grid of adjacent boxes, like the chunks of a region
+                    int gridSize = 1 + r.nextInt(8);
+                    double cellSize = 1.0d + r.nextInt(64);
+                    double x = (r.nextDouble() - 0.5d) * 1200.0d;
+                    double z = (r.nextDouble() - 0.5d) * 1200.0d;
+                    queries = new Bounds2d[gridSize * gridSize];
+                    for (int i = 0; i < queries.length; i++) {
+                        double cx = x + (i % gridSize) * cellSize;
+                        double cz = z + (i / gridSize) * cellSize;
+                        queries[i] = Bounds2d.of(cx, cx + cellSize, cz, cz + cellSize);
+                    }
+                } else { //random boxes which may overlap each other
+                    queries = new Bounds2d[r.nextInt(100)];
+                    for (int i = 0; i < queries.length; i++) {
+                        queries[i] = randomBounds(r, 1200.0d, 100.0d);
+                    }
+                }
+
+                List<List<Bounds2d>> expected = new ArrayList<>();
+                for (Bounds2d query : queries) {
+                    List<Bounds2d> list = new ArrayList<>();
+                    bvh.forEachIntersecting(query, list::add);
+                    expected.add(list);
+                }
+
+                List<List<Bounds2d>> actual = new ArrayList<>();
+                for (int i = 0; i < queries.length; i++) {
+                    actual.add(new ArrayList<>());
+                }
+                bvh.forEachIntersecting(queries, (query, value) -> actual.get(query).add(value));
+
+                for (int i = 0; i < queries.length; i++) {
+                    Set<Bounds2d> expectedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+                    expectedSet.addAll(expected.get(i));
+                    assertEquals("values must only be visited once per query", expected.get(i).size(), actual.get(i).size());
+                    for (Bounds2d value : actual.get(i)) {
+                        assertTrue("batch query found a value which the single query didn't", expectedSet.contains(value));
+                    }
+                }
+            }
+        }
+    }
+
+    private static Bounds2d randomBounds(Random r, double range, double maxSize) {
+        double x = (r.nextDouble() - 0.5d) * range;
+        double z = (r.nextDouble() - 0.5d) * range;
+        return Bounds2d.of(x, x + r.nextDouble() * maxSize, z, z + r.nextDouble() * maxSize);
+    }
+}